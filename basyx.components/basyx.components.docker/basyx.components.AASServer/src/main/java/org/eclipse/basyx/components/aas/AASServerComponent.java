@@ -34,6 +34,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -62,16 +67,21 @@ import org.eclipse.basyx.components.aas.aascomponent.IAASServerFeature;
 import org.eclipse.basyx.components.aas.aascomponent.InMemoryAASServerComponentFactory;
 import org.eclipse.basyx.components.aas.aascomponent.MongoDBAASServerComponentFactory;
 import org.eclipse.basyx.components.aas.aasx.AASXPackageManager;
+import org.eclipse.basyx.components.aas.aggregator.IModelChangeListener;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
 import org.eclipse.basyx.components.aas.authorization.AuthorizedAASServerFeature;
 import org.eclipse.basyx.components.aas.authorization.internal.AuthorizedAASServerFeatureFactory;
 import org.eclipse.basyx.components.aas.authorization.internal.AuthorizedDefaultServlet;
 import org.eclipse.basyx.components.aas.authorization.internal.AuthorizedDefaultServletParams;
 import org.eclipse.basyx.components.aas.autoregistration.AutoRegisterAASServerFeature;
+import org.eclipse.basyx.components.aas.caching.CachingAASServerFeature;
 import org.eclipse.basyx.components.aas.configuration.AASEventBackend;
 import org.eclipse.basyx.components.aas.configuration.AASServerBackend;
 import org.eclipse.basyx.components.aas.configuration.BaSyxAASServerConfiguration;
 import org.eclipse.basyx.components.aas.delegation.DelegationAASServerFeature;
 import org.eclipse.basyx.components.aas.fileadaptation.FileValueAdaptingAASServerFeature;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
 import org.eclipse.basyx.components.aas.mqtt.MqttAASServerFeature;
 import org.eclipse.basyx.components.aas.mqtt.MqttV2AASServerFeature;
 import org.eclipse.basyx.components.aas.servlet.AASAggregatorAASXUploadServlet;
@@ -127,6 +137,10 @@ public class AASServerComponent implements IComponent {
 	protected Collection<AASBundle> aasBundles;
 
 	private IAASAggregator aggregator;
+	// Undecorated aggregator of the backend, used for the startup registration
+	private IAASAggregator backendAggregator;
+	// Shared MongoDB templates and write buffers, if the MongoDB backend is used
+	private MongoDBTemplatePool mongoDBTemplatePool;
 	// Watcher for AAS Aggregator functionality
 	private boolean isAASXUploadEnabled = false;
 	
@@ -288,7 +302,47 @@ public class AASServerComponent implements IComponent {
 			return;
 		}
 		
-		aggregator.getAASList().stream().forEach(this::registerAASAndSubmodels);
+		forEachAASInParallel(this::registerAASAndSubmodels);
+	}
+
+	/**
+	 * Passes all AAS of the aggregator to the action. Since the action usually
+	 * performs blocking registry calls, the AAS are processed by a bounded number
+	 * of threads. If all threads are busy, the listing thread processes the next
+	 * AAS itself, so that not all AAS are held in memory.
+	 */
+	private void forEachAASInParallel(Consumer<IAssetAdministrationShell> action) {
+		int threads = aasConfig.getRegistrationThreads();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads), new ThreadPoolExecutor.CallerRunsPolicy());
+		Consumer<IAssetAdministrationShell> submit = aas -> executor.execute(() -> {
+			try {
+				action.accept(aas);
+			} catch (RuntimeException e) {
+				logger.warn("The AAS " + aas.getIdShort() + " could not be processed: " + e.getMessage());
+			}
+		});
+
+		try {
+			if (backendAggregator instanceof IPagedAASAggregator) {
+				((IPagedAASAggregator) backendAggregator).streamAASList(null, 0, 0, submit);
+			} else {
+				backendAggregator.getAASList().forEach(submit);
+			}
+		} finally {
+			executor.shutdown();
+			awaitTermination(executor);
+		}
+	}
+
+	private void awaitTermination(ExecutorService executor) {
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				logger.info("Waiting for the registry calls to finish");
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	private boolean shouldRegisterPreexistingAASAndSM() {
@@ -316,7 +370,7 @@ public class AASServerComponent implements IComponent {
 	}
 
 	private void registerSubmodels(IAssetAdministrationShell aas) {
-		List<ISubmodel> submodels = getSubmodelFromAggregator(aggregator, aas.getIdentification());
+		List<ISubmodel> submodels = getSubmodelHeaders(aas);
 		try {
 			submodels.stream().forEach(submodel -> registerSubmodel(aas, submodel));
 			logger.info("The submodels from AAS " + aas.getIdShort() + " are Successfully Registered from DB");
@@ -330,6 +384,17 @@ public class AASServerComponent implements IComponent {
 		registry.register(aas.getIdentification(), new SubmodelDescriptor(submodel, smEndpoint));
 	}
 
+	/**
+	 * Returns the submodels of the AAS for building their descriptors. If
+	 * possible, the submodel elements are not loaded.
+	 */
+	private List<ISubmodel> getSubmodelHeaders(IAssetAdministrationShell aas) {
+		if (backendAggregator instanceof MongoDBAASAggregator) {
+			return ((MongoDBAASAggregator) backendAggregator).getSubmodelHeaders(aas);
+		}
+		return getSubmodelFromAggregator(backendAggregator, aas.getIdentification());
+	}
+
 	private List<ISubmodel> getSubmodelFromAggregator(IAASAggregator aggregator, IIdentifier iIdentifier) {
 		MultiSubmodelProvider aasProvider = (MultiSubmodelProvider) aggregator.getAASProvider(iIdentifier);
 
@@ -349,12 +414,17 @@ public class AASServerComponent implements IComponent {
 	}
 
 	private void loadAASServerFeaturesFromConfig() {
+		// Added first, so that the cache directly wraps the backend
+		if (aasConfig.isSubmodelCacheEnabled()) {
+			addAASServerFeature(new CachingAASServerFeature(aasConfig.getSubmodelCacheSize(), aasConfig.getSubmodelCacheTTL()));
+		}
+
 		if(aasConfig.isPropertyDelegationEnabled()) {
 			addAASServerFeature(new DelegationAASServerFeature());
 		}
 
 		if (isAutoRegisterEnabled()) {
-			addAASServerFeature(new AutoRegisterAASServerFeature(registry, getURL()));
+			addAutoRegisterFeature();
 		}
 
 		if (isEventingEnabled()) {
@@ -370,6 +440,14 @@ public class AASServerComponent implements IComponent {
 		}
 	}
 
+	private void addAutoRegisterFeature() {
+		if (aasConfig.isAsyncRegistrationEnabled()) {
+			addAASServerFeature(new AutoRegisterAASServerFeature(registry, getURL(), aasConfig.getAsyncRegistrationMaxPending()));
+		} else {
+			addAASServerFeature(new AutoRegisterAASServerFeature(registry, getURL()));
+		}
+	}
+
 	private boolean isAutoRegisterEnabled() {
 		return isRegistryConfigured() && !isSubmodelRegistrationWhiteListConfigured();
 	}
@@ -447,14 +525,28 @@ public class AASServerComponent implements IComponent {
 
 	@Override
 	public void stopComponent() {
-		deregisterAASAndSmAddedDuringRuntime();
-		
+		// Cleaned up first, so that pending asynchronous registrations are sent before
+		// deregistering
 		cleanUpAASServerFeatures();
 
+		deregisterAASAndSmAddedDuringRuntime();
+
 		server.shutdown();
 
+		closeMongoDBWriteBuffers();
+
 		logger.info("AAS Server stopped");
 	}
+
+	private void closeMongoDBWriteBuffers() {
+		if (mongoDBTemplatePool == null) {
+			return;
+		}
+
+		mongoDBTemplatePool.closeChangeStreamListeners();
+		mongoDBTemplatePool.closeAsyncOperationHandlers();
+		mongoDBTemplatePool.closeWriteBuffers();
+	}
 	
 	private void deregisterAASAndSmAddedDuringRuntime() {
 		if(registry == null) {
@@ -462,7 +554,7 @@ public class AASServerComponent implements IComponent {
 		}
 		
 		try {
-			aggregator.getAASList().stream().forEach(this::deregisterAASAndAccompanyingSM);
+			forEachAASInParallel(this::deregisterAASAndAccompanyingSM);
 		} catch(RuntimeException e) {
 			logger.info("The resource could not be found in the aggregator " + e);
 		}
@@ -582,10 +674,38 @@ public class AASServerComponent implements IComponent {
 	private IAASAggregator createAASAggregator() {
 		if (isMongoDBBackend()) {
 			try (final var ignored = ElevatedCodeAuthentication.enterElevatedCodeAuthenticationArea()) {
-				return new MongoDBAASServerComponentFactory(createMongoDbConfiguration(), createAASServerDecoratorList(), registry).create();
+				BaSyxMongoDBConfiguration config = createMongoDbConfiguration();
+				mongoDBTemplatePool = MongoDBTemplatePool.getShared(config);
+				MongoDBAASServerComponentFactory factory = new MongoDBAASServerComponentFactory(config, createAASServerDecoratorList(), registry, mongoDBTemplatePool);
+				IAASAggregator mongoDBAggregator = factory.create();
+				backendAggregator = factory.getBackendAggregator();
+				addChangeListenerFeatures(config, backendAggregator);
+				return mongoDBAggregator;
+			}
+		}
+		InMemoryAASServerComponentFactory factory = new InMemoryAASServerComponentFactory(createAASServerDecoratorList(), registry);
+		IAASAggregator inMemoryAggregator = factory.create();
+		backendAggregator = factory.getBackendAggregator();
+		return inMemoryAggregator;
+	}
+
+	/**
+	 * Passes changes that bypass the submodel APIs, i.e. changes by other servers
+	 * and direct writes of the aggregator, to the features depending on them
+	 */
+	private void addChangeListenerFeatures(BaSyxMongoDBConfiguration config, IAASAggregator backendAggregator) {
+		for (IAASServerFeature aasServerFeature : aasServerFeatureList) {
+			if (!(aasServerFeature instanceof IModelChangeListener)) {
+				continue;
+			}
+			IModelChangeListener listener = (IModelChangeListener) aasServerFeature;
+			if (backendAggregator instanceof MongoDBAASAggregator) {
+				((MongoDBAASAggregator) backendAggregator).addLocalChangeListener(listener);
+			}
+			if (config.isChangeStreamsEnabled()) {
+				mongoDBTemplatePool.getChangeStreamListener(config).addListener(listener);
 			}
 		}
-		return new InMemoryAASServerComponentFactory(createAASServerDecoratorList(), registry).create();
 	}
 
 	private boolean isMongoDBBackend() {
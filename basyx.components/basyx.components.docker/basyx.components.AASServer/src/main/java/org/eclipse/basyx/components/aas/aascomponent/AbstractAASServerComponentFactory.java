@@ -38,6 +38,8 @@ public abstract class AbstractAASServerComponentFactory implements IAASServerCom
 	protected List<IAASServerDecorator> aasServerDecorators;
 	protected IAASRegistry aasServerRegistry;
 
+	private IAASAggregator backendAggregator;
+
 	@Override
 	public IAASAggregator create() {
 		ISubmodelAPIFactory submodelAPIFactory = createAndDecorateSubmodelAPIFactory();
@@ -51,6 +53,17 @@ public abstract class AbstractAASServerComponentFactory implements IAASServerCom
 		return aasAggregatorFactory.create();
 	}
 
+	/**
+	 * Returns the undecorated aggregator of the backend that has been created by
+	 * the last call to {@link #create()}, e.g. to use backend specific operations
+	 * that the decorators do not forward
+	 * 
+	 * @return
+	 */
+	public IAASAggregator getBackendAggregator() {
+		return backendAggregator;
+	}
+
 	private ISubmodelAPIFactory createAndDecorateSubmodelAPIFactory() {
 		ISubmodelAPIFactory submodelAPIFactory = createSubmodelAPIFactory();
 		for (IAASServerDecorator aasServerDecorator : aasServerDecorators) {
@@ -79,7 +92,11 @@ public abstract class AbstractAASServerComponentFactory implements IAASServerCom
 	}
 
 	private IAASAggregatorFactory createAndDecorateAASAggregatorFactory(IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		IAASAggregatorFactory aasAggregatorFactory = createAASAggregatorFactory(aasAPIFactory, submodelAggregatorFactory);
+		IAASAggregatorFactory backendFactory = createAASAggregatorFactory(aasAPIFactory, submodelAggregatorFactory);
+		IAASAggregatorFactory aasAggregatorFactory = () -> {
+			backendAggregator = backendFactory.create();
+			return backendAggregator;
+		};
 		for (IAASServerDecorator aasServerDecorator : aasServerDecorators) {
 			aasAggregatorFactory = aasServerDecorator.decorateAASAggregatorFactory(aasAggregatorFactory);
 		}
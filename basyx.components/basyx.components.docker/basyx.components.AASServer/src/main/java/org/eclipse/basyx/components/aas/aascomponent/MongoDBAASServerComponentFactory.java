@@ -33,13 +33,11 @@ import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregatorFactory;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregatorFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.aggregator.api.ISubmodelAggregatorFactory;
 import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-
 /**
  * 
  * Factory building the AASAggregator for the AASComponent with given decorators
@@ -51,38 +49,52 @@ import com.mongodb.client.MongoClients;
 public class MongoDBAASServerComponentFactory extends AbstractAASServerComponentFactory {
 
 	private BaSyxMongoDBConfiguration mongoDBConfig;
-	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
+	private ISubmodelAPIFactory decoratedSubmodelAPIFactory;
 
 	public MongoDBAASServerComponentFactory(BaSyxMongoDBConfiguration config, List<IAASServerDecorator> decorators, IAASRegistry aasServerRegistry) {
 		this.mongoDBConfig = config;
 		this.aasServerRegistry = aasServerRegistry;
 		this.aasServerDecorators = decorators;
-		this.client = MongoClients.create(config.getConnectionUrl());
+		this.templatePool = MongoDBTemplatePool.getShared(config);
 	}
 
 	public MongoDBAASServerComponentFactory(BaSyxMongoDBConfiguration config, IAASRegistry aasServerRegistry) {
 		this.mongoDBConfig = config;
 		this.aasServerRegistry = aasServerRegistry;
-		this.client = MongoClients.create(config.getConnectionUrl());
+		this.templatePool = MongoDBTemplatePool.getShared(config);
+	}
+
+	/**
+	 * Uses the given pool of MongoDB templates for all created APIs and
+	 * aggregators
+	 */
+	public MongoDBAASServerComponentFactory(BaSyxMongoDBConfiguration config, List<IAASServerDecorator> decorators, IAASRegistry aasServerRegistry, MongoDBTemplatePool templatePool) {
+		this.mongoDBConfig = config;
+		this.aasServerRegistry = aasServerRegistry;
+		this.aasServerDecorators = decorators;
+		this.templatePool = templatePool;
 	}
 
 	@Override
 	protected ISubmodelAPIFactory createSubmodelAPIFactory() {
-		return new MongoDBSubmodelAPIFactory(mongoDBConfig, client);
+		return new MongoDBSubmodelAPIFactory(mongoDBConfig, templatePool);
 	}
 
 	@Override
 	protected ISubmodelAggregatorFactory createSubmodelAggregatorFactory(ISubmodelAPIFactory submodelAPIFactory) {
-		return new MongoDBSubmodelAggregatorFactory(mongoDBConfig, submodelAPIFactory, client);
+		// Also used by the AAS aggregator for the submodels loaded from the database
+		decoratedSubmodelAPIFactory = submodelAPIFactory;
+		return new MongoDBSubmodelAggregatorFactory(mongoDBConfig, submodelAPIFactory, templatePool);
 	}
 
 	@Override
 	protected IAASAPIFactory createAASAPIFactory() {
-		return new MongoDBAASAPIFactory(mongoDBConfig, client);
+		return new MongoDBAASAPIFactory(mongoDBConfig, templatePool);
 	}
 
 	@Override
 	protected IAASAggregatorFactory createAASAggregatorFactory(IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		return new MongoDBAASAggregatorFactory(mongoDBConfig, aasServerRegistry, aasAPIFactory, submodelAggregatorFactory, client);
+		return new MongoDBAASAggregatorFactory(mongoDBConfig, aasServerRegistry, aasAPIFactory, decoratedSubmodelAPIFactory, submodelAggregatorFactory, templatePool);
 	}
 }
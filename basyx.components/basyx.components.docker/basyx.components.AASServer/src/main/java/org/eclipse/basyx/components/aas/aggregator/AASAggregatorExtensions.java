@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.aggregator;
+
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+
+/**
+ * Looks up the optional interfaces of a possibly decorated aggregator.
+ * Decorators that do not forward an interface, e.g. the authorization, hide it,
+ * so that it can not be used to bypass them.
+ * 
+ * @author espen
+ *
+ */
+public class AASAggregatorExtensions {
+	private AASAggregatorExtensions() {
+	}
+
+	/**
+	 * Returns the aggregator as the given extension, if it and all decorated
+	 * aggregators it forwards the extension to implement it, or null otherwise
+	 * 
+	 * @param aggregator
+	 * @param extension
+	 *            e.g. {@link IPagedAASAggregator}
+	 * @return
+	 */
+	public static <T extends IAASAggregator> T find(IAASAggregator aggregator, Class<T> extension) {
+		IAASAggregator current = aggregator;
+		while (extension.isInstance(current)) {
+			if (!(current instanceof IDecoratingAASAggregator)) {
+				return extension.cast(aggregator);
+			}
+			current = ((IDecoratingAASAggregator) current).getDecoratedAggregator();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.aggregator;
+
+/**
+ * Receives changes of the persisted AAS and submodels that may have been made
+ * by other servers sharing the same backend, so that state derived from the
+ * persisted models, e.g. providers or caches, can be kept up to date
+ * 
+ * @author espen
+ *
+ */
+public interface IModelChangeListener {
+
+	/**
+	 * Called if an AAS has been created or changed
+	 * 
+	 * @param aasId
+	 */
+	public default void onAASChanged(String aasId) {
+	}
+
+	/**
+	 * Called if an AAS has been deleted
+	 * 
+	 * @param aasId
+	 */
+	public default void onAASDeleted(String aasId) {
+	}
+
+	/**
+	 * Called if a submodel has been created or changed
+	 * 
+	 * @param smId
+	 */
+	public default void onSubmodelChanged(String smId) {
+	}
+
+	/**
+	 * Called if a submodel has been deleted. The id of the deleted submodel is
+	 * not known to all backends, so it is not passed.
+	 */
+	public default void onSubmodelDeleted() {
+	}
+
+	/**
+	 * Called if single changes could not be tracked, e.g. because the persisted
+	 * models have been dropped as a whole. All state derived from the persisted
+	 * models has to be reloaded.
+	 */
+	public default void onResync() {
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.aggregator;
+
+import java.io.InputStream;
+
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+
+/**
+ * An IAASAggregator that accepts the file of a File submodel element in chunks
+ * over several requests, so that an interrupted upload can be resumed at the
+ * last accepted chunk
+ * 
+ * @author espen
+ *
+ */
+public interface IResumableUploadAASAggregator extends IAASAggregator {
+
+	/**
+	 * Starts an upload session for the file of a File submodel element
+	 * 
+	 * @param aasId
+	 *            Id of the AAS containing the submodel
+	 * @param smIdShort
+	 *            IdShort of the submodel
+	 * @param idShortPath
+	 *            Path to the File submodel element
+	 * @return Id of the upload session
+	 */
+	public String startSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String idShortPath);
+
+	/**
+	 * Returns the number of bytes received by the upload session, i.e. the offset
+	 * of the next chunk
+	 * 
+	 * @param aasId
+	 * @param smIdShort
+	 * @param sessionId
+	 * @return
+	 */
+	public long getSubmodelElementFileUploadOffset(IIdentifier aasId, String smIdShort, String sessionId);
+
+	/**
+	 * Appends the next chunk of the file to the upload session
+	 * 
+	 * @param aasId
+	 * @param smIdShort
+	 * @param sessionId
+	 * @param offset
+	 *            Has to match the current upload offset
+	 * @param chunk
+	 * @return The new upload offset
+	 */
+	public long appendSubmodelElementFileChunk(IIdentifier aasId, String smIdShort, String sessionId, long offset, InputStream chunk);
+
+	/**
+	 * Stores the received file for its File submodel element and ends the
+	 * upload session
+	 * 
+	 * @param aasId
+	 * @param smIdShort
+	 * @param sessionId
+	 */
+	public void completeSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId);
+
+	/**
+	 * Ends the upload session and drops the chunks received so far
+	 * 
+	 * @param aasId
+	 * @param smIdShort
+	 * @param sessionId
+	 */
+	public void abortSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId);
+
+	/**
+	 * Links the File submodel element to an already stored file with the given
+	 * content hash, so that identical files do not have to be uploaded again
+	 * 
+	 * @param aasId
+	 * @param smIdShort
+	 * @param idShortPath
+	 *            Path to the File submodel element
+	 * @param sha256
+	 *            Hex encoded SHA-256 hash of the file content
+	 * @return false, if no file with this content is stored yet
+	 */
+	public boolean linkSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath, String sha256);
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.aggregator;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+
+/**
+ * Wraps an aggregator decorator that only observes writes, e.g. for MQTT
+ * eventing, and can not forward the optional interfaces itself. All
+ * IAASAggregator calls go to the decorator. The read-only extensions
+ * {@link IPagedAASAggregator} and {@link IFileStreamingAASAggregator} are
+ * forwarded to the aggregator below it, since the decorator would not do
+ * anything for them. Bulk imports and resumable uploads are not forwarded,
+ * since they would bypass the decorator.
+ * 
+ * @author espen
+ *
+ */
+public class ReadForwardingAASAggregator implements IPagedAASAggregator, IFileStreamingAASAggregator, IDecoratingAASAggregator {
+	private final IAASAggregator decorator;
+	private final IAASAggregator decorated;
+
+	/**
+	 * @param decorator
+	 *            Aggregator decorator that receives all IAASAggregator calls
+	 * @param decorated
+	 *            Aggregator wrapped by the decorator
+	 */
+	public ReadForwardingAASAggregator(IAASAggregator decorator, IAASAggregator decorated) {
+		this.decorator = decorator;
+		this.decorated = decorated;
+	}
+
+	@Override
+	public IAASAggregator getDecoratedAggregator() {
+		return decorated;
+	}
+
+	@Override
+	public Collection<IAssetAdministrationShell> getAASList() {
+		return decorator.getAASList();
+	}
+
+	@Override
+	public IAssetAdministrationShell getAAS(IIdentifier aasId) throws ResourceNotFoundException {
+		return decorator.getAAS(aasId);
+	}
+
+	@Override
+	public void createAAS(AssetAdministrationShell aas) {
+		decorator.createAAS(aas);
+	}
+
+	@Override
+	public void updateAAS(AssetAdministrationShell aas) throws ResourceNotFoundException {
+		decorator.updateAAS(aas);
+	}
+
+	@Override
+	public void deleteAAS(IIdentifier aasId) {
+		decorator.deleteAAS(aasId);
+	}
+
+	@Override
+	public IModelProvider getAASProvider(IIdentifier aasId) throws ResourceNotFoundException {
+		return decorator.getAASProvider(aasId);
+	}
+
+	@Override
+	public void streamAASList(String cursor, int offset, int limit, Consumer<IAssetAdministrationShell> consumer) {
+		((IPagedAASAggregator) decorated).streamAASList(cursor, offset, limit, consumer);
+	}
+
+	@Override
+	public SubmodelElementFileStream openSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath) {
+		return ((IFileStreamingAASAggregator) decorated).openSubmodelElementFile(aasId, smIdShort, idShortPath);
+	}
+}
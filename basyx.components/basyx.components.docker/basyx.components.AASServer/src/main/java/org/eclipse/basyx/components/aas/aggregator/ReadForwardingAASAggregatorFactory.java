@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.aggregator;
+
+import java.util.function.UnaryOperator;
+
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregatorFactory;
+
+/**
+ * Factory for creating a {@link ReadForwardingAASAggregator} around an
+ * aggregator decorator created by another factory
+ * 
+ * @author espen
+ *
+ */
+public class ReadForwardingAASAggregatorFactory implements IAASAggregatorFactory {
+	private final IAASAggregatorFactory aggregatorFactory;
+	private final UnaryOperator<IAASAggregatorFactory> decoration;
+
+	/**
+	 * @param aggregatorFactory
+	 *            Factory of the aggregator to be decorated
+	 * @param decoration
+	 *            Creates the decorating factory from the given factory, e.g.
+	 *            factory -> new MqttDecoratingAASAggregatorFactory(factory, client)
+	 */
+	public ReadForwardingAASAggregatorFactory(IAASAggregatorFactory aggregatorFactory, UnaryOperator<IAASAggregatorFactory> decoration) {
+		this.aggregatorFactory = aggregatorFactory;
+		this.decoration = decoration;
+	}
+
+	@Override
+	public IAASAggregator create() {
+		IAASAggregator[] decorated = new IAASAggregator[1];
+		IAASAggregator decorator = decoration.apply(() -> decorated[0] = aggregatorFactory.create()).create();
+		return new ReadForwardingAASAggregator(decorator, decorated[0]);
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.autoregistration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.SubmodelDescriptor;
+import org.eclipse.basyx.aas.registration.api.IAASRegistry;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs registry calls in a background thread, so that creating and deleting
+ * Shells/Submodels does not wait for the registry. Calls for the same Shell or
+ * Submodel that are still pending are coalesced, so only the latest one is sent
+ * to the registry. Failed calls are retried with exponential backoff.
+ * 
+ * The number of pending calls is bounded. If it is reached, callers block until
+ * the registry catches up.
+ * 
+ * @author espen
+ *
+ */
+public class AsyncRegistrationQueue implements AutoCloseable {
+	private static Logger logger = LoggerFactory.getLogger(AsyncRegistrationQueue.class);
+
+	private static final int MAX_ATTEMPTS = 6;
+	private static final long INITIAL_BACKOFF_MILLIS = 100;
+	private static final long MAX_BACKOFF_MILLIS = 10000;
+	private static final long CLOSE_TIMEOUT_MILLIS = 30000;
+
+	private final IAASRegistry registry;
+	private final int maxPending;
+
+	// [aasId] or [aasId, smId] => latest pending call, in the order of the first
+	// call per key, so that Shells are registered before their Submodels
+	private final Map<List<String>, RegistryCall> pending = new LinkedHashMap<>();
+	private final Thread worker;
+	private boolean closed = false;
+
+	public AsyncRegistrationQueue(IAASRegistry registry, int maxPending) {
+		this.registry = registry;
+		this.maxPending = maxPending;
+		this.worker = new Thread(this::processCalls, "basyx-registration-queue");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	public void registerAAS(AASDescriptor descriptor) {
+		IIdentifier aasId = descriptor.getIdentifier();
+		enqueue(Collections.singletonList(aasId.getId()), new RegistryCall("register AAS " + aasId.getId(), r -> r.register(descriptor)));
+	}
+
+	public void deleteAAS(IIdentifier aasId) {
+		synchronized (pending) {
+			// Submodels are deleted together with their Shell
+			pending.keySet().removeIf(key -> key.size() == 2 && key.get(0).equals(aasId.getId()));
+		}
+		enqueue(Collections.singletonList(aasId.getId()), new RegistryCall("delete AAS " + aasId.getId(), r -> r.delete(aasId)));
+	}
+
+	public void registerSubmodel(IIdentifier aasId, SubmodelDescriptor descriptor) {
+		IIdentifier smId = descriptor.getIdentifier();
+		enqueue(Arrays.asList(aasId.getId(), smId.getId()), new RegistryCall("register Submodel " + smId.getId(), r -> r.register(aasId, descriptor)));
+	}
+
+	public void deleteSubmodel(IIdentifier aasId, IIdentifier smId) {
+		enqueue(Arrays.asList(aasId.getId(), smId.getId()), new RegistryCall("delete Submodel " + smId.getId(), r -> r.delete(aasId, smId)));
+	}
+
+	/**
+	 * Returns the number of calls that have not been sent yet
+	 * 
+	 * @return
+	 */
+	public int getPendingCount() {
+		synchronized (pending) {
+			return pending.size();
+		}
+	}
+
+	/**
+	 * Sends the pending calls and stops the background thread. Waits at most
+	 * {@value #CLOSE_TIMEOUT_MILLIS} ms, pending calls are not retried anymore.
+	 */
+	@Override
+	public void close() {
+		synchronized (pending) {
+			closed = true;
+			pending.notifyAll();
+		}
+		try {
+			worker.join(CLOSE_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		int dropped = getPendingCount();
+		if (dropped > 0) {
+			logger.warn("Dropped " + dropped + " pending registry calls on shutdown");
+		}
+	}
+
+	private void enqueue(List<String> key, RegistryCall call) {
+		synchronized (pending) {
+			while (!closed && pending.size() >= maxPending && !pending.containsKey(key)) {
+				try {
+					pending.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			if (!closed) {
+				// Replacing keeps the position of the key
+				pending.put(key, call);
+				pending.notifyAll();
+				return;
+			}
+		}
+		// The worker has stopped, so the call is made directly. This happens
+		// outside of the lock to not block the other callers during the call.
+		call.execute(registry);
+	}
+
+	private void processCalls() {
+		while (true) {
+			RegistryCall call;
+			synchronized (pending) {
+				while (pending.isEmpty() && !closed) {
+					try {
+						pending.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (pending.isEmpty()) {
+					return;
+				}
+				Iterator<Entry<List<String>, RegistryCall>> iterator = pending.entrySet().iterator();
+				call = iterator.next().getValue();
+				iterator.remove();
+				pending.notifyAll();
+			}
+			executeWithRetry(call);
+		}
+	}
+
+	private void executeWithRetry(RegistryCall call) {
+		long backoff = INITIAL_BACKOFF_MILLIS;
+		for (int attempt = 1;; attempt++) {
+			try {
+				call.execute(registry);
+				return;
+			} catch (ResourceNotFoundException | MalformedRequestException e) {
+				// Retrying does not help
+				logger.warn("Registry call failed: " + call + ": " + e.getMessage());
+				return;
+			} catch (RuntimeException e) {
+				if (attempt >= MAX_ATTEMPTS || isClosed()) {
+					logger.warn("Registry call failed after " + attempt + " attempts, giving up: " + call + ": " + e.getMessage());
+					return;
+				}
+				logger.info("Registry call failed, retrying in " + backoff + " ms: " + call + ": " + e.getMessage());
+				if (!sleep(backoff)) {
+					return;
+				}
+				backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+			}
+		}
+	}
+
+	private boolean isClosed() {
+		synchronized (pending) {
+			return closed;
+		}
+	}
+
+	private static boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static class RegistryCall {
+		private final String description;
+		private final Consumer<IAASRegistry> call;
+
+		public RegistryCall(String description, Consumer<IAASRegistry> call) {
+			this.description = description;
+			this.call = call;
+		}
+
+		public void execute(IAASRegistry registry) {
+			call.accept(registry);
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+	}
+}
@@ -24,15 +24,31 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.aas.autoregistration;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.eclipse.basyx.aas.aggregator.AASAggregatorAPIHelper;
 import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.bundle.AASBundle;
 import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.SubmodelDescriptor;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
+import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
+import org.eclipse.basyx.components.aas.aggregator.IBulkImportAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IDecoratingAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IFileStreamingAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IResumableUploadAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
+import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
 import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.eclipse.basyx.vab.modelprovider.VABPathTools;
 import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
@@ -41,14 +57,19 @@ import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
  * An {@link IAASAggregator} which automatically registers created Shells in the
  * registry
  * 
+ * The optional aggregator interfaces are forwarded to the decorated
+ * aggregator. Shells and Submodels imported in bulk are registered after the
+ * import.
+ * 
  * @author fried
  *
  */
-public class AutoRegisterAASAggregator implements IAASAggregator {
+public class AutoRegisterAASAggregator implements IPagedAASAggregator, IFileStreamingAASAggregator, IResumableUploadAASAggregator, IBulkImportAASAggregator, IDecoratingAASAggregator {
 
 	private IAASAggregator aggregator;
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterAASAggregator(IAASAggregator aggregator, IAASRegistry registry, String endpoint) {
 		this.aggregator = aggregator;
@@ -56,6 +77,16 @@ public class AutoRegisterAASAggregator implements IAASAggregator {
 		this.endpoint = endpoint;
 	}
 
+	/**
+	 * Registers the Shells through the given queue instead of calling the registry
+	 * directly
+	 */
+	public AutoRegisterAASAggregator(IAASAggregator aggregator, AsyncRegistrationQueue registrationQueue, String endpoint) {
+		this.aggregator = aggregator;
+		this.registrationQueue = registrationQueue;
+		this.endpoint = endpoint;
+	}
+
 	@Override
 	public Collection<IAssetAdministrationShell> getAASList() {
 		return aggregator.getAASList();
@@ -74,16 +105,38 @@ public class AutoRegisterAASAggregator implements IAASAggregator {
 	@Override
 	public void createAAS(AssetAdministrationShell aas) {
 		aggregator.createAAS(aas);
-		registry.register(new AASDescriptor(aas, getEndpoint(aas)));
+		register(new AASDescriptor(aas, getEndpoint(aas)));
+	}
+
+	private void register(AASDescriptor descriptor) {
+		if (registrationQueue != null) {
+			registrationQueue.registerAAS(descriptor);
+		} else {
+			registry.register(descriptor);
+		}
+	}
 
+	private void register(IIdentifier aasId, SubmodelDescriptor descriptor) {
+		if (registrationQueue != null) {
+			registrationQueue.registerSubmodel(aasId, descriptor);
+		} else {
+			registry.register(aasId, descriptor);
+		}
 	}
 
-	private String getEndpoint(AssetAdministrationShell aas) {
+	private String getEndpoint(IAssetAdministrationShell aas) {
 		String harmonized = AASAggregatorAPIHelper.harmonizeURL(endpoint);		
 		String aasAccessPath = AASAggregatorAPIHelper.getAASAccessPath(aas.getIdentification());
 		return VABPathTools.concatenatePaths(harmonized, aasAccessPath);
 	}
 
+	private String getEndpoint(IAssetAdministrationShell aas, ISubmodel submodel) {
+		String harmonized = AASAggregatorAPIHelper.harmonizeURL(endpoint);
+		String shellEntryPath = AASAggregatorAPIHelper.getAASEntryPath(aas.getIdentification());
+		String submodelEntryPath = VABPathTools.concatenatePaths(MultiSubmodelProvider.SUBMODELS_PREFIX, submodel.getIdShort(), SubmodelProvider.SUBMODEL);
+		return VABPathTools.concatenatePaths(harmonized, shellEntryPath, submodelEntryPath);
+	}
+
 	@Override
 	public void updateAAS(AssetAdministrationShell aas) throws ResourceNotFoundException {
 		aggregator.updateAAS(aas);
@@ -92,7 +145,76 @@ public class AutoRegisterAASAggregator implements IAASAggregator {
 	@Override
 	public void deleteAAS(IIdentifier aasId) {
 		aggregator.deleteAAS(aasId);
-		registry.delete(aasId);
+		if (registrationQueue != null) {
+			registrationQueue.deleteAAS(aasId);
+		} else {
+			registry.delete(aasId);
+		}
+	}
+
+	@Override
+	public IAASAggregator getDecoratedAggregator() {
+		return aggregator;
+	}
+
+	@Override
+	public void streamAASList(String cursor, int offset, int limit, Consumer<IAssetAdministrationShell> consumer) {
+		((IPagedAASAggregator) aggregator).streamAASList(cursor, offset, limit, consumer);
+	}
+
+	@Override
+	public SubmodelElementFileStream openSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath) {
+		return ((IFileStreamingAASAggregator) aggregator).openSubmodelElementFile(aasId, smIdShort, idShortPath);
+	}
+
+	@Override
+	public String startSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String idShortPath) {
+		return ((IResumableUploadAASAggregator) aggregator).startSubmodelElementFileUpload(aasId, smIdShort, idShortPath);
+	}
+
+	@Override
+	public long getSubmodelElementFileUploadOffset(IIdentifier aasId, String smIdShort, String sessionId) {
+		return ((IResumableUploadAASAggregator) aggregator).getSubmodelElementFileUploadOffset(aasId, smIdShort, sessionId);
+	}
+
+	@Override
+	public long appendSubmodelElementFileChunk(IIdentifier aasId, String smIdShort, String sessionId, long offset, InputStream chunk) {
+		return ((IResumableUploadAASAggregator) aggregator).appendSubmodelElementFileChunk(aasId, smIdShort, sessionId, offset, chunk);
+	}
+
+	@Override
+	public void completeSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId) {
+		((IResumableUploadAASAggregator) aggregator).completeSubmodelElementFileUpload(aasId, smIdShort, sessionId);
+	}
+
+	@Override
+	public void abortSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId) {
+		((IResumableUploadAASAggregator) aggregator).abortSubmodelElementFileUpload(aasId, smIdShort, sessionId);
+	}
+
+	@Override
+	public boolean linkSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath, String sha256) {
+		return ((IResumableUploadAASAggregator) aggregator).linkSubmodelElementFile(aasId, smIdShort, idShortPath, sha256);
 	}
 
+	/**
+	 * Only the descriptors of the imported Shells and Submodels are collected
+	 * during the import, so that the bundles do not have to be held in memory
+	 */
+	@Override
+	public int importAASBundles(Stream<AASBundle> bundles) {
+		List<Runnable> registrations = new ArrayList<>();
+		int imported = ((IBulkImportAASAggregator) aggregator).importAASBundles(bundles.peek(bundle -> {
+			IAssetAdministrationShell aas = bundle.getAAS();
+			AASDescriptor shellDescriptor = new AASDescriptor(aas, getEndpoint(aas));
+			registrations.add(() -> register(shellDescriptor));
+			for (ISubmodel submodel : bundle.getSubmodels()) {
+				SubmodelDescriptor submodelDescriptor = new SubmodelDescriptor(submodel, getEndpoint(aas, submodel));
+				registrations.add(() -> register(aas.getIdentification(), submodelDescriptor));
+			}
+		}));
+
+		registrations.forEach(Runnable::run);
+		return imported;
+	}
 }
@@ -39,6 +39,7 @@ public class AutoRegisterAASAggregatorFactory implements IAASAggregatorFactory {
 	private IAASAggregatorFactory aggregatorFactory;
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterAASAggregatorFactory(IAASAggregatorFactory aggregatorFactory, IAASRegistry registry,
 			String endpoint) {
@@ -47,8 +48,18 @@ public class AutoRegisterAASAggregatorFactory implements IAASAggregatorFactory {
 		this.endpoint = endpoint;
 	}
 
+	public AutoRegisterAASAggregatorFactory(IAASAggregatorFactory aggregatorFactory, AsyncRegistrationQueue registrationQueue,
+			String endpoint) {
+		this.aggregatorFactory = aggregatorFactory;
+		this.registrationQueue = registrationQueue;
+		this.endpoint = endpoint;
+	}
+
 	@Override
 	public IAASAggregator create() {
+		if (registrationQueue != null) {
+			return new AutoRegisterAASAggregator(aggregatorFactory.create(), registrationQueue, endpoint);
+		}
 		return new AutoRegisterAASAggregator(aggregatorFactory.create(), registry, endpoint);
 	}
 
@@ -40,12 +40,18 @@ import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 public class AutoRegisterAASServerDecorator implements IAASServerDecorator {
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterAASServerDecorator(IAASRegistry registry, String endpoint) {
 		this.registry = registry;
 		this.endpoint = endpoint;
 	}
 
+	public AutoRegisterAASServerDecorator(AsyncRegistrationQueue registrationQueue, String endpoint) {
+		this.registrationQueue = registrationQueue;
+		this.endpoint = endpoint;
+	}
+
 	@Override
 	public ISubmodelAPIFactory decorateSubmodelAPIFactory(ISubmodelAPIFactory submodelAPIFactory) {
 		return submodelAPIFactory;
@@ -54,6 +60,9 @@ public class AutoRegisterAASServerDecorator implements IAASServerDecorator {
 	@Override
 	public ISubmodelAggregatorFactory decorateSubmodelAggregatorFactory(
 			ISubmodelAggregatorFactory submodelAggregatorFactory) {
+		if (registrationQueue != null) {
+			return new AutoRegisterSubmodelAggregatorFactory(submodelAggregatorFactory, registrationQueue, endpoint);
+		}
 		return new AutoRegisterSubmodelAggregatorFactory(submodelAggregatorFactory, registry, endpoint);
 	}
 
@@ -64,6 +73,9 @@ public class AutoRegisterAASServerDecorator implements IAASServerDecorator {
 
 	@Override
 	public IAASAggregatorFactory decorateAASAggregatorFactory(IAASAggregatorFactory aasAggregatorFactory) {
+		if (registrationQueue != null) {
+			return new AutoRegisterAASAggregatorFactory(aasAggregatorFactory, registrationQueue, endpoint);
+		}
 		return new AutoRegisterAASAggregatorFactory(aasAggregatorFactory, registry, endpoint);
 	}
 
@@ -39,12 +39,23 @@ public class AutoRegisterAASServerFeature implements IAASServerFeature {
 
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterAASServerFeature(IAASRegistry registry, String endpoint) {
 		this.registry = registry;
 		this.endpoint = endpoint;
 	}
 
+	/**
+	 * Registers Shells/Submodels asynchronously. At most maxPending registry calls
+	 * are queued, further calls block until the registry catches up.
+	 */
+	public AutoRegisterAASServerFeature(IAASRegistry registry, String endpoint, int maxPending) {
+		this.registry = registry;
+		this.endpoint = endpoint;
+		this.registrationQueue = new AsyncRegistrationQueue(registry, maxPending);
+	}
+
 	@Override
 	public void initialize() {
 		// nothing to do in for this feature at the moment
@@ -52,11 +63,16 @@ public class AutoRegisterAASServerFeature implements IAASServerFeature {
 
 	@Override
 	public void cleanUp() {
-		// nothing to do in for this feature at the moment
+		if (registrationQueue != null) {
+			registrationQueue.close();
+		}
 	}
 
 	@Override
 	public IAASServerDecorator getDecorator() {
+		if (registrationQueue != null) {
+			return new AutoRegisterAASServerDecorator(registrationQueue, endpoint);
+		}
 		return new AutoRegisterAASServerDecorator(registry, endpoint);
 	}
 
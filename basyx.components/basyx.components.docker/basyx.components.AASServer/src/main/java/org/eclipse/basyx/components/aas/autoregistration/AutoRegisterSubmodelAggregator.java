@@ -53,6 +53,7 @@ public class AutoRegisterSubmodelAggregator implements ISubmodelAggregator {
 	private ISubmodelAggregator aggregator;
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterSubmodelAggregator(ISubmodelAggregator aggregator, IAASRegistry registry,
 			IIdentifier aasIdentifier, String endpoint) {
@@ -62,6 +63,18 @@ public class AutoRegisterSubmodelAggregator implements ISubmodelAggregator {
 		this.endpoint = endpoint;
 	}
 
+	/**
+	 * Registers the Submodels through the given queue instead of calling the
+	 * registry directly
+	 */
+	public AutoRegisterSubmodelAggregator(ISubmodelAggregator aggregator, AsyncRegistrationQueue registrationQueue,
+			IIdentifier aasIdentifier, String endpoint) {
+		this.aggregator = aggregator;
+		this.registrationQueue = registrationQueue;
+		this.aasIdentifier = aasIdentifier;
+		this.endpoint = endpoint;
+	}
+
 	@Override
 	public Collection<ISubmodel> getSubmodelList() {
 		return aggregator.getSubmodelList();
@@ -90,14 +103,29 @@ public class AutoRegisterSubmodelAggregator implements ISubmodelAggregator {
 	@Override
 	public void createSubmodel(Submodel submodel) {
 		aggregator.createSubmodel(submodel);
-		registry.register(aasIdentifier, new SubmodelDescriptor(submodel, getEndpoint(submodel)));
+		register(new SubmodelDescriptor(submodel, getEndpoint(submodel)));
 	}
 
 	@Override
 	public void createSubmodel(ISubmodelAPI submodelAPI) {
 		aggregator.createSubmodel(submodelAPI);
-		registry.register(aasIdentifier, new SubmodelDescriptor(submodelAPI.getSubmodel(), getEndpoint(submodelAPI.getSubmodel())));
+		register(new SubmodelDescriptor(submodelAPI.getSubmodel(), getEndpoint(submodelAPI.getSubmodel())));
+	}
+
+	private void register(SubmodelDescriptor descriptor) {
+		if (registrationQueue != null) {
+			registrationQueue.registerSubmodel(aasIdentifier, descriptor);
+		} else {
+			registry.register(aasIdentifier, descriptor);
+		}
+	}
 
+	private void delete(IIdentifier smIdentifier) {
+		if (registrationQueue != null) {
+			registrationQueue.deleteSubmodel(aasIdentifier, smIdentifier);
+		} else {
+			registry.delete(aasIdentifier, smIdentifier);
+		}
 	}
 
 	private String getEndpoint(ISubmodel submodel) {
@@ -115,14 +143,14 @@ public class AutoRegisterSubmodelAggregator implements ISubmodelAggregator {
 	@Override
 	public void deleteSubmodelByIdentifier(IIdentifier identifier) {
 		aggregator.deleteSubmodelByIdentifier(identifier);
-		registry.delete(aasIdentifier, identifier);
+		delete(identifier);
 	}
 
 	@Override
 	public void deleteSubmodelByIdShort(String idShort) {
 		Submodel submodel = (Submodel) aggregator.getSubmodelbyIdShort(idShort);
 		aggregator.deleteSubmodelByIdShort(idShort);
-		registry.delete(aasIdentifier, submodel.getIdentification());
+		delete(submodel.getIdentification());
 	}
 
 }
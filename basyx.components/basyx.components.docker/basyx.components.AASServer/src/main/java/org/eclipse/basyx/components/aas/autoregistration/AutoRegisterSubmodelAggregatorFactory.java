@@ -41,6 +41,7 @@ public class AutoRegisterSubmodelAggregatorFactory implements ISubmodelAggregato
 	private ISubmodelAggregatorFactory aggregatorFactory;
 	private IAASRegistry registry;
 	private String endpoint;
+	private AsyncRegistrationQueue registrationQueue;
 
 	public AutoRegisterSubmodelAggregatorFactory(ISubmodelAggregatorFactory aggregatorFactory, IAASRegistry registry,
 			String endpoint) {
@@ -49,6 +50,13 @@ public class AutoRegisterSubmodelAggregatorFactory implements ISubmodelAggregato
 		this.endpoint = endpoint;
 	}
 
+	public AutoRegisterSubmodelAggregatorFactory(ISubmodelAggregatorFactory aggregatorFactory, AsyncRegistrationQueue registrationQueue,
+			String endpoint) {
+		this.aggregatorFactory = aggregatorFactory;
+		this.registrationQueue = registrationQueue;
+		this.endpoint = endpoint;
+	}
+
 	@Override
 	public ISubmodelAggregator create() {
 		return aggregatorFactory.create();
@@ -56,6 +64,9 @@ public class AutoRegisterSubmodelAggregatorFactory implements ISubmodelAggregato
 
 	@Override
 	public ISubmodelAggregator create(IIdentifier aasIdentifier) {
+		if (registrationQueue != null) {
+			return new AutoRegisterSubmodelAggregator(aggregatorFactory.create(aasIdentifier), registrationQueue, aasIdentifier, endpoint);
+		}
 		return new AutoRegisterSubmodelAggregator(aggregatorFactory.create(aasIdentifier), registry, aasIdentifier, endpoint);
 	}
 
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.caching;
+
+import org.eclipse.basyx.components.aas.aascomponent.IAASServerDecorator;
+import org.eclipse.basyx.components.aas.aascomponent.IAASServerFeature;
+import org.eclipse.basyx.components.aas.aggregator.IModelChangeListener;
+
+/**
+ * 
+ * Feature for a bounded read-through cache of submodels. Entries are
+ * invalidated if the submodels are changed by another server.
+ * 
+ * @author espen
+ *
+ */
+public class CachingAASServerFeature implements IAASServerFeature, IModelChangeListener {
+	private SubmodelCache cache;
+
+	public CachingAASServerFeature(int maxSize, long ttlMillis) {
+		this.cache = new SubmodelCache(maxSize, ttlMillis);
+	}
+
+	@Override
+	public void initialize() {
+	}
+
+	@Override
+	public void cleanUp() {
+		cache.clear();
+	}
+
+	@Override
+	public IAASServerDecorator getDecorator() {
+		return new CachingAASServerDecorator(cache);
+	}
+
+	@Override
+	public void onSubmodelChanged(String smId) {
+		cache.invalidate(smId);
+	}
+
+	@Override
+	public void onSubmodelDeleted() {
+		cache.clear();
+	}
+
+	@Override
+	public void onResync() {
+		cache.clear();
+	}
+
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.caching;
+
+import java.io.InputStream;
+import java.util.Collection;
+
+import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.ISubmodelElement;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.operation.IOperation;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
+
+/**
+ * Submodel API that serves reads of the whole submodel from a
+ * {@link SubmodelCache}. Each write invalidates the cached submodel.
+ * 
+ * @author espen
+ *
+ */
+public class CachingSubmodelAPI implements ISubmodelAPI {
+	private ISubmodelAPI decorated;
+	private String submodelId;
+	private SubmodelCache cache;
+
+	public CachingSubmodelAPI(ISubmodelAPI decorated, String submodelId, SubmodelCache cache) {
+		this.decorated = decorated;
+		this.submodelId = submodelId;
+		this.cache = cache;
+	}
+
+	@Override
+	public ISubmodel getSubmodel() {
+		ISubmodel cached = cache.get(submodelId);
+		if (cached != null) {
+			return cached;
+		}
+
+		long stamp = cache.getInvalidationStamp(submodelId);
+		ISubmodel submodel = decorated.getSubmodel();
+		cache.put(submodelId, submodel, stamp);
+		return submodel;
+	}
+
+	@Override
+	public void addSubmodelElement(ISubmodelElement elem) {
+		try {
+			decorated.addSubmodelElement(elem);
+		} finally {
+			cache.invalidate(submodelId);
+		}
+	}
+
+	@Override
+	public void addSubmodelElement(String idShortPath, ISubmodelElement elem) {
+		try {
+			decorated.addSubmodelElement(idShortPath, elem);
+		} finally {
+			cache.invalidate(submodelId);
+		}
+	}
+
+	@Override
+	public ISubmodelElement getSubmodelElement(String idShortPath) {
+		return decorated.getSubmodelElement(idShortPath);
+	}
+
+	@Override
+	public void deleteSubmodelElement(String idShortPath) {
+		try {
+			decorated.deleteSubmodelElement(idShortPath);
+		} finally {
+			cache.invalidate(submodelId);
+		}
+	}
+
+	@Override
+	public Collection<IOperation> getOperations() {
+		return getSubmodel().getOperations().values();
+	}
+
+	@Override
+	public Collection<ISubmodelElement> getSubmodelElements() {
+		return getSubmodel().getSubmodelElements().values();
+	}
+
+	@Override
+	public void updateSubmodelElement(String idShortPath, Object newValue) {
+		try {
+			decorated.updateSubmodelElement(idShortPath, newValue);
+		} finally {
+			cache.invalidate(submodelId);
+		}
+	}
+
+	@Override
+	public Object getSubmodelElementValue(String idShortPath) {
+		return decorated.getSubmodelElementValue(idShortPath);
+	}
+
+	@Override
+	public Object invokeOperation(String idShortPath, Object... params) {
+		return decorated.invokeOperation(idShortPath, params);
+	}
+
+	@Override
+	public Object invokeAsync(String idShortPath, Object... params) {
+		return decorated.invokeAsync(idShortPath, params);
+	}
+
+	@Override
+	public Object getOperationResult(String idShort, String requestId) {
+		return decorated.getOperationResult(idShort, requestId);
+	}
+
+	@Override
+	public java.io.File getSubmodelElementFile(String idShortPath) {
+		return decorated.getSubmodelElementFile(idShortPath);
+	}
+
+	@Override
+	public void uploadSubmodelElementFile(String idShortPath, InputStream fileStream) {
+		try {
+			decorated.uploadSubmodelElementFile(idShortPath, fileStream);
+		} finally {
+			cache.invalidate(submodelId);
+		}
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.caching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+
+/**
+ * Thread-safe, size bounded cache of submodels that evicts the least recently
+ * used submodel. Entries expire after a fixed time to live.
+ * 
+ * Reads do not block each other. Submodels are mutable maps, therefore the
+ * cache only stores and hands out deep copies.
+ * 
+ * @author espen
+ *
+ */
+public class SubmodelCache {
+	private static final int STAMP_STRIPES = 1024;
+
+	private final int maxSize;
+	private final long ttlMillis;
+	private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong accessClock = new AtomicLong();
+
+	// Incremented on each invalidation of a submodel hashed to the stripe to detect
+	// loads that raced with a write. Bounded in size, a collision only prevents a
+	// loaded submodel from being cached.
+	private final AtomicLongArray invalidationStamps = new AtomicLongArray(STAMP_STRIPES);
+
+	public SubmodelCache(int maxSize, long ttlMillis) {
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Returns a copy of the cached submodel or null, if it is not cached or has
+	 * expired
+	 */
+	public ISubmodel get(String smId) {
+		CacheEntry entry = entries.get(smId);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired()) {
+			entries.remove(smId, entry);
+			return null;
+		}
+		entry.lastAccess = accessClock.incrementAndGet();
+		return copy(entry.submodel);
+	}
+
+	/**
+	 * Has to be retrieved before loading a submodel that is added with
+	 * {@link #put(String, ISubmodel, long)}
+	 */
+	public long getInvalidationStamp(String smId) {
+		return invalidationStamps.get(getStripe(smId));
+	}
+
+	/**
+	 * Adds a copy of the loaded submodel, if the submodel has not been invalidated
+	 * since the given stamp has been retrieved. Otherwise, the loaded submodel may
+	 * be outdated.
+	 */
+	public void put(String smId, ISubmodel submodel, long stamp) {
+		ISubmodel copy = copy(submodel);
+		// Checked within compute, so that an invalidation can not happen in between
+		entries.compute(smId, (id, current) -> {
+			if (invalidationStamps.get(getStripe(id)) != stamp) {
+				return current;
+			}
+			return new CacheEntry(copy, System.currentTimeMillis() + ttlMillis, accessClock.incrementAndGet());
+		});
+		evictLeastRecentlyUsed();
+	}
+
+	public void invalidate(String smId) {
+		entries.compute(smId, (id, current) -> {
+			invalidationStamps.incrementAndGet(getStripe(id));
+			return null;
+		});
+	}
+
+	public void clear() {
+		for (int i = 0; i < STAMP_STRIPES; i++) {
+			invalidationStamps.incrementAndGet(i);
+		}
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Evicting scans the entries, which is cheap compared to loading the submodel
+	 * that is added before
+	 */
+	private synchronized void evictLeastRecentlyUsed() {
+		while (entries.size() > maxSize) {
+			Map.Entry<String, CacheEntry> eldest = null;
+			for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+				if (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess) {
+					eldest = entry;
+				}
+			}
+			if (eldest == null) {
+				return;
+			}
+			entries.remove(eldest.getKey(), eldest.getValue());
+		}
+	}
+
+	private static int getStripe(String smId) {
+		return Math.floorMod(smId.hashCode(), STAMP_STRIPES);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ISubmodel copy(ISubmodel submodel) {
+		if (!(submodel instanceof Map<?, ?>)) {
+			return submodel;
+		}
+		return Submodel.createAsFacade((Map<String, Object>) deepCopy(submodel));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object deepCopy(Object value) {
+		if (value instanceof Map<?, ?>) {
+			Map<String, Object> copy = new LinkedHashMap<>();
+			((Map<String, Object>) value).forEach((key, entry) -> copy.put(key, deepCopy(entry)));
+			return copy;
+		}
+		if (value instanceof Set<?>) {
+			Set<Object> copy = new LinkedHashSet<>();
+			((Set<Object>) value).forEach(entry -> copy.add(deepCopy(entry)));
+			return copy;
+		}
+		if (value instanceof Collection<?>) {
+			List<Object> copy = new ArrayList<>();
+			((Collection<Object>) value).forEach(entry -> copy.add(deepCopy(entry)));
+			return copy;
+		}
+		return value;
+	}
+
+	private static class CacheEntry {
+		private final ISubmodel submodel;
+		private final long expiresAt;
+		private volatile long lastAccess;
+
+		private CacheEntry(ISubmodel submodel, long expiresAt, long lastAccess) {
+			this.submodel = submodel;
+			this.expiresAt = expiresAt;
+			this.lastAccess = lastAccess;
+		}
+
+		private boolean isExpired() {
+			return System.currentTimeMillis() > expiresAt;
+		}
+	}
+}
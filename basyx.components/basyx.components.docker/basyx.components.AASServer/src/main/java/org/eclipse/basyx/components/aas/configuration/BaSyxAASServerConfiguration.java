@@ -69,6 +69,12 @@ public class BaSyxAASServerConfiguration extends BaSyxConfiguration {
 	public static final String DEFAULT_CLIENT_SECRET = "";
 	public static final String DEFAULT_CLIENT_SCOPES = "[]";
 	public static final String DEFAULT_PROPERTY_DELEGATION = FEATURE_ENABLED;
+	public static final String DEFAULT_SUBMODEL_CACHE = FEATURE_DISABLED;
+	public static final String DEFAULT_SUBMODEL_CACHE_SIZE = "500";
+	public static final String DEFAULT_SUBMODEL_CACHE_TTL = "60000";
+	public static final String DEFAULT_REGISTRATION_THREADS = "8";
+	public static final String DEFAULT_ASYNC_REGISTRATION = FEATURE_DISABLED;
+	public static final String DEFAULT_ASYNC_REGISTRATION_MAX_PENDING = "10000";
 
 
 	// Configuration keys
@@ -86,6 +92,12 @@ public class BaSyxAASServerConfiguration extends BaSyxConfiguration {
 	public static final String CLIENT_SECRET = "clientSecret";
 	public static final String CLIENT_SCOPES = "clientScopes";
 	public static final String PROPERTY_DELEGATION = "aas.delegation";
+	public static final String SUBMODEL_CACHE = "aas.submodelCache";
+	public static final String SUBMODEL_CACHE_SIZE = "aas.submodelCache.size";
+	public static final String SUBMODEL_CACHE_TTL = "aas.submodelCache.ttl";
+	public static final String REGISTRATION_THREADS = "registry.threads";
+	public static final String ASYNC_REGISTRATION = "registry.async";
+	public static final String ASYNC_REGISTRATION_MAX_PENDING = "registry.async.maxPending";
 
 	// The default path for the context properties file
 	public static final String DEFAULT_CONFIG_PATH = "aas.properties";
@@ -110,6 +122,12 @@ public class BaSyxAASServerConfiguration extends BaSyxConfiguration {
 		defaultProps.put(CLIENT_SECRET, DEFAULT_CLIENT_SECRET);
 		defaultProps.put(CLIENT_SCOPES, DEFAULT_CLIENT_SCOPES);
 		defaultProps.put(PROPERTY_DELEGATION, DEFAULT_PROPERTY_DELEGATION);
+		defaultProps.put(SUBMODEL_CACHE, DEFAULT_SUBMODEL_CACHE);
+		defaultProps.put(SUBMODEL_CACHE_SIZE, DEFAULT_SUBMODEL_CACHE_SIZE);
+		defaultProps.put(SUBMODEL_CACHE_TTL, DEFAULT_SUBMODEL_CACHE_TTL);
+		defaultProps.put(REGISTRATION_THREADS, DEFAULT_REGISTRATION_THREADS);
+		defaultProps.put(ASYNC_REGISTRATION, DEFAULT_ASYNC_REGISTRATION);
+		defaultProps.put(ASYNC_REGISTRATION_MAX_PENDING, DEFAULT_ASYNC_REGISTRATION_MAX_PENDING);
 		return defaultProps;
 	}
 
@@ -177,7 +195,8 @@ public class BaSyxAASServerConfiguration extends BaSyxConfiguration {
 	public void loadFromEnvironmentVariables() {
 		String[] properties = {
 				REGISTRY, BACKEND, SOURCE, EVENTS, HOSTPATH, AASX_UPLOAD, AUTHORIZATION, TOKEN_ENDPOINT,
-				CLIENT_ID, CLIENT_SECRET, CLIENT_SCOPES, PROPERTY_DELEGATION, ID
+				CLIENT_ID, CLIENT_SECRET, CLIENT_SCOPES, PROPERTY_DELEGATION, ID, SUBMODEL_CACHE, SUBMODEL_CACHE_SIZE,
+				SUBMODEL_CACHE_TTL, REGISTRATION_THREADS, ASYNC_REGISTRATION, ASYNC_REGISTRATION_MAX_PENDING
 		};
 		loadFromEnvironmentVariables(ENV_PREFIX, properties);
 	}
@@ -368,6 +387,82 @@ public class BaSyxAASServerConfiguration extends BaSyxConfiguration {
 	public boolean isPropertyDelegationEnabled() {
 		return getProperty(PROPERTY_DELEGATION).equals(FEATURE_ENABLED);
 	}
+
+	public void enableSubmodelCache() {
+		setProperty(SUBMODEL_CACHE, FEATURE_ENABLED);
+	}
+
+	public void disableSubmodelCache() {
+		setProperty(SUBMODEL_CACHE, FEATURE_DISABLED);
+	}
+
+	public boolean isSubmodelCacheEnabled() {
+		return FEATURE_ENABLED.equals(getProperty(SUBMODEL_CACHE));
+	}
+
+	/**
+	 * Maximum number of submodels in the cache
+	 */
+	public int getSubmodelCacheSize() {
+		return Integer.parseInt(getProperty(SUBMODEL_CACHE_SIZE));
+	}
+
+	public void setSubmodelCacheSize(int size) {
+		setProperty(SUBMODEL_CACHE_SIZE, Integer.toString(size));
+	}
+
+	/**
+	 * Time in milliseconds after which a cached submodel is read again
+	 */
+	public long getSubmodelCacheTTL() {
+		return Long.parseLong(getProperty(SUBMODEL_CACHE_TTL));
+	}
+
+	public void setSubmodelCacheTTL(long ttlMillis) {
+		setProperty(SUBMODEL_CACHE_TTL, Long.toString(ttlMillis));
+	}
+
+	/**
+	 * Number of parallel registry calls when the persisted AAS are registered on
+	 * startup and deregistered on shutdown
+	 */
+	public int getRegistrationThreads() {
+		String threads = getProperty(REGISTRATION_THREADS);
+		return threads == null ? Integer.parseInt(DEFAULT_REGISTRATION_THREADS) : Integer.parseInt(threads);
+	}
+
+	public void setRegistrationThreads(int threads) {
+		setProperty(REGISTRATION_THREADS, Integer.toString(threads));
+	}
+
+	/**
+	 * If enabled, Shells/Submodels created at runtime are registered in the
+	 * background instead of within the creating request
+	 */
+	public boolean isAsyncRegistrationEnabled() {
+		return FEATURE_ENABLED.equals(getProperty(ASYNC_REGISTRATION));
+	}
+
+	public void enableAsyncRegistration() {
+		setProperty(ASYNC_REGISTRATION, FEATURE_ENABLED);
+	}
+
+	public void disableAsyncRegistration() {
+		setProperty(ASYNC_REGISTRATION, FEATURE_DISABLED);
+	}
+
+	/**
+	 * Maximum number of queued registry calls, if asynchronous registration is
+	 * enabled
+	 */
+	public int getAsyncRegistrationMaxPending() {
+		String maxPending = getProperty(ASYNC_REGISTRATION_MAX_PENDING);
+		return maxPending == null ? Integer.parseInt(DEFAULT_ASYNC_REGISTRATION_MAX_PENDING) : Integer.parseInt(maxPending);
+	}
+
+	public void setAsyncRegistrationMaxPending(int maxPending) {
+		setProperty(ASYNC_REGISTRATION_MAX_PENDING, Integer.toString(maxPending));
+	}
 	
 	public boolean isAuthorizationCredentialsForSecuredRegistryConfigured() {
 		return isTokenEndpointConfigured() && isClientIdConfigured() && isClientSecretConfigured() && isScopeConfigured();
@@ -27,25 +27,26 @@ package org.eclipse.basyx.components.aas.mongodb;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 
+import org.bson.Document;
 import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
 import org.eclipse.basyx.aas.restapi.api.IAASAPI;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
-import org.eclipse.basyx.submodel.metamodel.api.reference.IKey;
 import org.eclipse.basyx.submodel.metamodel.api.reference.IReference;
 import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.Identifiable;
+import org.eclipse.basyx.submodel.metamodel.map.reference.Key;
+import org.eclipse.basyx.submodel.metamodel.map.reference.Reference;
 import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
+import com.mongodb.client.result.UpdateResult;
 
 /**
  * Implements the IAASAPI for a mongoDB backend.
@@ -56,10 +57,17 @@ public class MongoDBAASAPI implements IAASAPI {
 	private static final String DEFAULT_CONFIG_PATH = "mongodb.properties";
 	private static final String AASIDPATH = Identifiable.IDENTIFICATION + "." + Identifier.ID;
 
+	/**
+	 * Id of the pool that has written the AAS last, see
+	 * {@link MongoDBTemplatePool#getWriterId()}
+	 */
+	public static final String WRITER = "_writer";
+
 	protected BaSyxMongoDBConfiguration config;
 	protected MongoOperations mongoOps;
 	protected String collection;
 	protected String aasId;
+	protected String writerId;
 
 	/**
 	 * Receives the path of the configuration.properties file in its constructor.
@@ -69,7 +77,7 @@ public class MongoDBAASAPI implements IAASAPI {
 	 */
 	@Deprecated
 	public MongoDBAASAPI(BaSyxMongoDBConfiguration config, String aasId) {
-		this(config, aasId, MongoClients.create(config.getConnectionUrl()));
+		this(config, aasId, MongoDBTemplatePool.getShared(config));
 	}
 
 	/**
@@ -82,6 +90,18 @@ public class MongoDBAASAPI implements IAASAPI {
 		this.setAASId(aasId);
 	}
 
+	/**
+	 * Receives the configuration and a pool of shared MongoDB templates
+	 * 
+	 * @param config
+	 * @param aasId
+	 * @param templatePool
+	 */
+	public MongoDBAASAPI(BaSyxMongoDBConfiguration config, String aasId, MongoDBTemplatePool templatePool) {
+		this.setConfiguration(config, templatePool);
+		this.setAASId(aasId);
+	}
+
 	/**
 	 * Receives the path of the .properties file in its constructor from a resource.
 	 * 
@@ -124,14 +144,18 @@ public class MongoDBAASAPI implements IAASAPI {
 
 	@Deprecated
 	public void setConfiguration(BaSyxMongoDBConfiguration config) {
-		MongoClient client = MongoClients.create(config.getConnectionUrl());
-		setConfiguration(config, client);
+		setConfiguration(config, MongoDBTemplatePool.getShared(config));
 	}
 
 	public void setConfiguration(BaSyxMongoDBConfiguration config, MongoClient client) {
+		setConfiguration(config, MongoDBTemplatePool.getShared(client));
+	}
+
+	public void setConfiguration(BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
 		this.config = config;
-		this.mongoOps = new MongoTemplate(client, config.getDatabase());
+		this.mongoOps = templatePool.getTemplate(config.getDatabase());
 		this.collection = config.getAASCollection();
+		this.writerId = templatePool.getWriterId();
 	}
 
 	/**
@@ -156,6 +180,7 @@ public class MongoDBAASAPI implements IAASAPI {
 		this.setAASId(id);
 
 		Query hasId = query(where(AASIDPATH).is(aasId));
+		aas.put(WRITER, writerId);
 		// Try to replace if already present - otherwise: insert it
 		Object replaced = mongoOps.findAndReplace(hasId, aas, collection);
 		if (replaced == null) {
@@ -164,6 +189,7 @@ public class MongoDBAASAPI implements IAASAPI {
 		// Remove mongoDB-specific map attribute from AAS.
 		// mongoOps modify aas on save - thus _id has to be removed here...
 		aas.remove("_id");
+		aas.remove(WRITER);
 	}
 
 	@Override
@@ -175,49 +201,45 @@ public class MongoDBAASAPI implements IAASAPI {
 		}
 		// Remove mongoDB-specific map attribute from AAS
 		aas.remove("_id");
+		aas.remove(WRITER);
 		return aas;
 	}
 
 	@Override
 	public void addSubmodel(IReference submodel) {
-		// Get AAS from db
+		// Add reference atomically without reading the AAS first
+		Reference reference = new Reference(submodel.getKeys());
 		Query hasId = query(where(AASIDPATH).is(aasId));
-		AssetAdministrationShell aas = mongoOps.findOne(hasId, AssetAdministrationShell.class, collection);
-		if (aas == null) {
-			throw new ResourceNotFoundException("The AAS " + aasId + " could not be found in the database.");
-		}
-		// Add reference
-		aas.addSubmodelReference(submodel);
-		// Update db entry
-		mongoOps.findAndReplace(hasId, aas, collection);
+		UpdateResult result = mongoOps.updateFirst(hasId, new Update().addToSet(AssetAdministrationShell.SUBMODELS, reference).set(WRITER, writerId), collection);
+		assertAASFound(result);
 	}
 
 	@Override
 	public void removeSubmodel(String id) {
-		// Get AAS from db
-		Query hasId = query(where(AASIDPATH).is(aasId));
-		AssetAdministrationShell aas = mongoOps.findOne(hasId, AssetAdministrationShell.class, collection);
-		if (aas == null) {
-			throw new ResourceNotFoundException("The AAS " + aasId + " could not be found in the database.");
-		}
-		// Remove reference
-		Collection<IReference> smReferences = aas.getSubmodelReferences();
 		// Reference to submodel could be either by idShort (=> local) or directly via
-		// its identifier
-		for (Iterator<IReference> iterator = smReferences.iterator(); iterator.hasNext();) {
-			IReference ref = iterator.next();
-			List<IKey> keys = ref.getKeys();
-			IKey lastKey = keys.get(keys.size() - 1);
-			String idValue = lastKey.getValue();
-			// remove this reference, if the last key points to the submodel
-			if (idValue.equals(id)) {
-				iterator.remove();
-				break;
-			}
+		// its identifier - in both cases, the last key contains the given id as value.
+		// Like before, only the first of these references is removed. Since $pull
+		// would match any key and remove all matching references, the reference is
+		// removed by its position with an update pipeline.
+		String submodels = "$" + AssetAdministrationShell.SUBMODELS;
+		Document lastKeyValues = new Document("$map", new Document("input", submodels).append("as", "ref")
+				.append("in", new Document("$arrayElemAt", Arrays.asList("$$ref." + Reference.KEY + "." + Key.VALUE, -1))));
+		Document position = new Document("$indexOfArray", Arrays.asList(lastKeyValues, id));
+		Document withoutReference = new Document("$concatArrays", Arrays.asList(
+				new Document("$slice", Arrays.asList(submodels, "$$position")),
+				new Document("$slice", Arrays.asList(submodels, new Document("$add", Arrays.asList("$$position", 1)), new Document("$size", submodels)))));
+		Document removeReference = new Document("$let", new Document("vars", new Document("position", position))
+				.append("in", new Document("$cond", Arrays.asList(new Document("$lt", Arrays.asList("$$position", 0)), submodels, withoutReference))));
+
+		UpdateResult result = mongoOps.getCollection(collection).updateOne(new Document(AASIDPATH, aasId),
+				Collections.singletonList(new Document("$set", new Document(AssetAdministrationShell.SUBMODELS, removeReference).append(WRITER, writerId))));
+		assertAASFound(result);
+	}
+
+	private void assertAASFound(UpdateResult result) {
+		if (result.getMatchedCount() == 0) {
+			throw new ResourceNotFoundException("The AAS " + aasId + " could not be found in the database.");
 		}
-		aas.setSubmodelReferences(smReferences);
-		// Update db entry
-		mongoOps.findAndReplace(hasId, aas, collection);
 	}
 
 }
@@ -30,7 +30,6 @@ import org.eclipse.basyx.aas.restapi.api.IAASAPIFactory;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * 
@@ -42,22 +41,30 @@ import com.mongodb.client.MongoClients;
 public class MongoDBAASAPIFactory implements IAASAPIFactory {
 
 	private BaSyxMongoDBConfiguration config;
-	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
 
 	@Deprecated
 	public MongoDBAASAPIFactory(BaSyxMongoDBConfiguration config) {
-		this(config, MongoClients.create(config.getConnectionUrl()));
+		this(config, MongoDBTemplatePool.getShared(config));
 	}
 
 	public MongoDBAASAPIFactory(BaSyxMongoDBConfiguration config, MongoClient client) {
+		this(config, MongoDBTemplatePool.getShared(client));
+	}
+
+	public MongoDBAASAPIFactory(BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
 		this.config = config;
-		this.client = client;
+		this.templatePool = templatePool;
 	}
 
 	@Override
 	public IAASAPI getAASApi(AssetAdministrationShell aas) {
-		MongoDBAASAPI api = new MongoDBAASAPI(config, aas.getIdentification().getId(), client);
-		api.setAAS(aas);
+		MongoDBAASAPI api = new MongoDBAASAPI(config, aas.getIdentification().getId(), templatePool);
+		// An AAS read from the collection still has its MongoDB _id and is already
+		// stored
+		if (!aas.containsKey("_id")) {
+			api.setAAS(aas);
+		}
 		return api;
 	}
 
@@ -27,16 +27,28 @@ package org.eclipse.basyx.components.aas.mongodb;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.Document;
 import org.eclipse.basyx.aas.aggregator.AASAggregator;
-import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.bundle.AASBundle;
 import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
@@ -45,11 +57,18 @@ import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
 import org.eclipse.basyx.aas.restapi.api.IAASAPI;
 import org.eclipse.basyx.aas.restapi.api.IAASAPIFactory;
 import org.eclipse.basyx.components.aas.aascomponent.MongoDBAASServerComponentFactory;
+import org.eclipse.basyx.components.aas.aggregator.IBulkImportAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IFileStreamingAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IModelChangeListener;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IResumableUploadAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.extensions.shared.authorization.internal.NotAuthorizedException;
 import org.eclipse.basyx.submodel.aggregator.SubmodelAggregatorFactory;
 import org.eclipse.basyx.submodel.aggregator.api.ISubmodelAggregator;
 import org.eclipse.basyx.submodel.aggregator.api.ISubmodelAggregatorFactory;
+import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
 import org.eclipse.basyx.submodel.metamodel.api.reference.IKey;
 import org.eclipse.basyx.submodel.metamodel.api.reference.IReference;
@@ -67,12 +86,19 @@ import org.eclipse.basyx.vab.protocol.api.IConnectorFactory;
 import org.eclipse.basyx.vab.protocol.http.connector.HTTPConnectorFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * An IAASAggregator for persistent storage in a MongoDB.
@@ -82,15 +108,47 @@ import com.mongodb.client.MongoClients;
  * @author espen, wege
  *
  */
-public class MongoDBAASAggregator implements IAASAggregator {
+public class MongoDBAASAggregator implements IPagedAASAggregator, IFileStreamingAASAggregator, IResumableUploadAASAggregator, IBulkImportAASAggregator, IModelChangeListener {
 	private static Logger logger = LoggerFactory.getLogger(MongoDBAASAggregator.class);
 
 	private static final String IDSHORTPATH = Referable.IDSHORT;
 	private static final String IDPATH = Identifiable.IDENTIFICATION + "." + Identifier.ID;
+	private static final int IMPORT_BATCH_SIZE = 1000;
+	private static final int WRITE_LOCK_STRIPES = 64;
 
-	protected Map<String, MultiSubmodelProvider> aasProviderMap = new HashMap<>();
+	/**
+	 * Providers of the AAS. Creating, replacing and removing a provider is done
+	 * atomically per AAS id, reads do not block.
+	 */
+	protected Map<String, MultiSubmodelProvider> aasProviderMap = new ConcurrentHashMap<>();
+
+	/**
+	 * Serialize the database write and the provider replacement per AAS id.
+	 * Striped locks are used instead of compute on the provider map, so that no
+	 * map bin is locked during database I/O.
+	 */
+	private final Object[] writeLocks = createWriteLocks();
+
+	/**
+	 * Ids of all AAS in the database. Only used if lazy loading is enabled, since
+	 * then {@link #aasProviderMap} contains only the recently used providers.
+	 */
+	protected Set<String> aasIdIndex = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Ids of the cached providers in access order. Only used if lazy loading is
+	 * enabled to evict the least recently used providers.
+	 */
+	private final Map<String, Boolean> providerAccessOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Notified of changes that this aggregator writes directly to the database,
+	 * bypassing the submodel APIs, e.g. bulk imports
+	 */
+	private final List<IModelChangeListener> localChangeListeners = new CopyOnWriteArrayList<>();
 	protected BaSyxMongoDBConfiguration config;
 	protected MongoOperations mongoOps;
+	protected MongoDBTemplatePool templatePool;
 	protected String aasCollection;
 	protected String smCollection;
 
@@ -228,7 +286,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	 */
 	@Deprecated
 	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		this(config, registry, aasAPIFactory, submodelAggregatorFactory, MongoClients.create(config.getConnectionUrl()));
+		this(config, registry, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(config));
 	}
 
 	/**
@@ -243,10 +301,51 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	 * 
 	 */
 	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoClient client) {
-		setMongoDBConfiguration(config, client);
+		this(config, registry, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(client));
+	}
+
+	/**
+	 * Receives a BaSyxMongoDBConfiguration, IAASRegistry, IAASAPIFactory,
+	 * ISubmodelAggregatorFactory and a MongoDBTemplatePool that is shared with
+	 * the other MongoDB components to create a persistent MongoDB backend.
+	 * 
+	 * @param config
+	 * @param registry
+	 * @param aasAPIFactory
+	 * @param submodelAggregatorFactory
+	 * @param templatePool
+	 */
+	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoDBTemplatePool templatePool) {
+		setMongoDBConfiguration(config, templatePool);
+		this.config = config;
+		this.registry = registry;
+		this.aasApiProvider = aasAPIFactory;
+		this.submodelAggregatorFactory = submodelAggregatorFactory;
+		init();
+	}
+
+	/**
+	 * Receives a BaSyxMongoDBConfiguration, IAASRegistry, IAASAPIFactory,
+	 * ISubmodelAPIFactory, ISubmodelAggregatorFactory and a MongoDBTemplatePool
+	 * that is shared with the other MongoDB components to create a persistent
+	 * MongoDB backend. The submodel API factory is used for the submodels that
+	 * are loaded from the database, so that they are decorated like the created
+	 * ones.
+	 * 
+	 * @param config
+	 * @param registry
+	 * @param aasAPIFactory
+	 * @param submodelAPIFactory
+	 * @param submodelAggregatorFactory
+	 * @param templatePool
+	 */
+	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAPIFactory submodelAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory,
+			MongoDBTemplatePool templatePool) {
+		setMongoDBConfiguration(config, templatePool);
 		this.config = config;
 		this.registry = registry;
 		this.aasApiProvider = aasAPIFactory;
+		this.smApiProvider = submodelAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
 		init();
 	}
@@ -262,7 +361,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	 */
 	@Deprecated
 	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		this(config, aasAPIFactory, submodelAggregatorFactory, MongoClients.create(config.getConnectionUrl()));
+		this(config, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(config));
 	}
 
 	/**
@@ -277,7 +376,21 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	 * 
 	 */
 	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoClient client) {
-		setMongoDBConfiguration(config, client);
+		this(config, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(client));
+	}
+
+	/**
+	 * Receives a BaSyxMongoDBConfiguration, IAASAPIFactory,
+	 * ISubmodelAggregatorFactory and a MongoDBTemplatePool that is shared with
+	 * the other MongoDB components to create a persistent MongoDB backend.
+	 * 
+	 * @param config
+	 * @param aasAPIFactory
+	 * @param submodelAggregatorFactory
+	 * @param templatePool
+	 */
+	public MongoDBAASAggregator(BaSyxMongoDBConfiguration config, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoDBTemplatePool templatePool) {
+		setMongoDBConfiguration(config, templatePool);
 		this.config = config;
 		this.aasApiProvider = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
@@ -298,7 +411,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	public MongoDBAASAggregator(String resourceConfigPath, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		setMongoDBConfiguration(config, MongoClients.create(config.getConnectionUrl()));
+		setMongoDBConfiguration(config, MongoDBTemplatePool.getShared(config));
 		this.registry = registry;
 		this.aasApiProvider = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
@@ -321,7 +434,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	public MongoDBAASAggregator(String resourceConfigPath, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoClient client) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		setMongoDBConfiguration(config, client);
+		setMongoDBConfiguration(config, MongoDBTemplatePool.getShared(client));
 		this.registry = registry;
 		this.aasApiProvider = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
@@ -341,7 +454,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	public MongoDBAASAggregator(String resourceConfigPath, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		setMongoDBConfiguration(config, MongoClients.create(config.getConnectionUrl()));
+		setMongoDBConfiguration(config, MongoDBTemplatePool.getShared(config));
 		this.aasApiProvider = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
 		init();
@@ -360,7 +473,7 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	public MongoDBAASAggregator(String resourceConfigPath, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoClient client) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		setMongoDBConfiguration(config, client);
+		setMongoDBConfiguration(config, MongoDBTemplatePool.getShared(client));
 		this.aasApiProvider = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
 		init();
@@ -417,55 +530,251 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	 * @deprecated This method is used with the old, deprecated Constructors. Use
 	 *             {@link MongoDBAASServerComponentFactory} instead
 	 */
-	@SuppressWarnings("deprecation")
 	@Deprecated
 	public void setConfiguration(BaSyxMongoDBConfiguration config) {
 		// set mongoDB configuration
-		this.config = config;
-		MongoClient client = MongoClients.create(config.getConnectionUrl());
-		this.mongoOps = new MongoTemplate(client, config.getDatabase());
-		this.aasCollection = config.getAASCollection();
-		this.smCollection = config.getSubmodelCollection();
+		setMongoDBConfiguration(config, MongoDBTemplatePool.getShared(config));
 
 		// Create API factories with the given configuration
-		this.aasApiProvider = aas -> {
-			MongoDBAASAPI api = new MongoDBAASAPI(config, aas.getIdentification().getId());
-			api.setAAS(aas);
-			return api;
-		};
-		this.smApiProvider = sm -> {
-			MongoDBSubmodelAPI api = new MongoDBSubmodelAPI(config, sm.getIdentification().getId());
-			api.setSubmodel(sm);
-			return api;
-		};
-	}
-
-	private void setMongoDBConfiguration(BaSyxMongoDBConfiguration config, MongoClient client) {
+		this.aasApiProvider = new MongoDBAASAPIFactory(config, templatePool);
+		this.smApiProvider = new MongoDBSubmodelAPIFactory(config, templatePool);
+	}
+
+	private void setMongoDBConfiguration(BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
 		this.config = config;
-		this.mongoOps = new MongoTemplate(client, config.getDatabase());
+		this.templatePool = templatePool;
+		this.mongoOps = templatePool.getTemplate(config.getDatabase());
 		this.aasCollection = config.getAASCollection();
 		this.smCollection = config.getSubmodelCollection();
 	}
 
+	private static Object[] createWriteLocks() {
+		Object[] locks = new Object[WRITE_LOCK_STRIPES];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+		return locks;
+	}
+
+	private Object getWriteLock(String aasId) {
+		return writeLocks[Math.floorMod(aasId.hashCode(), writeLocks.length)];
+	}
+
+	private boolean isLazyLoading() {
+		return config.isAASLazyLoadingEnabled();
+	}
+
 	/**
 	 * Removes all persistent AAS and submodels
 	 */
 	public void reset() {
 		mongoOps.dropCollection(aasCollection);
 		mongoOps.dropCollection(smCollection);
+		templatePool.forgetIndexes(config.getDatabase(), aasCollection);
+		templatePool.forgetIndexes(config.getDatabase(), smCollection);
+		ensureIndexes();
 		aasProviderMap.clear();
+		aasIdIndex.clear();
+		clearProviderAccess();
 	}
 
-	@SuppressWarnings("deprecation")
 	private void init() {
+		ensureIndexes();
+
+		if (isLazyLoading()) {
+			initIdIndex();
+			return;
+		}
+
 		List<AssetAdministrationShell> data = mongoOps.findAll(AssetAdministrationShell.class, aasCollection);
+		Map<String, String> smIdsByIdShort = getSubmodelIdsByIdShort(data);
 		for (AssetAdministrationShell aas : data) {
-			String aasId = aas.getIdentification().getId();
-			logger.info("Adding AAS from DB: " + aasId);
-			MongoDBAASAPI aasApi = new MongoDBAASAPI(config, aasId);
-			MultiSubmodelProvider provider = createMultiSubmodelProvider(aasApi);
-			addSubmodelsFromDB(provider, aas);
-			aasProviderMap.put(aas.getIdentification().getId(), provider);
+			aasProviderMap.put(aas.getIdentification().getId(), createProviderFromDB(aas, smIdsByIdShort));
+		}
+	}
+
+	private void ensureIndexes() {
+		if (!config.isIndexCreationEnabled()) {
+			return;
+		}
+		templatePool.ensureIndexes(config.getDatabase(), aasCollection, Arrays.asList(new Index().on(IDPATH, Direction.ASC).unique()));
+		templatePool.ensureIndexes(config.getDatabase(), smCollection, MongoDBSubmodelAggregator.getSubmodelIndexes());
+	}
+
+	/**
+	 * Returns the pool of MongoDB templates used by this aggregator
+	 * 
+	 * @return
+	 */
+	public MongoDBTemplatePool getTemplatePool() {
+		return templatePool;
+	}
+
+	/**
+	 * Returns the indexes that currently exist on the AAS collection
+	 * 
+	 * @return
+	 */
+	public List<IndexInfo> getAASIndexInfo() {
+		return templatePool.getIndexInfo(config.getDatabase(), aasCollection);
+	}
+
+	/**
+	 * Returns the indexes that currently exist on the submodel collection
+	 * 
+	 * @return
+	 */
+	public List<IndexInfo> getSubmodelIndexInfo() {
+		return templatePool.getIndexInfo(config.getDatabase(), smCollection);
+	}
+
+	/**
+	 * Only loads the ids of the AAS in the database. The providers are created on
+	 * first access by {@link #loadProviderFromDB(String)}
+	 */
+	private void initIdIndex() {
+		Query idsOnly = new Query();
+		idsOnly.fields().include(IDPATH);
+		List<Document> data = mongoOps.find(idsOnly, Document.class, aasCollection);
+		for (Document doc : data) {
+			Document identification = doc.get(Identifiable.IDENTIFICATION, Document.class);
+			if (identification != null) {
+				aasIdIndex.add(identification.getString(Identifier.ID));
+			}
+		}
+		logger.info("Indexed " + aasIdIndex.size() + " AAS from DB");
+	}
+
+	/**
+	 * Creates the provider of an AAS read from the collection with the decorated
+	 * API factories, like {@link #createAAS(AssetAdministrationShell)} does. The
+	 * MongoDB API factories do not write the AAS and submodels again.
+	 */
+	private MultiSubmodelProvider createProviderFromDB(AssetAdministrationShell aas, Map<String, String> smIdsByIdShort) {
+		String aasId = aas.getIdentification().getId();
+		logger.info("Adding AAS from DB: " + aasId);
+		IAASAPI aasApi = aasApiProvider.create(aas);
+		MultiSubmodelProvider provider = createMultiSubmodelProvider(aasApi);
+		addSubmodelsFromDB(provider, aas, smIdsByIdShort);
+		return provider;
+	}
+
+	/**
+	 * Creates the provider of an AAS that is not in the provider cache without
+	 * adding it to the cache. Returns null if the AAS does not exist. Evicted
+	 * providers are created again with the decorated API factories, so that they
+	 * behave like the ones created by {@link #createAAS(AssetAdministrationShell)}.
+	 */
+	private MultiSubmodelProvider loadProviderFromDB(String aasId) {
+		if (!aasIdIndex.contains(aasId)) {
+			return null;
+		}
+
+		AssetAdministrationShell aas = mongoOps.findOne(query(where(IDPATH).is(aasId)), AssetAdministrationShell.class, aasCollection);
+		if (aas == null) {
+			aasIdIndex.remove(aasId);
+			return null;
+		}
+
+		return createProviderFromDB(aas, getSubmodelIdsByIdShort(Collections.singletonList(aas)));
+	}
+
+	/**
+	 * Replaces the provider of an AAS that has been changed in the database, e.g.
+	 * by another server. With lazy loading, the provider is only dropped and
+	 * loaded again on next access.
+	 */
+	@Override
+	public void onAASChanged(String aasId) {
+		if (isLazyLoading()) {
+			aasIdIndex.add(aasId);
+			aasProviderMap.remove(aasId);
+			forgetProviderAccess(aasId);
+			return;
+		}
+
+		synchronized (getWriteLock(aasId)) {
+			AssetAdministrationShell aas = mongoOps.findOne(query(where(IDPATH).is(aasId)), AssetAdministrationShell.class, aasCollection);
+			if (aas == null) {
+				aasProviderMap.remove(aasId);
+			} else {
+				aasProviderMap.put(aasId, createProviderFromDB(aas, getSubmodelIdsByIdShort(Collections.singletonList(aas))));
+			}
+		}
+	}
+
+	@Override
+	public void onAASDeleted(String aasId) {
+		aasIdIndex.remove(aasId);
+		aasProviderMap.remove(aasId);
+		forgetProviderAccess(aasId);
+	}
+
+	/**
+	 * Rebuilds all providers from the database, since changes may have been
+	 * missed
+	 */
+	@Override
+	public void onResync() {
+		aasProviderMap.clear();
+		aasIdIndex.clear();
+		clearProviderAccess();
+		init();
+	}
+
+	private MultiSubmodelProvider getCachedOrLoadedProvider(String aasId) {
+		MultiSubmodelProvider provider = aasProviderMap.get(aasId);
+		if (!isLazyLoading()) {
+			return provider;
+		}
+
+		if (provider == null) {
+			synchronized (getWriteLock(aasId)) {
+				provider = aasProviderMap.get(aasId);
+				if (provider == null) {
+					provider = loadProviderFromDB(aasId);
+					if (provider != null) {
+						aasProviderMap.put(aasId, provider);
+					}
+				}
+			}
+		}
+		if (provider != null) {
+			onProviderAccess(aasId);
+		}
+		return provider;
+	}
+
+	/**
+	 * Marks the provider as recently used and evicts the least recently used
+	 * providers if the cache size is exceeded
+	 */
+	private void onProviderAccess(String aasId) {
+		if (!isLazyLoading()) {
+			return;
+		}
+
+		int maxSize = config.getAASProviderCacheSize();
+		synchronized (providerAccessOrder) {
+			providerAccessOrder.put(aasId, Boolean.TRUE);
+			Iterator<String> leastRecentlyUsed = providerAccessOrder.keySet().iterator();
+			while (providerAccessOrder.size() > maxSize && leastRecentlyUsed.hasNext()) {
+				String evicted = leastRecentlyUsed.next();
+				leastRecentlyUsed.remove();
+				aasProviderMap.remove(evicted);
+			}
+		}
+	}
+
+	private void forgetProviderAccess(String aasId) {
+		synchronized (providerAccessOrder) {
+			providerAccessOrder.remove(aasId);
+		}
+	}
+
+	private void clearProviderAccess() {
+		synchronized (providerAccessOrder) {
+			providerAccessOrder.clear();
 		}
 	}
 
@@ -493,54 +802,140 @@ public class MongoDBAASAggregator implements IAASAggregator {
 	/**
 	 * Adds submodel providers for submodels in the MongoDB
 	 */
-	private void addSubmodelsFromDB(MultiSubmodelProvider provider, AssetAdministrationShell aas) {
-		// Get ids and idShorts from aas
-		Collection<IReference> submodelRefs = aas.getSubmodelReferences();
+	private void addSubmodelsFromDB(MultiSubmodelProvider provider, AssetAdministrationShell aas, Map<String, String> smIdsByIdShort) {
+		// Get ids from aas and resolve idShorts with the preloaded ids
 		List<String> smIds = new ArrayList<>();
-		List<String> smIdShorts = new ArrayList<>();
-		for (IReference ref : submodelRefs) {
-			List<IKey> keys = ref.getKeys();
-			IKey lastKey = keys.get(keys.size() - 1);
-			if (lastKey.getIdType() == KeyType.IDSHORT) {
-				smIdShorts.add(lastKey.getValue());
-			} else {
+		for (IReference ref : aas.getSubmodelReferences()) {
+			IKey lastKey = getLastKey(ref);
+			if (lastKey.getIdType() != KeyType.IDSHORT) {
 				smIds.add(lastKey.getValue());
+			} else if (smIdsByIdShort.containsKey(lastKey.getValue())) {
+				smIds.add(smIdsByIdShort.get(lastKey.getValue()));
 			}
 		}
 
-		// Add submodel ids by id shorts
-		for (String idShort : smIdShorts) {
-			String id = getSubmodelId(idShort);
-			if (id != null) {
-				smIds.add(id);
+		// Create a provider for each submodel
+		for (Submodel header : getStoredSubmodelHeaders(smIds)) {
+			logger.info("Adding Submodel from DB: " + header.getIdentification().getId());
+			addSubmodelProvider(header, provider);
+		}
+	}
+
+	/**
+	 * Loads the submodels with the given ids without their submodel elements. The
+	 * MongoDB _id is kept, so that the MongoDB API factories do not write the
+	 * submodels again.
+	 */
+	private List<Submodel> getStoredSubmodelHeaders(List<String> smIds) {
+		if (smIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Query hasId = query(where(IDPATH).in(smIds));
+		hasId.fields().exclude(Submodel.SUBMODELELEMENT).exclude(MongoDBSubmodelAPI.VERSION);
+		return mongoOps.find(hasId, Submodel.class, smCollection);
+	}
+
+	/**
+	 * Returns the submodels of the AAS without their submodel elements, e.g. for
+	 * creating registry descriptors without loading the whole submodels. All
+	 * submodels are loaded with a single query.
+	 * 
+	 * @param aas
+	 * @return
+	 */
+	public List<ISubmodel> getSubmodelHeaders(IAssetAdministrationShell aas) {
+		List<String> ids = new ArrayList<>();
+		List<String> idShorts = new ArrayList<>();
+		for (IReference ref : aas.getSubmodelReferences()) {
+			IKey lastKey = getLastKey(ref);
+			if (lastKey.getIdType() == KeyType.IDSHORT) {
+				idShorts.add(lastKey.getValue());
+			} else {
+				ids.add(lastKey.getValue());
 			}
 		}
+		if (ids.isEmpty() && idShorts.isEmpty()) {
+			return Collections.emptyList();
+		}
 
-		// Create a provider for each submodel
-		for (String id : smIds) {
-			logger.info("Adding Submodel from DB: " + id);
-			addSubmodelProvidersById(id, provider);
+		Query isReferenced = query(new Criteria().orOperator(where(IDPATH).in(ids), where(IDSHORTPATH).in(idShorts)));
+		isReferenced.fields().exclude(Submodel.SUBMODELELEMENT).exclude(MongoDBSubmodelAPI.VERSION);
+		List<ISubmodel> headers = new ArrayList<>();
+		Set<String> resolvedIdShorts = new HashSet<>();
+		for (Submodel sm : mongoOps.find(isReferenced, Submodel.class, smCollection)) {
+			// Like on loading, references by idShort resolve to only one submodel
+			boolean isReferencedById = ids.contains(sm.getIdentification().getId());
+			if (isReferencedById || resolvedIdShorts.add(sm.getIdShort())) {
+				sm.remove("_id");
+				headers.add(sm);
+			}
 		}
+		return headers;
+	}
+
+	private IKey getLastKey(IReference ref) {
+		List<IKey> keys = ref.getKeys();
+		return keys.get(keys.size() - 1);
 	}
 
-	private String getSubmodelId(String idShort) {
-		Submodel sm = mongoOps.findOne(query(where(IDSHORTPATH).is(idShort)), Submodel.class);
-		if (sm != null) {
-			return sm.getIdentification().getId();
+	/**
+	 * Resolves all submodel references of the given AAS that are given by idShort
+	 * with a single query. Only the idShort and identification of the submodels
+	 * are loaded.
+	 */
+	private Map<String, String> getSubmodelIdsByIdShort(Collection<AssetAdministrationShell> shells) {
+		Set<String> idShorts = shells.stream()
+				.flatMap(aas -> aas.getSubmodelReferences().stream())
+				.map(this::getLastKey)
+				.filter(key -> key.getIdType() == KeyType.IDSHORT)
+				.map(IKey::getValue)
+				.collect(Collectors.toSet());
+
+		Map<String, String> smIdsByIdShort = new HashMap<>();
+		if (idShorts.isEmpty()) {
+			return smIdsByIdShort;
 		}
-		return null;
+
+		Query hasIdShort = query(where(IDSHORTPATH).in(idShorts));
+		hasIdShort.fields().include(IDSHORTPATH).include(IDPATH);
+		for (Document doc : mongoOps.find(hasIdShort, Document.class, smCollection)) {
+			Document identification = doc.get(Identifiable.IDENTIFICATION, Document.class);
+			if (identification != null) {
+				smIdsByIdShort.putIfAbsent(doc.getString(IDSHORTPATH), identification.getString(Identifier.ID));
+			}
+		}
+		return smIdsByIdShort;
 	}
 
-	@SuppressWarnings("deprecation")
-	private void addSubmodelProvidersById(String smId, MultiSubmodelProvider provider) {
-		ISubmodelAPI smApi = new MongoDBSubmodelAPI(config, smId);
+	private void addSubmodelProvider(Submodel header, MultiSubmodelProvider provider) {
+		ISubmodelAPI smApi = getSubmodelAPIFactory().getSubmodelAPI(header);
 		SubmodelProvider smProvider = new SubmodelProvider(smApi);
 		provider.addSubmodel(smProvider);
 	}
 
+	/**
+	 * Returns the factory for the APIs of submodels loaded from the database. Falls
+	 * back to undecorated MongoDB APIs, if no factory has been passed.
+	 */
+	private ISubmodelAPIFactory getSubmodelAPIFactory() {
+		if (smApiProvider == null) {
+			smApiProvider = new MongoDBSubmodelAPIFactory(config, templatePool);
+		}
+		return smApiProvider;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<IAssetAdministrationShell> getAASList() {
+		if (isLazyLoading()) {
+			// Read the AAS directly from the collection, since loading each provider
+			// would evict the whole provider cache if there are more AAS than fit in it
+			List<IAssetAdministrationShell> shells = new ArrayList<>();
+			streamAASList(null, 0, 0, shells::add);
+			return shells;
+		}
+
 		return aasProviderMap.values().stream().map(p -> {
 			try {
 				return p.getValue("/aas");
@@ -557,6 +952,135 @@ public class MongoDBAASAggregator implements IAASAggregator {
 		}).collect(Collectors.toList());
 	}
 
+	/**
+	 * Reads the AAS of the page with a single cursor on the AAS collection
+	 * instead of asking each AAS provider
+	 */
+	@Override
+	public void streamAASList(String cursor, int offset, int limit, Consumer<IAssetAdministrationShell> consumer) {
+		Query page = new Query();
+		if (cursor != null) {
+			page.addCriteria(where(IDPATH).gt(cursor));
+		}
+		page.with(Sort.by(IDPATH)).skip(offset).limit(limit);
+
+		try (CloseableIterator<AssetAdministrationShell> iterator = mongoOps.stream(page, AssetAdministrationShell.class, aasCollection)) {
+			while (iterator.hasNext()) {
+				AssetAdministrationShell aas = iterator.next();
+				// Remove mongoDB-specific map attributes from AAS
+				aas.remove("_id");
+				aas.remove(MongoDBAASAPI.WRITER);
+				consumer.accept(aas);
+			}
+		}
+	}
+
+	/**
+	 * Writes each batch of bundles with two unordered bulk writes, one for the
+	 * submodels and one for the AAS, instead of two round trips per object. The
+	 * providers of the batch are created afterwards in a single pass.
+	 */
+	@Override
+	public int importAASBundles(Stream<AASBundle> bundles) {
+		int imported = 0;
+		List<AASBundle> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+		Iterator<AASBundle> iterator = bundles.iterator();
+		while (iterator.hasNext()) {
+			batch.add(iterator.next());
+			if (batch.size() == IMPORT_BATCH_SIZE || !iterator.hasNext()) {
+				importBatch(batch);
+				imported += batch.size();
+				batch.clear();
+			}
+		}
+		return imported;
+	}
+
+	private void importBatch(List<AASBundle> batch) {
+		BulkOperations aasOps = mongoOps.bulkOps(BulkMode.UNORDERED, aasCollection);
+		BulkOperations smOps = mongoOps.bulkOps(BulkMode.UNORDERED, smCollection);
+		List<AssetAdministrationShell> shells = new ArrayList<>(batch.size());
+		List<String> smIds = new ArrayList<>();
+
+		for (AASBundle bundle : batch) {
+			AssetAdministrationShell aas = (AssetAdministrationShell) bundle.getAAS();
+			for (ISubmodel submodel : bundle.getSubmodels()) {
+				String smId = submodel.getIdentification().getId();
+				smOps.replaceOne(query(where(IDPATH).is(smId)), submodel, FindAndReplaceOptions.options().upsert());
+				discardPendingUpdates(smId);
+				addMissingSubmodelReference(aas, submodel);
+				smIds.add(smId);
+			}
+			aas.put(MongoDBAASAPI.WRITER, templatePool.getWriterId());
+			aasOps.replaceOne(query(where(IDPATH).is(aas.getIdentification().getId())), aas, FindAndReplaceOptions.options().upsert());
+			shells.add(aas);
+		}
+
+		// Write the submodels first, so that no AAS references a missing submodel
+		if (!smIds.isEmpty()) {
+			smOps.execute();
+		}
+		try {
+			aasOps.execute();
+		} finally {
+			shells.forEach(aas -> aas.remove(MongoDBAASAPI.WRITER));
+		}
+
+		registerImportedProviders(shells);
+		smIds.forEach(this::notifySubmodelChanged);
+	}
+
+	/**
+	 * Registers a listener that is notified of submodels this aggregator changes
+	 * without going through the submodel APIs, e.g. caches of these APIs
+	 * 
+	 * @param listener
+	 */
+	public void addLocalChangeListener(IModelChangeListener listener) {
+		localChangeListeners.add(listener);
+	}
+
+	private void notifySubmodelChanged(String smId) {
+		for (IModelChangeListener listener : localChangeListeners) {
+			listener.onSubmodelChanged(smId);
+		}
+	}
+
+	private void discardPendingUpdates(String smId) {
+		if (config.isWriteBehindEnabled()) {
+			templatePool.getSubmodelWriteBuffer(config).discard(smId);
+		}
+	}
+
+	private void addMissingSubmodelReference(AssetAdministrationShell aas, ISubmodel submodel) {
+		String smId = submodel.getIdentification().getId();
+		boolean isReferenced = aas.getSubmodelReferences().stream().map(this::getLastKey).map(IKey::getValue).anyMatch(value -> value.equals(smId) || value.equals(submodel.getIdShort()));
+		if (!isReferenced) {
+			aas.addSubmodel(submodel);
+		}
+	}
+
+	private void registerImportedProviders(List<AssetAdministrationShell> shells) {
+		if (isLazyLoading()) {
+			// Providers are created on first access, cached ones are outdated
+			for (AssetAdministrationShell aas : shells) {
+				String aasId = aas.getIdentification().getId();
+				aasIdIndex.add(aasId);
+				aasProviderMap.remove(aasId);
+				forgetProviderAccess(aasId);
+			}
+			return;
+		}
+
+		// Read back, so that the API factories recognize them as stored
+		List<String> aasIds = shells.stream().map(aas -> aas.getIdentification().getId()).collect(Collectors.toList());
+		List<AssetAdministrationShell> stored = mongoOps.find(query(where(IDPATH).in(aasIds)), AssetAdministrationShell.class, aasCollection);
+		Map<String, String> smIdsByIdShort = getSubmodelIdsByIdShort(stored);
+		for (AssetAdministrationShell aas : stored) {
+			aasProviderMap.put(aas.getIdentification().getId(), createProviderFromDB(aas, smIdsByIdShort));
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public IAssetAdministrationShell getAAS(IIdentifier aasId) {
@@ -569,37 +1093,121 @@ public class MongoDBAASAggregator implements IAASAggregator {
 
 	@Override
 	public void createAAS(AssetAdministrationShell aas) {
-		IAASAPI aasApi = this.aasApiProvider.create(aas);
-		MultiSubmodelProvider provider = createMultiSubmodelProvider(aasApi);
-		aasProviderMap.put(aas.getIdentification().getId(), provider);
+		String aasId = aas.getIdentification().getId();
+		synchronized (getWriteLock(aasId)) {
+			IAASAPI aasApi = this.aasApiProvider.create(aas);
+			aasProviderMap.put(aasId, createMultiSubmodelProvider(aasApi));
+			if (isLazyLoading()) {
+				aasIdIndex.add(aasId);
+			}
+		}
+		onProviderAccess(aasId);
 	}
 
 	@Override
 	public void updateAAS(AssetAdministrationShell aas) {
-		MultiSubmodelProvider oldProvider = (MultiSubmodelProvider) getAASProvider(aas.getIdentification());
-		IAASAPI aasApi = aasApiProvider.create(aas);
-		AASModelProvider contentProvider = new AASModelProvider(aasApi);
-		IConnectorFactory connectorFactory = oldProvider.getConnectorFactory();
+		String aasId = aas.getIdentification().getId();
+		synchronized (getWriteLock(aasId)) {
+			MultiSubmodelProvider oldProvider = aasProviderMap.get(aasId);
+			if (oldProvider == null && isLazyLoading()) {
+				oldProvider = loadProviderFromDB(aasId);
+			}
+			if (oldProvider == null) {
+				throw new ResourceNotFoundException("AAS with Id " + aasId + " does not exist");
+			}
 
-		MultiSubmodelProvider updatedProvider = new MultiSubmodelProvider(contentProvider, registry, connectorFactory, aasApiProvider, oldProvider.getSmAggregator());
+			IAASAPI aasApi = aasApiProvider.create(aas);
+			AASModelProvider contentProvider = new AASModelProvider(aasApi);
+			IConnectorFactory connectorFactory = oldProvider.getConnectorFactory();
 
-		aasProviderMap.put(aas.getIdentification().getId(), updatedProvider);
+			aasProviderMap.put(aasId, new MultiSubmodelProvider(contentProvider, registry, connectorFactory, aasApiProvider, oldProvider.getSmAggregator()));
+		}
+		onProviderAccess(aasId);
 	}
 
 	@Override
 	public void deleteAAS(IIdentifier aasId) {
-		Query hasId = query(where(IDPATH).is(aasId.getId()));
-		mongoOps.remove(hasId, aasCollection);
-		aasProviderMap.remove(aasId.getId());
+		String id = aasId.getId();
+		synchronized (getWriteLock(id)) {
+			Query hasId = query(where(IDPATH).is(id));
+			mongoOps.remove(hasId, aasCollection);
+			aasIdIndex.remove(id);
+			aasProviderMap.remove(id);
+		}
+		forgetProviderAccess(id);
+	}
+
+	/**
+	 * Streams the file directly from GridFS, so that it is neither held in memory
+	 * nor written to disk before being sent
+	 */
+	@Override
+	public SubmodelElementFileStream openSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath) {
+		String smId = getSubmodelIdOfAAS(aasId, smIdShort);
+		return new MongoDBSubmodelAPI(config, smId, templatePool).openSubmodelElementFile(idShortPath);
+	}
+
+	@Override
+	public String startSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String idShortPath) {
+		return getSubmodelAPIOfAAS(aasId, smIdShort).startSubmodelElementFileUpload(idShortPath);
+	}
+
+	@Override
+	public long getSubmodelElementFileUploadOffset(IIdentifier aasId, String smIdShort, String sessionId) {
+		return getSubmodelAPIOfAAS(aasId, smIdShort).getSubmodelElementFileUploadOffset(sessionId);
+	}
+
+	@Override
+	public long appendSubmodelElementFileChunk(IIdentifier aasId, String smIdShort, String sessionId, long offset, InputStream chunk) {
+		return getSubmodelAPIOfAAS(aasId, smIdShort).appendSubmodelElementFileChunk(sessionId, offset, chunk);
+	}
+
+	@Override
+	public void completeSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId) {
+		String smId = getSubmodelIdOfAAS(aasId, smIdShort);
+		new MongoDBSubmodelAPI(config, smId, templatePool).completeSubmodelElementFileUpload(sessionId);
+		notifySubmodelChanged(smId);
+	}
+
+	@Override
+	public void abortSubmodelElementFileUpload(IIdentifier aasId, String smIdShort, String sessionId) {
+		getSubmodelAPIOfAAS(aasId, smIdShort).abortSubmodelElementFileUpload(sessionId);
+	}
+
+	@Override
+	public boolean linkSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath, String sha256) {
+		String smId = getSubmodelIdOfAAS(aasId, smIdShort);
+		boolean linked = new MongoDBSubmodelAPI(config, smId, templatePool).linkSubmodelElementFile(idShortPath, sha256);
+		if (linked) {
+			notifySubmodelChanged(smId);
+		}
+		return linked;
+	}
+
+	private MongoDBSubmodelAPI getSubmodelAPIOfAAS(IIdentifier aasId, String smIdShort) {
+		return new MongoDBSubmodelAPI(config, getSubmodelIdOfAAS(aasId, smIdShort), templatePool);
+	}
+
+	private String getSubmodelIdOfAAS(IIdentifier aasId, String smIdShort) {
+		List<String> referencedKeys = getAAS(aasId).getSubmodelReferences().stream().map(this::getLastKey).map(IKey::getValue).collect(Collectors.toList());
+
+		Criteria isReferenced = new Criteria().orOperator(where(IDPATH).in(referencedKeys), where(IDSHORTPATH).in(referencedKeys));
+		Query hasIdShort = query(where(IDSHORTPATH).is(smIdShort).andOperator(isReferenced));
+		hasIdShort.fields().include(IDPATH);
+		Document doc = mongoOps.findOne(hasIdShort, Document.class, smCollection);
+		if (doc == null) {
+			throw new ResourceNotFoundException("Submodel with idShort " + smIdShort + " does not exist in AAS " + aasId.getId());
+		}
+		return doc.get(Identifiable.IDENTIFICATION, Document.class).getString(Identifier.ID);
 	}
 
 	public MultiSubmodelProvider getProviderForAASId(String aasId) {
-		return aasProviderMap.get(aasId);
+		return getCachedOrLoadedProvider(aasId);
 	}
 
 	@Override
 	public IModelProvider getAASProvider(IIdentifier aasId) {
-		MultiSubmodelProvider provider = aasProviderMap.get(aasId.getId());
+		MultiSubmodelProvider provider = getCachedOrLoadedProvider(aasId.getId());
 
 		if (provider == null) {
 			throw new ResourceNotFoundException("AAS with Id " + aasId.getId() + " does not exist");
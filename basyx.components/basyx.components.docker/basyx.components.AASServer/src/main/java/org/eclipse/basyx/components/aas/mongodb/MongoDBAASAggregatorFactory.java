@@ -30,9 +30,9 @@ import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.aas.restapi.api.IAASAPIFactory;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.aggregator.api.ISubmodelAggregatorFactory;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * 
@@ -46,18 +46,20 @@ public class MongoDBAASAggregatorFactory implements IAASAggregatorFactory {
 	private BaSyxMongoDBConfiguration config;
 	private IAASRegistry registry;
 	private IAASAPIFactory aasAPIFactory;
+	private ISubmodelAPIFactory submodelAPIFactory;
 	private ISubmodelAggregatorFactory submodelAggregatorFactory;
 	private String resourceConfigPath;
 	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
 
 	@Deprecated
 	public MongoDBAASAggregatorFactory(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		this(config, registry, aasAPIFactory, submodelAggregatorFactory, MongoClients.create(config.getConnectionUrl()));
+		this(config, registry, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(config));
 	}
 
 	@Deprecated
 	public MongoDBAASAggregatorFactory(BaSyxMongoDBConfiguration config, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory) {
-		this(config, aasAPIFactory, submodelAggregatorFactory, MongoClients.create(config.getConnectionUrl()));
+		this(config, aasAPIFactory, submodelAggregatorFactory, MongoDBTemplatePool.getShared(config));
 	}
 
 	@Deprecated
@@ -66,7 +68,7 @@ public class MongoDBAASAggregatorFactory implements IAASAggregatorFactory {
 		this.registry = registry;
 		this.aasAPIFactory = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
-		this.client = MongoClients.create(config.getConnectionUrl());
+		this.client = getSharedClient(resourceConfigPath);
 	}
 
 	@Deprecated
@@ -74,7 +76,7 @@ public class MongoDBAASAggregatorFactory implements IAASAggregatorFactory {
 		this.resourceConfigPath = resourceConfigPath;
 		this.aasAPIFactory = aasAPIFactory;
 		this.submodelAggregatorFactory = submodelAggregatorFactory;
-		this.client = MongoClients.create(config.getConnectionUrl());
+		this.client = getSharedClient(resourceConfigPath);
 	}
 
 	@Deprecated
@@ -112,16 +114,38 @@ public class MongoDBAASAggregatorFactory implements IAASAggregatorFactory {
 		this.client = client;
 	}
 
+	public MongoDBAASAggregatorFactory(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoDBTemplatePool templatePool) {
+		this(config, registry, aasAPIFactory, submodelAggregatorFactory, templatePool.getClient());
+		this.templatePool = templatePool;
+	}
+
+	/**
+	 * The submodel API factory is used for the submodels that are loaded from the
+	 * database, so that they are decorated like the created ones
+	 */
+	public MongoDBAASAggregatorFactory(BaSyxMongoDBConfiguration config, IAASRegistry registry, IAASAPIFactory aasAPIFactory, ISubmodelAPIFactory submodelAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory,
+			MongoDBTemplatePool templatePool) {
+		this(config, registry, aasAPIFactory, submodelAggregatorFactory, templatePool);
+		this.submodelAPIFactory = submodelAPIFactory;
+	}
+
+	public MongoDBAASAggregatorFactory(BaSyxMongoDBConfiguration config, IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoDBTemplatePool templatePool) {
+		this(config, aasAPIFactory, submodelAggregatorFactory, templatePool.getClient());
+		this.templatePool = templatePool;
+	}
+
 	public MongoDBAASAggregatorFactory(IAASAPIFactory aasAPIFactory, ISubmodelAggregatorFactory submodelAggregatorFactory, MongoClient client) {
 		this(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH, aasAPIFactory, submodelAggregatorFactory);
 	}
 
 	@Override
 	public IAASAggregator create() {
-		if (this.config != null && this.registry != null) {
-			return new MongoDBAASAggregator(this.config, this.registry, this.aasAPIFactory, this.submodelAggregatorFactory, this.client);
+		if (this.config != null && this.submodelAPIFactory != null) {
+			return watchChanges(new MongoDBAASAggregator(this.config, this.registry, this.aasAPIFactory, this.submodelAPIFactory, this.submodelAggregatorFactory, getTemplatePool()));
+		} else if (this.config != null && this.registry != null) {
+			return watchChanges(new MongoDBAASAggregator(this.config, this.registry, this.aasAPIFactory, this.submodelAggregatorFactory, getTemplatePool()));
 		} else if (this.config != null) {
-			return new MongoDBAASAggregator(this.config, this.aasAPIFactory, this.submodelAggregatorFactory, this.client);
+			return watchChanges(new MongoDBAASAggregator(this.config, this.aasAPIFactory, this.submodelAggregatorFactory, getTemplatePool()));
 		} else if (this.resourceConfigPath != null && this.registry != null) {
 			return new MongoDBAASAggregator(this.resourceConfigPath, this.registry, this.aasAPIFactory, this.submodelAggregatorFactory, this.client);
 		} else {
@@ -129,4 +153,24 @@ public class MongoDBAASAggregatorFactory implements IAASAggregatorFactory {
 		}
 	}
 
+	private MongoDBAASAggregator watchChanges(MongoDBAASAggregator aggregator) {
+		if (config.isChangeStreamsEnabled()) {
+			getTemplatePool().getChangeStreamListener(config).addListener(aggregator);
+		}
+		return aggregator;
+	}
+
+	private static MongoClient getSharedClient(String resourceConfigPath) {
+		BaSyxMongoDBConfiguration resourceConfig = new BaSyxMongoDBConfiguration();
+		resourceConfig.loadFromResource(resourceConfigPath);
+		return MongoDBTemplatePool.getShared(resourceConfig).getClient();
+	}
+
+	private MongoDBTemplatePool getTemplatePool() {
+		if (templatePool == null) {
+			templatePool = MongoDBTemplatePool.getShared(client);
+		}
+		return templatePool;
+	}
+
 }
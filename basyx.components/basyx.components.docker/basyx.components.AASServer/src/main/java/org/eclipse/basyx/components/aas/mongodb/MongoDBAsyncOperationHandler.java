@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.mongodb;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Executes asynchronous operation invocations on a bounded thread pool and
+ * stores their state and results in a MongoDB collection. Stored results are
+ * removed by a TTL index after the configured time, so they can be retrieved
+ * multiple times and after a restart of the server.
+ * 
+ * Invocations that are still running when the server stops remain in the state
+ * {@link #STATE_RUNNING} until they expire.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBAsyncOperationHandler {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBAsyncOperationHandler.class);
+
+	public static final String REQUEST_ID = "requestId";
+	public static final String EXECUTION_STATE = "executionState";
+	public static final String RESULT = "result";
+	public static final String MESSAGE = "message";
+
+	public static final String STATE_RUNNING = "Running";
+	public static final String STATE_COMPLETED = "Completed";
+	public static final String STATE_FAILED = "Failed";
+
+	private static final String ID = "_id";
+	private static final String SMID = "smId";
+	private static final String OPERATION = "operation";
+	private static final String EXPIRES_AT = "expiresAt";
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private final MongoOperations mongoOps;
+	private final String collection;
+	private final long resultTTLMillis;
+	private final ThreadPoolExecutor executor;
+
+	public MongoDBAsyncOperationHandler(MongoOperations mongoOps, String collection, int threads, int queueSize, long resultTTLMillis) {
+		this.mongoOps = mongoOps;
+		this.collection = collection;
+		this.resultTTLMillis = resultTTLMillis;
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "basyx-mongodb-invocation-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the TTL index that removes expired results
+	 * 
+	 * @return
+	 */
+	public static List<IndexDefinition> getIndexes() {
+		return Arrays.asList(new Index().on(EXPIRES_AT, Direction.ASC).expire(0));
+	}
+
+	/**
+	 * Starts the invocation in the background
+	 * 
+	 * @param smId
+	 * @param operationPath
+	 *            idShort path of the invoked operation
+	 * @param invocation
+	 *            Performs the invocation and returns its result
+	 * @return Request id for retrieving the result
+	 * @throws ProviderException
+	 *             if too many invocations are pending
+	 */
+	public String invokeAsync(String smId, String operationPath, Supplier<Object> invocation) {
+		String requestId = UUID.randomUUID().toString();
+		Document request = new Document(ID, requestId).append(SMID, smId).append(OPERATION, operationPath).append(EXECUTION_STATE, STATE_RUNNING).append(EXPIRES_AT, getExpiryDate());
+		mongoOps.insert(request, collection);
+
+		try {
+			executor.execute(() -> execute(requestId, invocation));
+		} catch (RejectedExecutionException e) {
+			mongoOps.remove(query(where(ID).is(requestId)), collection);
+			throw new ProviderException("Too many pending invocations, operation " + operationPath + " has not been invoked");
+		}
+		return requestId;
+	}
+
+	/**
+	 * Returns the state of the invocation and, if completed, its result
+	 * 
+	 * @param smId
+	 * @param operationPath
+	 * @param requestId
+	 * @return Map containing {@link #REQUEST_ID}, {@link #EXECUTION_STATE} and
+	 *         either {@link #RESULT} or, if failed, {@link #MESSAGE}
+	 */
+	public Map<String, Object> getResult(String smId, String operationPath, String requestId) {
+		Query request = query(where(ID).is(requestId).and(SMID).is(smId).and(OPERATION).is(operationPath));
+		Document stored = mongoOps.findOne(request, Document.class, collection);
+		if (stored == null) {
+			throw new ResourceNotFoundException("No invocation with request id " + requestId + " of operation " + operationPath + " exists");
+		}
+
+		Map<String, Object> result = new HashMap<>();
+		result.put(REQUEST_ID, requestId);
+		result.put(EXECUTION_STATE, stored.get(EXECUTION_STATE));
+		if (stored.containsKey(RESULT)) {
+			result.put(RESULT, stored.get(RESULT));
+		}
+		if (stored.containsKey(MESSAGE)) {
+			result.put(MESSAGE, stored.get(MESSAGE));
+		}
+		return result;
+	}
+
+	/**
+	 * Stops accepting invocations. Running invocations are not interrupted.
+	 */
+	public void close() {
+		executor.shutdown();
+	}
+
+	private void execute(String requestId, Supplier<Object> invocation) {
+		Update update;
+		try {
+			update = Update.update(EXECUTION_STATE, STATE_COMPLETED).set(RESULT, invocation.get());
+		} catch (RuntimeException e) {
+			logger.warn("Asynchronous invocation " + requestId + " failed: " + e.getMessage());
+			update = Update.update(EXECUTION_STATE, STATE_FAILED).set(MESSAGE, String.valueOf(e.getMessage()));
+		}
+
+		// The result is kept for the full TTL after completion
+		try {
+			mongoOps.updateFirst(query(where(ID).is(requestId)), update.set(EXPIRES_AT, getExpiryDate()), collection);
+		} catch (RuntimeException e) {
+			// E.g. the result can not be encoded or exceeds the document size
+			logger.warn("Result of asynchronous invocation " + requestId + " could not be stored: " + e.getMessage());
+			storeFailure(requestId, "The result could not be stored: " + e.getMessage());
+		}
+	}
+
+	private void storeFailure(String requestId, String message) {
+		Update failed = Update.update(EXECUTION_STATE, STATE_FAILED).unset(RESULT).set(MESSAGE, message).set(EXPIRES_AT, getExpiryDate());
+		try {
+			mongoOps.updateFirst(query(where(ID).is(requestId)), failed, collection);
+		} catch (RuntimeException e) {
+			logger.error("State of asynchronous invocation " + requestId + " could not be stored, it stays " + STATE_RUNNING + " until it expires: " + e.getMessage());
+		}
+	}
+
+	private Date getExpiryDate() {
+		return new Date(System.currentTimeMillis() + resultTTLMillis);
+	}
+}
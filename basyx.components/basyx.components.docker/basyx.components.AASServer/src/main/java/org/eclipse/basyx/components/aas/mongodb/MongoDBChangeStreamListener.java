@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.mongodb;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.eclipse.basyx.components.aas.aggregator.IModelChangeListener;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.qualifier.Identifiable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+/**
+ * Watches the AAS and submodel collections with MongoDB change streams and
+ * passes the changes to the registered {@link IModelChangeListener}s. This
+ * keeps servers that share a database consistent without reloading all models.
+ * Change streams require MongoDB to run as a replica set.
+ * 
+ * Interrupted streams are resumed where they stopped. If this is not possible,
+ * the listeners are asked to resync.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBChangeStreamListener implements AutoCloseable {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBChangeStreamListener.class);
+
+	private static final String IDPATH = Identifiable.IDENTIFICATION + "." + Identifier.ID;
+	private static final String FULL_DOCUMENT_IDPATH = "fullDocument." + IDPATH;
+	private static final String FULL_DOCUMENT_WRITER = "fullDocument." + MongoDBAASAPI.WRITER;
+	private static final long MAX_AWAIT_MILLIS = 1000;
+	private static final long RETRY_DELAY_MILLIS = 5000;
+	private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+	private final MongoDatabase database;
+	private final String aasCollection;
+	private final String smCollection;
+	private final String writerId;
+	private final List<IModelChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	// Deletion events only contain the MongoDB _id of the deleted document
+	private final Map<BsonValue, String> aasIdsByDocumentId = new ConcurrentHashMap<>();
+
+	private volatile boolean running = false;
+
+	public MongoDBChangeStreamListener(MongoDatabase database, String aasCollection, String smCollection) {
+		this(database, aasCollection, smCollection, null);
+	}
+
+	/**
+	 * Changes of AAS that have been written with the given writer id, i.e. by the
+	 * listeners themselves, are not passed on
+	 * 
+	 * @param database
+	 * @param aasCollection
+	 * @param smCollection
+	 * @param writerId
+	 */
+	public MongoDBChangeStreamListener(MongoDatabase database, String aasCollection, String smCollection, String writerId) {
+		this.database = database;
+		this.aasCollection = aasCollection;
+		this.smCollection = smCollection;
+		this.writerId = writerId;
+	}
+
+	public void addListener(IModelChangeListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(IModelChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Starts watching both collections in background threads
+	 * 
+	 * @throws MongoException
+	 *             if MongoDB does not support change streams
+	 */
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		try {
+			indexAASDocumentIds();
+			startWatcher(aasCollection, this::handleAASChange);
+			startWatcher(smCollection, this::handleSubmodelChange);
+		} catch (MongoException e) {
+			running = false;
+			throw e;
+		}
+	}
+
+	/**
+	 * Stops watching. The background threads end after at most one await period.
+	 */
+	@Override
+	public synchronized void close() {
+		running = false;
+	}
+
+	private void indexAASDocumentIds() {
+		MongoCollection<BsonDocument> collection = database.getCollection(aasCollection, BsonDocument.class);
+		for (BsonDocument doc : collection.find().projection(Projections.include(IDPATH))) {
+			String aasId = getId(doc);
+			if (aasId != null) {
+				aasIdsByDocumentId.put(doc.get("_id"), aasId);
+			}
+		}
+	}
+
+	private void startWatcher(String collection, Consumer<ChangeStreamDocument<BsonDocument>> handler) {
+		// The first cursor is opened synchronously, so that no change after start is missed
+		MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> cursor = openCursor(collection, null);
+		Thread watcher = new Thread(() -> watch(collection, handler, cursor), "basyx-mongodb-changestream-" + collection);
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	private void watch(String collection, Consumer<ChangeStreamDocument<BsonDocument>> handler, MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> initialCursor) {
+		MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> nextCursor = initialCursor;
+		BsonDocument resumeToken = initialCursor.getResumeToken();
+		while (running) {
+			try (MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> cursor = nextCursor != null ? nextCursor : openCursor(collection, resumeToken)) {
+				nextCursor = null;
+				while (running) {
+					ChangeStreamDocument<BsonDocument> change = cursor.tryNext();
+					if (change != null && change.getOperationType() == OperationType.INVALIDATE) {
+						// The collection has been dropped or renamed, the stream ended
+						resumeToken = null;
+						notifyListeners(IModelChangeListener::onResync);
+						break;
+					}
+					if (change != null) {
+						handler.accept(change);
+					}
+					resumeToken = cursor.getResumeToken();
+				}
+			} catch (MongoException e) {
+				nextCursor = null;
+				if (!running) {
+					return;
+				}
+				logger.warn("Change stream on collection " + collection + " failed: " + e.getMessage());
+				if (e.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+					resumeToken = null;
+					notifyListeners(IModelChangeListener::onResync);
+				}
+				sleep(RETRY_DELAY_MILLIS);
+			}
+		}
+	}
+
+	private MongoChangeStreamCursor<ChangeStreamDocument<BsonDocument>> openCursor(String collection, BsonDocument resumeToken) {
+		// Only the ids are needed, so the looked up documents are not transferred
+		List<Bson> pipeline = Arrays.asList(Aggregates.project(Projections.include("operationType", "documentKey", "ns", FULL_DOCUMENT_IDPATH, FULL_DOCUMENT_WRITER)));
+		ChangeStreamIterable<BsonDocument> changeStream = database.getCollection(collection, BsonDocument.class).watch(pipeline).fullDocument(FullDocument.UPDATE_LOOKUP).maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+		if (resumeToken != null) {
+			changeStream = changeStream.resumeAfter(resumeToken);
+		}
+		return changeStream.cursor();
+	}
+
+	private void handleAASChange(ChangeStreamDocument<BsonDocument> change) {
+		BsonValue documentId = change.getDocumentKey() == null ? null : change.getDocumentKey().get("_id");
+		switch (change.getOperationType()) {
+		case INSERT:
+		case REPLACE:
+		case UPDATE:
+			String aasId = getId(change.getFullDocument());
+			// Without a document, it has been deleted in the meantime and a deletion follows
+			if (aasId != null) {
+				aasIdsByDocumentId.put(documentId, aasId);
+				if (!isOwnWrite(change.getFullDocument())) {
+					notifyListeners(listener -> listener.onAASChanged(aasId));
+				}
+			}
+			break;
+		case DELETE:
+			String deletedId = documentId == null ? null : aasIdsByDocumentId.remove(documentId);
+			if (deletedId != null) {
+				notifyListeners(listener -> listener.onAASDeleted(deletedId));
+			}
+			break;
+		case DROP:
+		case DROP_DATABASE:
+		case RENAME:
+			aasIdsByDocumentId.clear();
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void handleSubmodelChange(ChangeStreamDocument<BsonDocument> change) {
+		switch (change.getOperationType()) {
+		case INSERT:
+		case REPLACE:
+		case UPDATE:
+			String smId = getId(change.getFullDocument());
+			if (smId != null) {
+				notifyListeners(listener -> listener.onSubmodelChanged(smId));
+			}
+			break;
+		case DELETE:
+			notifyListeners(IModelChangeListener::onSubmodelDeleted);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void notifyListeners(Consumer<IModelChangeListener> notification) {
+		for (IModelChangeListener listener : listeners) {
+			try {
+				notification.accept(listener);
+			} catch (RuntimeException e) {
+				logger.warn("Change listener failed: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	private boolean isOwnWrite(BsonDocument doc) {
+		return writerId != null && doc.isString(MongoDBAASAPI.WRITER) && writerId.equals(doc.getString(MongoDBAASAPI.WRITER).getValue());
+	}
+
+	private static String getId(BsonDocument doc) {
+		if (doc == null || !doc.isDocument(Identifiable.IDENTIFICATION)) {
+			return null;
+		}
+		BsonDocument identification = doc.getDocument(Identifiable.IDENTIFICATION);
+		return identification.isString(Identifier.ID) ? identification.getString(Identifier.ID).getValue() : null;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
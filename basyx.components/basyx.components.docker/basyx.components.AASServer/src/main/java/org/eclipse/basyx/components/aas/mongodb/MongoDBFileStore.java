@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.mongodb;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.push;
+import static com.mongodb.client.model.Updates.set;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+
+/**
+ * Content-addressed file storage on top of a GridFS bucket. Files with the same
+ * content are stored only once, identified by their SHA-256 hash. The file
+ * names used by the submodel APIs are links to the stored content, which
+ * counts its links and is deleted together with the last one.
+ * 
+ * Additionally, files can be uploaded in chunks over several requests, so that
+ * an interrupted upload can be resumed at the last accepted chunk. Upload
+ * sessions that receive no chunk within their time to live are removed
+ * together with their chunks by a TTL index.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBFileStore {
+	/**
+	 * Maximum size of a single chunk of an upload session. Chunks are stored as
+	 * single documents and thus have to stay below the BSON document limit.
+	 */
+	public static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private static final String CONTENT_PREFIX = "sha256-";
+	private static final String PENDING_PREFIX = "pending-";
+
+	private static final String ID = "_id";
+	private static final String FILENAME = "filename";
+	private static final String METADATA = "metadata";
+	private static final String SHA256 = "sha256";
+	private static final String REF_COUNT = "refCount";
+	private static final String FILES_ID = "files_id";
+	private static final String CONTENT_ID = "contentId";
+	private static final String SM_ID = "smId";
+	private static final String IDSHORT_PATH = "idShortPath";
+	private static final String LENGTH = "length";
+	private static final String CHUNK_IDS = "chunkIds";
+	private static final String CREATED = "created";
+	private static final String EXPIRES_AT = "expiresAt";
+	private static final String DATA = "data";
+
+	private final GridFSBucket bucket;
+	private final MongoCollection<Document> files;
+	private final MongoCollection<Document> chunks;
+	private final MongoCollection<Document> links;
+	private final MongoCollection<Document> sessions;
+	private final MongoCollection<Document> sessionChunks;
+	private final long uploadSessionTTL;
+
+	/**
+	 * @param database
+	 * @param bucket
+	 * @param uploadSessionTTL
+	 *            Time in milliseconds after which upload sessions that have not
+	 *            been completed are removed
+	 */
+	public MongoDBFileStore(MongoDatabase database, GridFSBucket bucket, long uploadSessionTTL) {
+		this.bucket = bucket;
+		String bucketName = bucket.getBucketName();
+		this.files = database.getCollection(getFilesCollection(bucketName));
+		this.chunks = database.getCollection(bucketName + ".chunks");
+		this.links = database.getCollection(bucketName + ".links");
+		this.sessions = database.getCollection(getSessionCollection(bucketName));
+		this.sessionChunks = database.getCollection(getSessionChunkCollection(bucketName));
+		this.uploadSessionTTL = uploadSessionTTL;
+	}
+
+	public static String getFilesCollection(String bucketName) {
+		return bucketName + ".files";
+	}
+
+	public static String getSessionCollection(String bucketName) {
+		return bucketName + ".uploadSessions";
+	}
+
+	public static String getSessionChunkCollection(String bucketName) {
+		return bucketName + ".uploadChunks";
+	}
+
+	/**
+	 * Indexes of the files collection. Content hashes are unique, so that
+	 * concurrent uploads of identical content are stored only once. Pending
+	 * uploads have no hash yet and are not indexed.
+	 * 
+	 * @return
+	 */
+	public static List<IndexDefinition> getFileIndexes() {
+		String hashPath = METADATA + "." + SHA256;
+		return Arrays.asList(new Index().on(hashPath, Direction.ASC).unique().partial(PartialIndexFilter.of(where(hashPath).exists(true))));
+	}
+
+	/**
+	 * TTL index of the upload session and chunk collections
+	 * 
+	 * @return
+	 */
+	public static List<IndexDefinition> getUploadIndexes() {
+		return Arrays.asList(new Index().on(EXPIRES_AT, Direction.ASC).expire(0));
+	}
+
+	/**
+	 * Stores the content under the given file name. Previous content of the file
+	 * is released.
+	 * 
+	 * @param fileName
+	 * @param content
+	 */
+	public void store(String fileName, InputStream content) {
+		link(fileName, storeContent(content));
+	}
+
+	/**
+	 * Links the file name to already stored content with the given hash, so that
+	 * the content does not have to be uploaded again
+	 * 
+	 * @param fileName
+	 * @param sha256
+	 *            Hex encoded SHA-256 hash of the content
+	 * @return false, if no content with this hash is stored
+	 */
+	public boolean storeExisting(String fileName, String sha256) {
+		Document content = acquireContent(sha256.toLowerCase());
+		if (content == null) {
+			return false;
+		}
+		link(fileName, content.getObjectId(ID));
+		return true;
+	}
+
+	/**
+	 * Opens the content of the given file. The caller has to close the returned
+	 * stream.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public SubmodelElementFileStream open(String fileName) {
+		Document link = links.find(eq(ID, fileName)).first();
+
+		// Files stored before content addressing are found by their name
+		GridFSDownloadStream downloadStream = link == null ? bucket.openDownloadStream(fileName) : bucket.openDownloadStream(link.getObjectId(CONTENT_ID));
+		return new SubmodelElementFileStream(downloadStream, fileName, downloadStream.getGridFSFile().getLength());
+	}
+
+	/**
+	 * Deletes the file. Its content is deleted as well, if no other file links to
+	 * it.
+	 * 
+	 * @param fileName
+	 */
+	public void delete(String fileName) {
+		Document link = links.findOneAndDelete(eq(ID, fileName));
+		if (link != null) {
+			release(link.getObjectId(CONTENT_ID));
+		}
+		deleteUnlinkedFiles(fileName);
+	}
+
+	/**
+	 * Starts a chunked upload for the File submodel element with the given path
+	 * 
+	 * @param smId
+	 * @param idShortPath
+	 * @return Id of the new upload session
+	 */
+	public String startUploadSession(String smId, String idShortPath) {
+		String sessionId = UUID.randomUUID().toString();
+		Date created = new Date();
+		Document session = new Document(ID, sessionId).append(SM_ID, smId).append(IDSHORT_PATH, idShortPath).append(LENGTH, 0L).append(CHUNK_IDS, new ArrayList<ObjectId>()).append(CREATED, created)
+				.append(EXPIRES_AT, new Date(created.getTime() + uploadSessionTTL));
+		sessions.insertOne(session);
+		return sessionId;
+	}
+
+	/**
+	 * Returns the path of the File submodel element the upload session was
+	 * started for
+	 * 
+	 * @param smId
+	 * @param sessionId
+	 * @return
+	 */
+	public String getUploadSessionPath(String smId, String sessionId) {
+		return getSession(smId, sessionId).getString(IDSHORT_PATH);
+	}
+
+	/**
+	 * Returns the number of bytes received by the upload session, i.e. the offset
+	 * at which the upload has to be resumed
+	 * 
+	 * @param smId
+	 * @param sessionId
+	 * @return
+	 */
+	public long getUploadOffset(String smId, String sessionId) {
+		return getSession(smId, sessionId).getLong(LENGTH);
+	}
+
+	/**
+	 * Appends a chunk to the upload session. The chunk is only accepted, if its
+	 * offset matches the number of bytes received so far. Each accepted chunk
+	 * extends the expiry of the session, so that long uploads do not expire while
+	 * they are still in progress.
+	 * 
+	 * @param smId
+	 * @param sessionId
+	 * @param offset
+	 * @param chunk
+	 * @return The new upload offset
+	 */
+	public long appendChunk(String smId, String sessionId, long offset, InputStream chunk) {
+		Document session = getSession(smId, sessionId);
+		assertOffset(session, offset);
+
+		byte[] data = readChunk(chunk);
+		ObjectId chunkId = new ObjectId();
+		Date expiresAt = new Date(System.currentTimeMillis() + uploadSessionTTL);
+		// Expires with its session, so that chunks of abandoned sessions are removed
+		sessionChunks.insertOne(new Document(ID, chunkId).append(DATA, new Binary(data)).append(EXPIRES_AT, expiresAt));
+
+		// Only advance if no other chunk has been accepted in the meantime
+		Document advanced = sessions.findOneAndUpdate(and(eq(ID, sessionId), eq(LENGTH, offset)), combine(inc(LENGTH, (long) data.length), push(CHUNK_IDS, chunkId), set(EXPIRES_AT, expiresAt)),
+				new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+		if (advanced == null) {
+			sessionChunks.deleteOne(eq(ID, chunkId));
+			throw new MalformedRequestException("A chunk at offset " + offset + " has already been accepted by session " + sessionId);
+		}
+		sessionChunks.updateMany(in(ID, advanced.getList(CHUNK_IDS, ObjectId.class)), set(EXPIRES_AT, expiresAt));
+		return advanced.getLong(LENGTH);
+	}
+
+	/**
+	 * Returns the content received by the upload session. The chunks are read one
+	 * after another, so that the whole file is never held in memory.
+	 * 
+	 * @param smId
+	 * @param sessionId
+	 * @return
+	 */
+	public InputStream openUploadSession(String smId, String sessionId) {
+		List<ObjectId> chunkIds = getSession(smId, sessionId).getList(CHUNK_IDS, ObjectId.class);
+		Iterator<ObjectId> chunkIterator = chunkIds.iterator();
+		return new SequenceInputStream(new Enumeration<InputStream>() {
+			@Override
+			public boolean hasMoreElements() {
+				return chunkIterator.hasNext();
+			}
+
+			@Override
+			public InputStream nextElement() {
+				Document chunkDoc = sessionChunks.find(eq(ID, chunkIterator.next())).first();
+				if (chunkDoc == null) {
+					throw new ResourceNotFoundException("Upload session " + sessionId + " has expired");
+				}
+				return new ByteArrayInputStream(getData(chunkDoc));
+			}
+		});
+	}
+
+	/**
+	 * Deletes the upload session together with all chunks received so far
+	 * 
+	 * @param smId
+	 * @param sessionId
+	 */
+	public void deleteUploadSession(String smId, String sessionId) {
+		Document session = sessions.findOneAndDelete(and(eq(ID, sessionId), eq(SM_ID, smId)));
+		if (session != null) {
+			sessionChunks.deleteMany(in(ID, session.getList(CHUNK_IDS, ObjectId.class)));
+		}
+	}
+
+	/**
+	 * Uploads the content and returns the id of the stored content. If identical
+	 * content is already stored, the upload is dropped and the existing content
+	 * is referenced instead.
+	 */
+	private ObjectId storeContent(InputStream content) {
+		MessageDigest digest = createDigest();
+		ObjectId uploadId = bucket.uploadFromStream(PENDING_PREFIX + UUID.randomUUID(), new DigestInputStream(content, digest));
+		String sha256 = toHex(digest.digest());
+
+		while (true) {
+			Document existing = acquireContent(sha256);
+			if (existing != null) {
+				bucket.delete(uploadId);
+				return existing.getObjectId(ID);
+			}
+
+			try {
+				files.updateOne(eq(ID, uploadId), combine(set(FILENAME, CONTENT_PREFIX + sha256), set(METADATA + "." + SHA256, sha256), set(METADATA + "." + REF_COUNT, 1)));
+				return uploadId;
+			} catch (MongoWriteException e) {
+				if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+					throw e;
+				}
+				// Identical content has been stored concurrently, or content without
+				// references has not been deleted yet. The latter is completed here, so that
+				// the unique hash becomes available.
+				deleteUnreferencedContent(sha256);
+			}
+		}
+	}
+
+	private void deleteUnreferencedContent(String sha256) {
+		Document unreferenced = files.findOneAndDelete(and(eq(METADATA + "." + SHA256, sha256), lte(METADATA + "." + REF_COUNT, 0)));
+		if (unreferenced != null) {
+			chunks.deleteMany(eq(FILES_ID, unreferenced.getObjectId(ID)));
+		}
+	}
+
+	/**
+	 * Increments the reference count of the content with the given hash. Content
+	 * that is currently being deleted, i.e. has no references left, is ignored.
+	 */
+	private Document acquireContent(String sha256) {
+		return files.findOneAndUpdate(and(eq(METADATA + "." + SHA256, sha256), gt(METADATA + "." + REF_COUNT, 0)), inc(METADATA + "." + REF_COUNT, 1));
+	}
+
+	private void link(String fileName, ObjectId contentId) {
+		Document previous = links.findOneAndReplace(eq(ID, fileName), new Document(ID, fileName).append(CONTENT_ID, contentId), new FindOneAndReplaceOptions().upsert(true));
+		if (previous != null) {
+			release(previous.getObjectId(CONTENT_ID));
+		} else {
+			deleteUnlinkedFiles(fileName);
+		}
+	}
+
+	/**
+	 * Decrements the reference count of the content and deletes it if it is no
+	 * longer referenced
+	 */
+	private void release(ObjectId contentId) {
+		Document released = files.findOneAndUpdate(eq(ID, contentId), inc(METADATA + "." + REF_COUNT, -1), new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+		if (released == null || getRefCount(released) > 0) {
+			return;
+		}
+
+		// Only the release that removes the files document also removes the chunks
+		if (files.deleteOne(and(eq(ID, contentId), lte(METADATA + "." + REF_COUNT, 0))).getDeletedCount() == 1) {
+			chunks.deleteMany(eq(FILES_ID, contentId));
+		}
+	}
+
+	/**
+	 * Deletes files stored under the file name itself, i.e. files uploaded before
+	 * content addressing
+	 */
+	private void deleteUnlinkedFiles(String fileName) {
+		bucket.find(eq(FILENAME, fileName)).forEach(gridFile -> bucket.delete(gridFile.getObjectId()));
+	}
+
+	private Document getSession(String smId, String sessionId) {
+		Document session = sessions.find(and(eq(ID, sessionId), eq(SM_ID, smId))).first();
+		if (session == null) {
+			throw new ResourceNotFoundException("Upload session " + sessionId + " does not exist for submodel " + smId);
+		}
+		return session;
+	}
+
+	private void assertOffset(Document session, long offset) {
+		long expected = session.getLong(LENGTH);
+		if (expected != offset) {
+			throw new MalformedRequestException("Chunk offset " + offset + " does not match the upload offset " + expected + " of session " + session.getString(ID));
+		}
+	}
+
+	private byte[] readChunk(InputStream chunk) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[64 * 1024];
+		try {
+			int read;
+			while ((read = chunk.read(buffer)) >= 0) {
+				out.write(buffer, 0, read);
+				if (out.size() > MAX_CHUNK_SIZE) {
+					throw new MalformedRequestException("Chunks must not be larger than " + MAX_CHUNK_SIZE + " bytes");
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] getData(Document chunkDoc) {
+		Object data = chunkDoc.get(DATA);
+		return data instanceof Binary ? ((Binary) data).getData() : (byte[]) data;
+	}
+
+	private static long getRefCount(Document fileDoc) {
+		Number refCount = (Number) fileDoc.get(METADATA, Document.class).get(REF_COUNT);
+		return refCount == null ? 0 : refCount.longValue();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+}
@@ -27,19 +27,26 @@ package org.eclipse.basyx.components.aas.mongodb;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 import org.apache.tika.mime.MimeType;
 import org.apache.tika.mime.MimeTypeException;
 import org.apache.tika.mime.MimeTypes;
+import org.bson.Document;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
 import org.eclipse.basyx.submodel.metamodel.api.submodelelement.ISubmodelElement;
@@ -48,6 +55,7 @@ import org.eclipse.basyx.submodel.metamodel.facade.submodelelement.SubmodelEleme
 import org.eclipse.basyx.submodel.metamodel.map.Submodel;
 import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.Identifiable;
+import org.eclipse.basyx.submodel.metamodel.map.qualifier.Referable;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElement;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.File;
@@ -57,6 +65,7 @@ import org.eclipse.basyx.submodel.restapi.SubmodelElementProvider;
 import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
 import org.eclipse.basyx.submodel.restapi.operation.DelegatedInvocationManager;
 import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
 import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.eclipse.basyx.vab.modelprovider.VABPathTools;
 import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
@@ -64,15 +73,12 @@ import org.eclipse.basyx.vab.modelprovider.lambda.VABLambdaProvider;
 import org.eclipse.basyx.vab.modelprovider.map.VABMapProvider;
 import org.eclipse.basyx.vab.protocol.http.connector.HTTPConnectorFactory;
 import org.springframework.data.mongodb.core.MongoOperations;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import com.mongodb.MongoGridFSException;
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.gridfs.GridFSBucket;
-import com.mongodb.client.gridfs.GridFSBuckets;
-import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
 
 /**
  * Implements the ISubmodelAPI for a mongoDB backend.
@@ -83,13 +89,22 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	private static final String DEFAULT_CONFIG_PATH = "mongodb.properties";
 	public static final String SMIDPATH = Identifiable.IDENTIFICATION + "." + Identifier.ID;
 
+	/**
+	 * Counter in each submodel document that is incremented by every write. Writes
+	 * based on a previously read state only succeed if the counter is unchanged.
+	 */
+	public static final String VERSION = "_version";
+	private static final int MAX_WRITE_ATTEMPTS = 50;
+
 	protected DelegatedInvocationManager invocationHelper;
 
 	protected BaSyxMongoDBConfiguration config;
 	protected MongoOperations mongoOps;
 	protected String collection;
 	protected String smId;
-	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
+	private MongoDBSubmodelWriteBuffer writeBuffer;
+	private MongoDBFileStore fileStore;
 
 	/**
 	 * Receives the path of the configuration.properties file in its constructor.
@@ -114,12 +129,28 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	@Deprecated
 	public MongoDBSubmodelAPI(BaSyxMongoDBConfiguration config, String smId,
 			DelegatedInvocationManager invocationHelper) {
-		this(config, smId, invocationHelper, MongoClients.create(config.getConnectionUrl()));
+		this(config, smId, invocationHelper, MongoDBTemplatePool.getShared(config));
 	}
 
 	public MongoDBSubmodelAPI(BaSyxMongoDBConfiguration config, String smId,
 			DelegatedInvocationManager invocationHelper, MongoClient client) {
-		this.client = client;
+		this(config, smId, invocationHelper, MongoDBTemplatePool.getShared(client));
+	}
+
+	/**
+	 * Receives the configuration and a pool of shared MongoDB templates
+	 * 
+	 * @param config
+	 * @param smId
+	 * @param templatePool
+	 */
+	public MongoDBSubmodelAPI(BaSyxMongoDBConfiguration config, String smId, MongoDBTemplatePool templatePool) {
+		this(config, smId, new DelegatedInvocationManager(new HTTPConnectorFactory()), templatePool);
+	}
+
+	public MongoDBSubmodelAPI(BaSyxMongoDBConfiguration config, String smId,
+			DelegatedInvocationManager invocationHelper, MongoDBTemplatePool templatePool) {
+		this.templatePool = templatePool;
 		this.setConfiguration(config);
 		this.setSubmodelId(smId);
 		this.invocationHelper = invocationHelper;
@@ -146,7 +177,7 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	public MongoDBSubmodelAPI(String resourceConfigPath, String smId, DelegatedInvocationManager invocationHelper) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		this.client = MongoClients.create(config.getConnectionUrl());
+		this.templatePool = MongoDBTemplatePool.getShared(config);
 		this.setConfiguration(config);
 		this.setSubmodelId(smId);
 		this.invocationHelper = invocationHelper;
@@ -156,7 +187,7 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 			MongoClient client) {
 		config = new BaSyxMongoDBConfiguration();
 		config.loadFromResource(resourceConfigPath);
-		this.client = client;
+		this.templatePool = MongoDBTemplatePool.getShared(client);
 		this.setConfiguration(config);
 		this.setSubmodelId(smId);
 		this.invocationHelper = invocationHelper;
@@ -195,8 +226,10 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	 */
 	public void setConfiguration(BaSyxMongoDBConfiguration config) {
 		this.config = config;
-		this.mongoOps = new MongoTemplate(client, config.getDatabase());
+		this.mongoOps = templatePool.getTemplate(config.getDatabase());
 		this.collection = config.getSubmodelCollection();
+		this.writeBuffer = config.isWriteBehindEnabled() ? templatePool.getSubmodelWriteBuffer(config) : null;
+		this.fileStore = templatePool.getFileStore(config);
 	}
 
 	/**
@@ -219,19 +252,40 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	public void setSubmodel(Submodel sm) {
 		String id = sm.getIdentification().getId();
 		this.setSubmodelId(id);
+		flushPendingUpdates();
 
-		Submodel replaced = writeSubmodelInDB(sm);
-		if (replaced == null) {
-			mongoOps.insert(sm, collection);
+		Query hasId = query(where(SMIDPATH).is(smId));
+		hasId.fields().include(VERSION);
+		for (int attempt = 1;; attempt++) {
+			Document current = mongoOps.findOne(hasId, Document.class, collection);
+			if (current == null) {
+				mongoOps.insert(sm, collection);
+				break;
+			}
+			if (writeSubmodelInDB(sm, current.get(VERSION))) {
+				break;
+			}
+			backOff(attempt);
 		}
 		// Remove mongoDB-specific map attribute from SM
 		// mongoOps modify sm on save - thus _id has to be removed here...
 		sm.remove("_id");
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public ISubmodel getSubmodel() {
+		Submodel result = loadSubmodel();
+		result.remove(VERSION);
+		return result;
+	}
+
+	/**
+	 * Loads the submodel including its {@link #VERSION}
+	 */
+	@SuppressWarnings("unchecked")
+	private Submodel loadSubmodel() {
+		flushPendingUpdates();
+
 		// Query Submodel from MongoDB
 		Query hasId = query(where(SMIDPATH).is(smId));
 		Submodel result = mongoOps.findOne(hasId, Submodel.class, collection);
@@ -261,14 +315,18 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 
 	@Override
 	public void addSubmodelElement(ISubmodelElement elem) {
-		// Get sm from db
-		Submodel sm = (Submodel) getSubmodel();
-		// Add element
-		sm.addSubmodelElement(elem);
-		writeSubmodelInDB(sm);
+		modifySubmodelInDB(sm -> {
+			sm.addSubmodelElement(elem);
+			return null;
+		});
 	}
 
 	private ISubmodelElement getTopLevelSubmodelElement(String idShort) {
+		List<String> idShorts = Collections.singletonList(idShort);
+		if (isPartialPathSupported(idShorts)) {
+			return convertSubmodelElement(getSubmodelElementFromDB(idShorts));
+		}
+
 		Submodel sm = (Submodel) getSubmodel();
 		Map<String, ISubmodelElement> submodelElements = sm.getSubmodelElements();
 		ISubmodelElement element = submodelElements.get(idShort);
@@ -288,25 +346,58 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	}
 
 	private void deleteTopLevelSubmodelElement(String idShort) {
-		// Get sm from db
-		Submodel sm = (Submodel) getSubmodel();
-		// Remove element
+		ISubmodelElement removed = modifySubmodelInDB(sm -> {
+			// Fails if the element does not exist
+			sm.getSubmodelElement(idShort);
+			return sm.getSubmodelElements().remove(idShort);
+		});
 
-		deleteAllFilesFromGridFsIfIsFileSubmodelElement(idShort, sm);
+		// Only deleted once the element is removed, since the removal may be retried
+		deleteAllFilesFromGridFsIfIsFileSubmodelElement(idShort, removed);
+	}
 
-		sm.getSubmodelElements().remove(idShort);
-		writeSubmodelInDB(sm);
+	@SuppressWarnings("unchecked")
+	private void deleteAllFilesFromGridFsIfIsFileSubmodelElement(String idShort, ISubmodelElement element) {
+		List<String> fileNames = new ArrayList<>();
+		collectFileNames(smId, idShort, (Map<String, Object>) element, fileNames);
+		fileNames.forEach(fileStore::delete);
+	}
 
+	/**
+	 * Returns the names of the stored files of all File submodel elements in the
+	 * given submodel elements, including the ones nested in collections
+	 * 
+	 * @param smId
+	 * @param submodelElements
+	 *            The submodel elements by their idShort, as stored in the
+	 *            submodel document
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<String> getFileNames(String smId, Map<String, Object> submodelElements) {
+		List<String> fileNames = new ArrayList<>();
+		for (Entry<String, Object> element : submodelElements.entrySet()) {
+			if (element.getValue() instanceof Map<?, ?>) {
+				collectFileNames(smId, element.getKey(), (Map<String, Object>) element.getValue(), fileNames);
+			}
+		}
+		return fileNames;
 	}
 
 	@SuppressWarnings("unchecked")
-	private void deleteAllFilesFromGridFsIfIsFileSubmodelElement(String idShort, Submodel sm) {
-		Map<String, Object> submodelElement = (Map<String, Object>) sm.getSubmodelElement(idShort);
-		if (!File.isFile(submodelElement))
-			return;
-		File file = File.createAsFacade(submodelElement);
-		GridFSBucket bucket = getGridFSBucket();
-		bucket.find(Filters.eq("filename", file.getValue())).forEach(gridFile -> bucket.delete(gridFile.getObjectId()));
+	private static void collectFileNames(String smId, String idShortPath, Map<String, Object> element, List<String> fileNames) {
+		if (File.isFile(element)) {
+			fileNames.add(constructFileName(smId, File.createAsFacade(element), idShortPath));
+		} else if (SubmodelElementCollection.isSubmodelElementCollection(element)) {
+			Object value = element.get(Property.VALUE);
+			Collection<Object> children = value instanceof Map<?, ?> ? ((Map<String, Object>) value).values() : value instanceof Collection<?> ? (Collection<Object>) value : Collections.emptyList();
+			for (Object child : children) {
+				if (child instanceof Map<?, ?>) {
+					Map<String, Object> childMap = (Map<String, Object>) child;
+					collectFileNames(smId, idShortPath + "/" + childMap.get(Referable.IDSHORT), childMap, fileNames);
+				}
+			}
+		}
 	}
 
 	@Override
@@ -316,20 +407,20 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	}
 
 	private void addNestedSubmodelElement(List<String> idShorts, ISubmodelElement elem) {
-		Submodel sm = (Submodel) getSubmodel();
 		// > 1 idShorts => add new sm element to an existing sm element
 		if (idShorts.size() > 1) {
-			idShorts = idShorts.subList(0, idShorts.size() - 1);
-			// Get parent SM element if more than 1 idShort
-			ISubmodelElement parentElement = getNestedSubmodelElement(sm, idShorts);
-			if (parentElement instanceof SubmodelElementCollection) {
-				((SubmodelElementCollection) parentElement).addSubmodelElement(elem);
-				writeSubmodelInDB(sm);
-			}
+			List<String> parentIdShorts = idShorts.subList(0, idShorts.size() - 1);
+			modifySubmodelInDB(sm -> {
+				// Get parent SM element if more than 1 idShort
+				ISubmodelElement parentElement = getNestedSubmodelElement(sm, parentIdShorts);
+				if (parentElement instanceof SubmodelElementCollection) {
+					((SubmodelElementCollection) parentElement).addSubmodelElement(elem);
+				}
+				return null;
+			});
 		} else {
 			// else => directly add it to the submodel
-			sm.addSubmodelElement(elem);
-			writeSubmodelInDB(sm);
+			addSubmodelElement(elem);
 		}
 	}
 
@@ -339,56 +430,257 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 		return sm.getSubmodelElements().values();
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Updates the value of the addressed element without replacing the whole
+	 * submodel document. Only the addressed element is loaded from the db and
+	 * written back using a targeted $set on its nested path, e.g.
+	 * submodelElements.a.value.b
+	 * 
+	 * @param idShorts
+	 * @param newValue
+	 */
 	private void updateSubmodelElementInDB(List<String> idShorts, Object newValue) {
-		Submodel sm = (Submodel) getSubmodel();
-		ISubmodelElement element = getNestedSubmodelElement(sm, idShorts);
+		if (!isPartialPathSupported(idShorts)) {
+			updateSubmodelElementInSubmodel(idShorts, newValue);
+			return;
+		}
+
+		if (writeBuffer != null) {
+			Map<String, Object> element = getSubmodelElementMapFromDB(idShorts);
+			writeBuffer.put(smId, getElementPath(idShorts), createUpdatedSubmodelElement(element, newValue));
+			return;
+		}
+
+		for (int attempt = 1;; attempt++) {
+			Document result = findSubmodelElementDocument(idShorts);
+			ISubmodelElement updatedElement = createUpdatedSubmodelElement(resolveSubmodelElement(result, idShorts), newValue);
+
+			// The element is written as a whole, so it must not have been changed since it
+			// has been read
+			Query hasVersion = query(where(SMIDPATH).is(smId).and(VERSION).is(result.get(VERSION)));
+			UpdateResult updateResult = mongoOps.updateFirst(hasVersion, Update.update(getElementPath(idShorts), updatedElement).inc(VERSION, 1), collection);
+			if (updateResult.getMatchedCount() > 0) {
+				return;
+			}
+			backOff(attempt);
+		}
+	}
+
+	/**
+	 * Fallback for idShort paths that can not be expressed as a MongoDB field path.
+	 * Replaces the whole submodel document.
+	 */
+	@SuppressWarnings("unchecked")
+	private void updateSubmodelElementInSubmodel(List<String> idShorts, Object newValue) {
+		modifySubmodelInDB(sm -> {
+			ISubmodelElement element = getNestedSubmodelElement(sm, idShorts);
+
+			ISubmodelElement updatedElement = createUpdatedSubmodelElement((Map<String, Object>) element, newValue);
 
-		IModelProvider mapProvider = new VABLambdaProvider((Map<String, Object>) element);
+			sm.addSubmodelElement(updatedElement);
+			return null;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private ISubmodelElement createUpdatedSubmodelElement(Map<String, Object> element, Object newValue) {
+		IModelProvider mapProvider = new VABLambdaProvider(element);
 		SubmodelElementProvider smeProvider = new SubmodelElementProvider(mapProvider);
 
 		smeProvider.setValue(Property.VALUE, newValue);
-		ISubmodelElement updatedElement = SubmodelElementFacadeFactory
-				.createSubmodelElement((Map<String, Object>) smeProvider.getValue(""));
+		return SubmodelElementFacadeFactory.createSubmodelElement((Map<String, Object>) smeProvider.getValue(""));
+	}
 
-		sm.addSubmodelElement(updatedElement);
+	private ISubmodelElement getSubmodelElementFromDB(List<String> idShorts) {
+		return SubmodelElementFacadeFactory.createSubmodelElement(getSubmodelElementMapFromDB(idShorts));
+	}
 
-		writeSubmodelInDB(sm);
+	/**
+	 * Loads only the addressed element of the submodel by using a projection on
+	 * its nested path. A buffered, not yet written element is returned directly.
+	 * 
+	 * @param idShorts
+	 * @return the raw element map as stored in the db
+	 */
+	private Map<String, Object> getSubmodelElementMapFromDB(List<String> idShorts) {
+		if (writeBuffer != null) {
+			String path = getElementPath(idShorts);
+			Map<String, Object> pending = writeBuffer.get(smId, path);
+			if (pending != null) {
+				return pending;
+			}
+			if (writeBuffer.hasOverlappingUpdates(smId, path)) {
+				flushPendingUpdates();
+			}
+		}
+
+		return resolveSubmodelElement(findSubmodelElementDocument(idShorts), idShorts);
+	}
+
+	/**
+	 * Loads the submodel document reduced to the addressed element and the
+	 * {@link #VERSION}
+	 */
+	private Document findSubmodelElementDocument(List<String> idShorts) {
+		Query hasId = query(where(SMIDPATH).is(smId));
+		hasId.fields().include(getElementPath(idShorts)).include(VERSION);
+		Document result = mongoOps.findOne(hasId, Document.class, collection);
+		if (result == null) {
+			throw new ResourceNotFoundException("The submodel " + smId + " could not be found in the database.");
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> resolveSubmodelElement(Document result, List<String> idShorts) {
+		Object elements = result.get(Submodel.SUBMODELELEMENT);
+		Map<String, Object> element = null;
+		for (String idShort : idShorts) {
+			if (element != null) {
+				elements = element.get(Property.VALUE);
+			}
+			if (!(elements instanceof Map<?, ?>) || !(((Map<String, Object>) elements).get(idShort) instanceof Map<?, ?>)) {
+				throw new ResourceNotFoundException(idShort + " in the nested submodel element path could not be resolved.");
+			}
+			element = (Map<String, Object>) ((Map<String, Object>) elements).get(idShort);
+		}
+		return element;
+	}
+
+	/**
+	 * Writes the buffered updates of this submodel, if write-behind is enabled
+	 */
+	private void flushPendingUpdates() {
+		if (writeBuffer != null) {
+			writeBuffer.flush(smId);
+		}
+	}
+
+	/**
+	 * Builds the MongoDB field path of a (nested) submodel element, e.g.
+	 * submodelElements.a.value.b
+	 */
+	private static String getElementPath(List<String> idShorts) {
+		return Submodel.SUBMODELELEMENT + "." + String.join("." + Property.VALUE + ".", idShorts);
+	}
+
+	/**
+	 * IdShorts containing characters with a special meaning in MongoDB field paths
+	 * can not be addressed directly
+	 */
+	private static boolean isPartialPathSupported(List<String> idShorts) {
+		return !idShorts.isEmpty() && idShorts.stream().allMatch(idShort -> !idShort.isEmpty() && !idShort.contains(".") && !idShort.startsWith("$"));
 	}
 
 	@Override
 	public void uploadSubmodelElementFile(String idShortPath, InputStream fileStream) {
 		String[] splitted = VABPathTools.splitPath(idShortPath);
 		List<String> idShorts = Arrays.asList(splitted);
-		Submodel sm = (Submodel) getSubmodel();
-		ISubmodelElement element = getNestedSubmodelElement(sm, idShorts);
+		ISubmodelElement element = getSubmodelElementWithoutConversion(idShorts);
 		String fileName = updateFileInDB(fileStream, element, idShortPath);
 		updateSubmodelElementInDB(idShorts, fileName);
 	}
 
-	@SuppressWarnings("unchecked")
-	private String updateFileInDB(InputStream newValue, ISubmodelElement element, String idShortPath) {
-		File file = File.createAsFacade((Map<String, Object>) element);
-		GridFSBucket bucket = getGridFSBucket();
-		String fileName = constructFileName(file, idShortPath);
-		deleteAllDuplicateFiles(bucket, fileName);
-		bucket.uploadFromStream(fileName, newValue);
-		return fileName;
+	/**
+	 * Links the File submodel element to an already stored file with the given
+	 * content hash, so that identical files do not have to be uploaded again
+	 * 
+	 * @param idShortPath
+	 * @param sha256
+	 *            Hex encoded SHA-256 hash of the file content
+	 * @return false, if no file with this content is stored yet
+	 */
+	public boolean linkSubmodelElementFile(String idShortPath, String sha256) {
+		List<String> idShorts = Arrays.asList(VABPathTools.splitPath(idShortPath));
+		String fileName = getFileName(getSubmodelElementWithoutConversion(idShorts), idShortPath);
+		if (!fileStore.storeExisting(fileName, sha256)) {
+			return false;
+		}
+		updateSubmodelElementInDB(idShorts, fileName);
+		return true;
 	}
 
-	private void deleteAllDuplicateFiles(GridFSBucket bucket, String fileName) {
-		bucket.find(Filters.eq("filename", fileName)).forEach(gridFile -> bucket.delete(gridFile.getObjectId()));
+	/**
+	 * Starts a resumable upload of the file of a File submodel element. The file
+	 * is then sent in chunks of at most {@link MongoDBFileStore#MAX_CHUNK_SIZE}
+	 * bytes and completed with
+	 * {@link #completeSubmodelElementFileUpload(String)}.
+	 * 
+	 * @param idShortPath
+	 * @return Id of the upload session
+	 */
+	public String startSubmodelElementFileUpload(String idShortPath) {
+		List<String> idShorts = Arrays.asList(VABPathTools.splitPath(idShortPath));
+		getFileName(getSubmodelElementWithoutConversion(idShorts), idShortPath);
+		return fileStore.startUploadSession(smId, idShortPath);
 	}
 
-	private GridFSBucket getGridFSBucket() {
-		MongoDatabase database = client.getDatabase(config.getDatabase());
-		GridFSBucket bucket = GridFSBuckets.create(database, config.getFileCollection());
-		return bucket;
+	/**
+	 * Returns the number of bytes received by the upload session, i.e. the offset
+	 * of the next chunk
+	 * 
+	 * @param sessionId
+	 * @return
+	 */
+	public long getSubmodelElementFileUploadOffset(String sessionId) {
+		return fileStore.getUploadOffset(smId, sessionId);
+	}
+
+	/**
+	 * Appends the next chunk of the file to the upload session
+	 * 
+	 * @param sessionId
+	 * @param offset
+	 *            Has to match the current upload offset
+	 * @param chunk
+	 * @return The new upload offset
+	 */
+	public long appendSubmodelElementFileChunk(String sessionId, long offset, InputStream chunk) {
+		return fileStore.appendChunk(smId, sessionId, offset, chunk);
+	}
+
+	/**
+	 * Stores the file received by the upload session for its File submodel
+	 * element and ends the session
+	 * 
+	 * @param sessionId
+	 */
+	public void completeSubmodelElementFileUpload(String sessionId) {
+		String idShortPath = fileStore.getUploadSessionPath(smId, sessionId);
+		try (InputStream content = fileStore.openUploadSession(smId, sessionId)) {
+			uploadSubmodelElementFile(idShortPath, content);
+		} catch (IOException e) {
+			throw new ProviderException(e);
+		}
+		fileStore.deleteUploadSession(smId, sessionId);
+	}
+
+	/**
+	 * Ends the upload session and drops the chunks received so far
+	 * 
+	 * @param sessionId
+	 */
+	public void abortSubmodelElementFileUpload(String sessionId) {
+		fileStore.deleteUploadSession(smId, sessionId);
+	}
+
+	private String updateFileInDB(InputStream newValue, ISubmodelElement element, String idShortPath) {
+		String fileName = getFileName(element, idShortPath);
+		fileStore.store(fileName, newValue);
+		return fileName;
+	}
+
+	@SuppressWarnings("unchecked")
+	private String getFileName(ISubmodelElement element, String idShortPath) {
+		Map<String, Object> elementMap = (Map<String, Object>) element;
+		if (!File.isFile(elementMap)) {
+			throw new MalformedRequestException("The Submodel Element " + idShortPath + " is not a File");
+		}
+		return constructFileName(File.createAsFacade(elementMap), idShortPath);
 	}
 
 	private Object getTopLevelSubmodelElementValue(String idShort) {
-		Submodel sm = (Submodel) getSubmodel();
-		return getElementProvider(sm, idShort).getValue("/value");
+		return getElementProvider(getSubmodelElementWithoutConversion(Collections.singletonList(idShort))).getValue("/value");
 	}
 
 	@SuppressWarnings("unchecked")
@@ -413,8 +705,7 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	}
 
 	@SuppressWarnings("unchecked")
-	private static SubmodelElementProvider getElementProvider(Submodel sm, String idShort) {
-		ISubmodelElement elem = sm.getSubmodelElement(idShort);
+	private static SubmodelElementProvider getElementProvider(ISubmodelElement elem) {
 		IModelProvider mapProvider = new VABMapProvider((Map<String, Object>) elem);
 		return new SubmodelElementProvider(mapProvider);
 	}
@@ -441,10 +732,22 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	}
 
 	private ISubmodelElement getNestedSubmodelElement(List<String> idShorts) {
+		return convertSubmodelElement(getSubmodelElementWithoutConversion(idShorts));
+	}
+
+	/**
+	 * Returns the addressed element as facade without converting it to its VAB
+	 * representation. If possible, only the element itself is fetched from the db.
+	 */
+	private ISubmodelElement getSubmodelElementWithoutConversion(List<String> idShorts) {
+		if (isPartialPathSupported(idShorts)) {
+			return getSubmodelElementFromDB(idShorts);
+		}
+
 		// Get sm from db
 		Submodel sm = (Submodel) getSubmodel();
 		// Get nested sm element from this sm
-		return convertSubmodelElement(getNestedSubmodelElement(sm, idShorts));
+		return getNestedSubmodelElement(sm, idShorts);
 	}
 
 	private void deleteNestedSubmodelElement(List<String> idShorts) {
@@ -453,26 +756,20 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 			return;
 		}
 
-		// Get sm from db
-		Submodel sm = (Submodel) getSubmodel();
-		// Get parent collection
-		List<String> parentIds = idShorts.subList(0, idShorts.size() - 1);
-		ISubmodelElement parentElement = getNestedSubmodelElement(sm, parentIds);
-		// Remove element
-		SubmodelElementCollection coll = (SubmodelElementCollection) parentElement;
-		coll.deleteSubmodelElement(idShorts.get(idShorts.size() - 1));
-		writeSubmodelInDB(sm);
-	}
-
-	private Object invokeNestedOperationAsync(List<String> idShorts, Object... params) {
-		// not possible to invoke operations on a submodel that is stored in a db
-		throw new MalformedRequestException("Invoke not supported by this backend");
+		modifySubmodelInDB(sm -> {
+			// Get parent collection
+			List<String> parentIds = idShorts.subList(0, idShorts.size() - 1);
+			ISubmodelElement parentElement = getNestedSubmodelElement(sm, parentIds);
+			// Remove element
+			SubmodelElementCollection coll = (SubmodelElementCollection) parentElement;
+			coll.deleteSubmodelElement(idShorts.get(idShorts.size() - 1));
+			return null;
+		});
 	}
 
 	@Override
 	public Object getOperationResult(String idShort, String requestId) {
-		// not possible to invoke operations on a submodel that is stored in a db
-		throw new MalformedRequestException("Invoke not supported by this backend");
+		return getAsyncOperationHandler().getResult(smId, idShort, requestId);
 	}
 
 	@Override
@@ -505,14 +802,62 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 	}
 
 	/**
-	 * Returns the updated Submodel or null if not found
+	 * Applies the modification to the current submodel and writes it back. If the
+	 * submodel has been written concurrently in the meantime, the modification is
+	 * applied again to the new state.
+	 * 
+	 * @param modification
+	 * @return The result of the successful modification
+	 */
+	private <T> T modifySubmodelInDB(Function<Submodel, T> modification) {
+		for (int attempt = 1;; attempt++) {
+			Submodel sm = loadSubmodel();
+			Object version = sm.remove(VERSION);
+			T result = modification.apply(sm);
+			if (writeSubmodelInDB(sm, version)) {
+				return result;
+			}
+			backOff(attempt);
+		}
+	}
+
+	/**
+	 * Replaces the submodel, if its version still matches the expected version.
+	 * Documents without a version match a null version.
 	 * 
 	 * @param sm
-	 * @return
+	 * @param expectedVersion
+	 * @return false, if the submodel has been written concurrently or does not
+	 *         exist
 	 */
-	private Submodel writeSubmodelInDB(Submodel sm) {
-		Query hasId = query(where(SMIDPATH).is(smId));
-		return mongoOps.findAndReplace(hasId, sm, collection);
+	private boolean writeSubmodelInDB(Submodel sm, Object expectedVersion) {
+		long nextVersion = expectedVersion instanceof Number ? ((Number) expectedVersion).longValue() + 1 : 1;
+		Query hasVersion = query(where(SMIDPATH).is(smId).and(VERSION).is(expectedVersion));
+		sm.put(VERSION, nextVersion);
+		try {
+			return mongoOps.findAndReplace(hasVersion, sm, collection) != null;
+		} finally {
+			sm.remove(VERSION);
+		}
+	}
+
+	/**
+	 * Waits a random time growing with the number of failed attempts, so that
+	 * concurrent writers do not collide again
+	 * 
+	 * @param attempt
+	 *            Number of failed attempts
+	 */
+	private void backOff(int attempt) {
+		if (attempt >= MAX_WRITE_ATTEMPTS) {
+			throw new ProviderException("The submodel " + smId + " could not be written due to too many concurrent writes.");
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextInt(attempt + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProviderException(e);
+		}
 	}
 
 	@Override
@@ -526,22 +871,31 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public Object invokeOperation(String idShortPath, Object... params) {
-		Operation operation = (Operation) SubmodelElementFacadeFactory
-				.createSubmodelElement((Map<String, Object>) getSubmodelElement(idShortPath));
-		if (!DelegatedInvocationManager.isDelegatingOperation(operation)) {
-			throw new MalformedRequestException("This backend supports only delegating operations.");
-		}
+		Operation operation = getDelegatingOperation(idShortPath);
 		return invocationHelper.invokeDelegatedOperation(operation, params);
 	}
 
+	/**
+	 * Invokes a delegating operation in the background. The result can be
+	 * retrieved with the returned request id by
+	 * {@link #getOperationResult(String, String)} until it expires.
+	 */
 	@Override
 	public Object invokeAsync(String idShortPath, Object... params) {
-		String[] splitted = VABPathTools.splitPath(idShortPath);
-		List<String> idShorts = Arrays.asList(splitted);
-		return invokeNestedOperationAsync(idShorts, params);
+		Operation operation = getDelegatingOperation(idShortPath);
+		return getAsyncOperationHandler().invokeAsync(smId, idShortPath, () -> invocationHelper.invokeDelegatedOperation(operation, params));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Operation getDelegatingOperation(String idShortPath) {
+		Operation operation = (Operation) SubmodelElementFacadeFactory
+				.createSubmodelElement((Map<String, Object>) getSubmodelElement(idShortPath));
+		if (!DelegatedInvocationManager.isDelegatingOperation(operation)) {
+			throw new MalformedRequestException("This backend supports only delegating operations.");
+		}
+		return operation;
 	}
 
 	@Override
@@ -551,30 +905,43 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 		addNestedSubmodelElement(idShorts, elem);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public java.io.File getSubmodelElementFile(String idShortPath) {
-		try {
-			Map<String, Object> submodelElement = (Map<String, Object>) getSubmodelElement(idShortPath);
-			File fileSubmodelElement = File.createAsFacade(submodelElement);
-			GridFSBucket bucket = getGridFSBucket();
-			String fileName = constructFileName(fileSubmodelElement, idShortPath);
-			java.io.File file = new java.io.File(fileName);
-			FileOutputStream fileOutputStream;
-			fileOutputStream = new FileOutputStream(file);
-			bucket.downloadToStream(fileName, fileOutputStream);
+		try (SubmodelElementFileStream fileStream = openSubmodelElementFile(idShortPath)) {
+			java.io.File file = new java.io.File(fileStream.getFileName());
+			Files.copy(fileStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
 			return file;
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
+			throw new ProviderException(e);
+		}
+	}
+
+	/**
+	 * Opens the stored file of a File submodel element for reading without
+	 * copying it to the local file system. The caller has to close the returned
+	 * stream.
+	 * 
+	 * @param idShortPath
+	 * @return Stream of the file content
+	 */
+	public SubmodelElementFileStream openSubmodelElementFile(String idShortPath) {
+		String fileName = getFileName(getSubmodelElement(idShortPath), idShortPath);
+		try {
+			return fileStore.open(fileName);
+		} catch (MongoGridFSException e) {
 			throw new ResourceNotFoundException("The File Submodel Element does not contain a File");
 		}
 	}
 
 	private String constructFileName(File file, String idShortPath) {
-		Submodel sm = (Submodel) getSubmodel();
-		return sm.getIdentification().getId() + "-" + idShortPath.replaceAll("/", "-") + getFileExtension(file);
+		return constructFileName(smId, file, idShortPath);
 	}
 
-	private String getFileExtension(File file) {
+	private static String constructFileName(String smId, File file, String idShortPath) {
+		return smId + "-" + idShortPath.replaceAll("/", "-") + getFileExtension(file);
+	}
+
+	private static String getFileExtension(File file) {
 		MimeTypes allTypes = MimeTypes.getDefaultMimeTypes();
 		try {
 			MimeType mimeType = allTypes.forName(file.getMimeType());
@@ -584,4 +951,13 @@ public class MongoDBSubmodelAPI implements ISubmodelAPI {
 			return "";
 		}
 	}
+
+	/**
+	 * The handler is only created on the first asynchronous invocation, since its
+	 * executor and TTL index are not needed by submodels without delegated
+	 * operations
+	 */
+	private MongoDBAsyncOperationHandler getAsyncOperationHandler() {
+		return templatePool.getAsyncOperationHandler(config);
+	}
 }
@@ -30,7 +30,6 @@ import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
 import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * 
@@ -42,22 +41,30 @@ import com.mongodb.client.MongoClients;
 public class MongoDBSubmodelAPIFactory implements ISubmodelAPIFactory {
 
 	private BaSyxMongoDBConfiguration config;
-	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
 
 	@Deprecated
 	public MongoDBSubmodelAPIFactory(BaSyxMongoDBConfiguration config) {
-		this(config, MongoClients.create(config.getConnectionUrl()));
+		this(config, MongoDBTemplatePool.getShared(config));
 	}
 
 	public MongoDBSubmodelAPIFactory(BaSyxMongoDBConfiguration config, MongoClient client) {
+		this(config, MongoDBTemplatePool.getShared(client));
+	}
+
+	public MongoDBSubmodelAPIFactory(BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
 		this.config = config;
-		this.client = client;
+		this.templatePool = templatePool;
 	}
 
 	@Override
 	public ISubmodelAPI getSubmodelAPI(Submodel submodel) {
-		MongoDBSubmodelAPI api = new MongoDBSubmodelAPI(config, submodel.getIdentification().getId(), client);
-		api.setSubmodel(submodel);
+		MongoDBSubmodelAPI api = new MongoDBSubmodelAPI(config, submodel.getIdentification().getId(), templatePool);
+		// A submodel read from the collection still has its MongoDB _id and is
+		// already stored
+		if (!submodel.containsKey("_id")) {
+			api.setSubmodel(submodel);
+		}
 		return api;
 	}
 
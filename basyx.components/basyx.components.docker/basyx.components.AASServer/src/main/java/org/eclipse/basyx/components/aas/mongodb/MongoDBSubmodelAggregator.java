@@ -28,17 +28,27 @@ package org.eclipse.basyx.components.aas.mongodb;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.aggregator.SubmodelAggregator;
 import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.qualifier.Referable;
 import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.springframework.data.mongodb.core.query.Query;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * Extends the {@link SubmodelAggregator} for the needs of MongoDB
@@ -48,20 +58,55 @@ import com.mongodb.client.MongoClients;
  */
 public class MongoDBSubmodelAggregator extends SubmodelAggregator {
 
+	private BaSyxMongoDBConfiguration config;
+	private String database;
 	private String smCollection;
 	private MongoTemplate mongoOps;
+	private MongoDBTemplatePool templatePool;
+	private MongoDBSubmodelWriteBuffer writeBuffer;
 
 	@Deprecated
 	public MongoDBSubmodelAggregator(ISubmodelAPIFactory smApiFactory, BaSyxMongoDBConfiguration config) {
-		this(smApiFactory, config, MongoClients.create(config.getConnectionUrl()));
+		this(smApiFactory, config, MongoDBTemplatePool.getShared(config));
 	}
 
 	public MongoDBSubmodelAggregator(ISubmodelAPIFactory smApiFactory, BaSyxMongoDBConfiguration config, MongoClient client) {
+		this(smApiFactory, config, MongoDBTemplatePool.getShared(client));
+	}
+
+	public MongoDBSubmodelAggregator(ISubmodelAPIFactory smApiFactory, BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
 		super(smApiFactory);
 
+		this.config = config;
+		database = config.getDatabase();
 		smCollection = config.getSubmodelCollection();
 
-		mongoOps = new MongoTemplate(client, config.getDatabase());
+		this.templatePool = templatePool;
+		mongoOps = templatePool.getTemplate(database);
+		if (config.isWriteBehindEnabled()) {
+			writeBuffer = templatePool.getSubmodelWriteBuffer(config);
+		}
+		if (config.isIndexCreationEnabled()) {
+			templatePool.ensureIndexes(database, smCollection, getSubmodelIndexes());
+		}
+	}
+
+	/**
+	 * Returns the indexes for the lookups of submodels by id and by idShort
+	 * 
+	 * @return
+	 */
+	public static List<IndexDefinition> getSubmodelIndexes() {
+		return Arrays.asList(new Index().on(MongoDBSubmodelAPI.SMIDPATH, Direction.ASC).unique(), new Index().on(Referable.IDSHORT, Direction.ASC).on(MongoDBSubmodelAPI.SMIDPATH, Direction.ASC));
+	}
+
+	/**
+	 * Returns the indexes that currently exist on the submodel collection
+	 * 
+	 * @return
+	 */
+	public List<IndexInfo> getIndexInfo() {
+		return templatePool.getIndexInfo(database, smCollection);
 	}
 
 	@Override
@@ -83,6 +128,30 @@ public class MongoDBSubmodelAggregator extends SubmodelAggregator {
 
 	private void deleteSubmodelFromDB(IIdentifier identifier) {
 		Query hasId = query(where(MongoDBSubmodelAPI.SMIDPATH).is(identifier.getId()));
-		mongoOps.remove(hasId, smCollection);
+		hasId.fields().include(Submodel.SUBMODELELEMENT);
+		Document removed = mongoOps.findAndRemove(hasId, Document.class, smCollection);
+		if (writeBuffer != null) {
+			writeBuffer.discard(identifier.getId());
+		}
+		if (removed != null) {
+			deleteFiles(identifier.getId(), removed);
+		}
+	}
+
+	/**
+	 * Releases the files of the File submodel elements of the deleted submodel,
+	 * so that content no other file links to is removed
+	 */
+	@SuppressWarnings("unchecked")
+	private void deleteFiles(String smId, Document removed) {
+		Object elements = removed.get(Submodel.SUBMODELELEMENT);
+		if (!(elements instanceof Map<?, ?>)) {
+			return;
+		}
+		List<String> fileNames = MongoDBSubmodelAPI.getFileNames(smId, (Map<String, Object>) elements);
+		if (!fileNames.isEmpty()) {
+			MongoDBFileStore fileStore = templatePool.getFileStore(config);
+			fileNames.forEach(fileStore::delete);
+		}
 	}
 }
@@ -32,7 +32,6 @@ import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
 import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 
 /**
  * Factory for creating a {@link MongoDBSubmodelAggregator}
@@ -44,22 +43,26 @@ public class MongoDBSubmodelAggregatorFactory implements ISubmodelAggregatorFact
 
 	private BaSyxMongoDBConfiguration config;
 	private ISubmodelAPIFactory submodelAPIFactory;
-	private MongoClient client;
+	private MongoDBTemplatePool templatePool;
 
 	@Deprecated
 	public MongoDBSubmodelAggregatorFactory(BaSyxMongoDBConfiguration config, ISubmodelAPIFactory submodelAPIFactory) {
-		this(config, submodelAPIFactory, MongoClients.create(config.getConnectionUrl()));
+		this(config, submodelAPIFactory, MongoDBTemplatePool.getShared(config));
 	}
 
 	public MongoDBSubmodelAggregatorFactory(BaSyxMongoDBConfiguration config, ISubmodelAPIFactory submodelAPIFactory, MongoClient client) {
+		this(config, submodelAPIFactory, MongoDBTemplatePool.getShared(client));
+	}
+
+	public MongoDBSubmodelAggregatorFactory(BaSyxMongoDBConfiguration config, ISubmodelAPIFactory submodelAPIFactory, MongoDBTemplatePool templatePool) {
 		this.config = config;
-		this.client = client;
+		this.templatePool = templatePool;
 		this.submodelAPIFactory = submodelAPIFactory;
 	}
 
 	@Override
 	public ISubmodelAggregator create() {
-		return new MongoDBSubmodelAggregator(submodelAPIFactory, config, client);
+		return new MongoDBSubmodelAggregator(submodelAPIFactory, config, templatePool);
 	}
 
 	@Override
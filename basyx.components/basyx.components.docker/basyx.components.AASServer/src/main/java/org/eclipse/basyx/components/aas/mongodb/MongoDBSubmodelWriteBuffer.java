@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.mongodb;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Write-behind buffer for submodel element value updates of a submodel
+ * collection. Updates are collected per submodel and element path, so that
+ * only the latest value of an element is written. Pending updates are written
+ * as one bulk write per submodel when the flush interval elapses or the maximum
+ * number of pending updates is reached.
+ * 
+ * While an update is pending or being written, the buffered element is returned
+ * instead of the element in the database. Writes of the same submodel are
+ * serialized, so that a newer update can not be overtaken by an older one.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBSubmodelWriteBuffer {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBSubmodelWriteBuffer.class);
+
+	private static final ScheduledExecutorService FLUSH_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "MongoDBSubmodelWriteBuffer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final MongoOperations mongoOps;
+	private final String collection;
+	private final int maxPendingUpdates;
+
+	private static final int FLUSH_LOCK_STRIPES = 64;
+
+	// Submodel id => element path => updated element, in the order of the updates
+	private final Map<String, Map<String, Object>> pendingUpdates = new ConcurrentHashMap<>();
+	// Updates that have been taken from the pending updates and are being written
+	private final Map<String, Map<String, Object>> writingUpdates = new ConcurrentHashMap<>();
+	private final Object[] flushLocks = new Object[FLUSH_LOCK_STRIPES];
+	private final AtomicInteger pendingCount = new AtomicInteger();
+	private final ScheduledFuture<?> scheduledFlush;
+
+	public MongoDBSubmodelWriteBuffer(MongoOperations mongoOps, String collection, long flushIntervalMillis, int maxPendingUpdates) {
+		this.mongoOps = mongoOps;
+		this.collection = collection;
+		this.maxPendingUpdates = maxPendingUpdates;
+		for (int i = 0; i < flushLocks.length; i++) {
+			flushLocks[i] = new Object();
+		}
+		this.scheduledFlush = FLUSH_SCHEDULER.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Buffers the updated element at the given MongoDB field path of the submodel,
+	 * e.g. submodelElements.a.value.b. Pending updates of nested elements are
+	 * dropped, since they are overwritten by this update.
+	 */
+	public void put(String smId, String elementPath, Object element) {
+		pendingUpdates.compute(smId, (id, updates) -> {
+			if (updates == null) {
+				updates = Collections.synchronizedMap(new LinkedHashMap<>());
+			}
+			pendingCount.addAndGet(putUpdate(updates, elementPath, element));
+			return updates;
+		});
+
+		if (pendingCount.get() >= maxPendingUpdates) {
+			flush();
+		}
+	}
+
+	/**
+	 * Returns a copy of the pending element at the exact path or null, if there is
+	 * no pending update for it
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> get(String smId, String elementPath) {
+		Object element = getUpdatedElement(pendingUpdates.get(smId), elementPath);
+		if (element == null) {
+			element = getUpdatedElement(writingUpdates.get(smId), elementPath);
+		}
+		if (!(element instanceof Map<?, ?>)) {
+			return null;
+		}
+		return new HashMap<>((Map<String, Object>) element);
+	}
+
+	/**
+	 * Checks if there is a pending update of a parent or child of the element at
+	 * the given path. In this case, the element in the database is outdated.
+	 */
+	public boolean hasOverlappingUpdates(String smId, String elementPath) {
+		return hasOverlappingUpdates(pendingUpdates.get(smId), elementPath) || hasOverlappingUpdates(writingUpdates.get(smId), elementPath);
+	}
+
+	/**
+	 * Writes the pending updates of a single submodel. The updates stay readable
+	 * until they have been written. If the write fails, they are pending again.
+	 */
+	public void flush(String smId) {
+		synchronized (getFlushLock(smId)) {
+			// Moved atomically, so that no concurrent update is lost and reads always find
+			// the updates. Only the move happens inside the map, the write does not.
+			pendingUpdates.computeIfPresent(smId, (id, pending) -> {
+				writingUpdates.put(id, pending);
+				return null;
+			});
+			Map<String, Object> updates = writingUpdates.get(smId);
+			if (updates == null) {
+				return;
+			}
+			pendingCount.addAndGet(-updates.size());
+			try {
+				write(smId, updates);
+			} catch (RuntimeException e) {
+				restore(smId, updates);
+				throw e;
+			} finally {
+				writingUpdates.remove(smId);
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending updates
+	 */
+	public void flush() {
+		for (String smId : pendingUpdates.keySet()) {
+			flush(smId);
+		}
+	}
+
+	/**
+	 * Drops the pending updates of a submodel, e.g. because it has been deleted.
+	 * Waits for a running write of the submodel, so that failed updates are not
+	 * restored afterwards.
+	 */
+	public void discard(String smId) {
+		synchronized (getFlushLock(smId)) {
+			Map<String, Object> updates = pendingUpdates.remove(smId);
+			if (updates != null) {
+				pendingCount.addAndGet(-updates.size());
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending updates and stops the periodic flush
+	 */
+	public void close() {
+		scheduledFlush.cancel(false);
+		flush();
+	}
+
+	private void write(String smId, Map<String, Object> updates) {
+		// Ordered, since an update of a collection and of its elements may both be
+		// pending
+		BulkOperations bulk = mongoOps.bulkOps(BulkMode.ORDERED, collection);
+		Query hasId = query(where(MongoDBSubmodelAPI.SMIDPATH).is(smId));
+		int count;
+		synchronized (updates) {
+			for (Entry<String, Object> update : updates.entrySet()) {
+				bulk.updateOne(hasId, Update.update(update.getKey(), update.getValue()).inc(MongoDBSubmodelAPI.VERSION, 1));
+			}
+			count = updates.size();
+		}
+		BulkWriteResult result = bulk.execute();
+		if (result.getMatchedCount() < count) {
+			logger.warn("Submodel " + smId + " does not exist anymore, dropped " + (count - result.getMatchedCount()) + " buffered updates");
+		}
+	}
+
+	/**
+	 * Makes updates that could not be written pending again. Updates that have
+	 * been buffered in the meantime take precedence.
+	 */
+	private void restore(String smId, Map<String, Object> failed) {
+		pendingUpdates.compute(smId, (id, newer) -> {
+			Map<String, Object> merged = Collections.synchronizedMap(new LinkedHashMap<>());
+			synchronized (failed) {
+				merged.putAll(failed);
+			}
+			int sizeBefore = 0;
+			if (newer != null) {
+				synchronized (newer) {
+					sizeBefore = newer.size();
+					newer.forEach((path, element) -> putUpdate(merged, path, element));
+				}
+			}
+			pendingCount.addAndGet(merged.size() - sizeBefore);
+			return merged;
+		});
+	}
+
+	/**
+	 * Puts the update into the given updates and returns the change of their size
+	 */
+	private static int putUpdate(Map<String, Object> updates, String elementPath, Object element) {
+		synchronized (updates) {
+			int sizeBefore = updates.size();
+			updates.keySet().removeIf(path -> path.startsWith(elementPath + "."));
+			// Re-insert to keep the update order
+			updates.remove(elementPath);
+			updates.put(elementPath, element);
+			return updates.size() - sizeBefore;
+		}
+	}
+
+	private static Object getUpdatedElement(Map<String, Object> updates, String elementPath) {
+		return updates == null ? null : updates.get(elementPath);
+	}
+
+	private static boolean hasOverlappingUpdates(Map<String, Object> updates, String elementPath) {
+		if (updates == null) {
+			return false;
+		}
+		synchronized (updates) {
+			return updates.keySet().stream().anyMatch(path -> path.startsWith(elementPath + ".") || elementPath.startsWith(path + "."));
+		}
+	}
+
+	private Object getFlushLock(String smId) {
+		return flushLocks[Math.floorMod(smId.hashCode(), flushLocks.length)];
+	}
+
+	private void flushSafely() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			logger.error("Could not write buffered submodel updates", e);
+		}
+	}
+}
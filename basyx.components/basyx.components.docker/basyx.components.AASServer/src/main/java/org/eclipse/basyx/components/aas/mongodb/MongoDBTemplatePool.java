@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.mongodb;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+
+/**
+ * Thread-safe pool of {@link MongoTemplate}s and {@link GridFSBucket}s for a
+ * single {@link MongoClient}. Templates are created once per database and
+ * buckets once per database and bucket name. They are shared by all MongoDB
+ * APIs and aggregators that are created with the same pool.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBTemplatePool {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBTemplatePool.class);
+
+	// Pools of the APIs and aggregators that are only given a client or a
+	// configuration, so that they do not each start their own write buffers
+	private static final Map<MongoClient, MongoDBTemplatePool> SHARED_POOLS = new ConcurrentHashMap<>();
+	private static final Map<String, MongoDBTemplatePool> SHARED_CONNECTION_POOLS = new ConcurrentHashMap<>();
+
+	private final MongoClient client;
+	private final Map<String, MongoTemplate> templates = new ConcurrentHashMap<>();
+	private final Map<String, GridFSBucket> buckets = new ConcurrentHashMap<>();
+	private final Map<String, MongoDBFileStore> fileStores = new ConcurrentHashMap<>();
+	private final Map<String, MongoDBSubmodelWriteBuffer> writeBuffers = new ConcurrentHashMap<>();
+	private final Map<String, MongoDBChangeStreamListener> changeStreamListeners = new ConcurrentHashMap<>();
+	private final Map<String, MongoDBAsyncOperationHandler> asyncOperationHandlers = new ConcurrentHashMap<>();
+	private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+	// Everything of a server uses the same pool, so this identifies its writes
+	private final String writerId = UUID.randomUUID().toString();
+
+	public MongoDBTemplatePool(MongoClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Creates a pool with a new client for the configured connection. Connection
+	 * pool settings of the configuration take precedence over the connection
+	 * string.
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public static MongoDBTemplatePool create(BaSyxMongoDBConfiguration config) {
+		return new MongoDBTemplatePool(createClient(config));
+	}
+
+	/**
+	 * Returns the pool that is shared by everything created with the given client.
+	 * The pool is created on first access.
+	 * 
+	 * @param client
+	 * @return
+	 */
+	public static MongoDBTemplatePool getShared(MongoClient client) {
+		return SHARED_POOLS.computeIfAbsent(client, MongoDBTemplatePool::new);
+	}
+
+	/**
+	 * Returns the pool that is shared by everything created with a configuration
+	 * of the same connection url. The pool and its client are created on first
+	 * access and are also shared by everything created with that client.
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public static MongoDBTemplatePool getShared(BaSyxMongoDBConfiguration config) {
+		return SHARED_CONNECTION_POOLS.computeIfAbsent(config.getConnectionUrl(), url -> getShared(createClient(config)));
+	}
+
+	private static MongoClient createClient(BaSyxMongoDBConfiguration config) {
+		Integer maxSize = config.getConnectionPoolMaxSize();
+		Long maxWaitTime = config.getConnectionPoolMaxWaitTime();
+		MongoClientSettings settings = MongoClientSettings.builder().applyConnectionString(new ConnectionString(config.getConnectionUrl())).applyToConnectionPoolSettings(pool -> {
+			if (maxSize != null) {
+				pool.maxSize(maxSize);
+			}
+			if (maxWaitTime != null) {
+				pool.maxWaitTime(maxWaitTime, TimeUnit.MILLISECONDS);
+			}
+		}).build();
+		return MongoClients.create(settings);
+	}
+
+	public MongoClient getClient() {
+		return client;
+	}
+
+	/**
+	 * Returns the id that is stored with the AAS written through this pool, so
+	 * that the change streams of this pool can skip these writes
+	 * 
+	 * @return
+	 */
+	public String getWriterId() {
+		return writerId;
+	}
+
+	/**
+	 * Returns the shared template for the given database
+	 * 
+	 * @param database
+	 * @return
+	 */
+	public MongoTemplate getTemplate(String database) {
+		return templates.computeIfAbsent(database, db -> new MongoTemplate(client, db));
+	}
+
+	/**
+	 * Returns the shared GridFS bucket with the given name in the given database
+	 * 
+	 * @param database
+	 * @param bucketName
+	 * @return
+	 */
+	public GridFSBucket getGridFSBucket(String database, String bucketName) {
+		// Database names can not contain dots
+		return buckets.computeIfAbsent(database + "." + bucketName, key -> GridFSBuckets.create(client.getDatabase(database), bucketName));
+	}
+
+	/**
+	 * Creates the given indexes on the collection, if this has not been done by
+	 * this pool before. Indexes that already exist are left untouched. Failures,
+	 * e.g. because existing documents violate a unique index, are logged and do
+	 * not prevent the startup.
+	 * 
+	 * @param database
+	 * @param collection
+	 * @param indexes
+	 */
+	public void ensureIndexes(String database, String collection, List<IndexDefinition> indexes) {
+		if (!indexedCollections.add(database + "." + collection)) {
+			return;
+		}
+
+		IndexOperations indexOps = getTemplate(database).indexOps(collection);
+		for (IndexDefinition index : indexes) {
+			try {
+				indexOps.ensureIndex(index);
+			} catch (DataAccessException e) {
+				logger.warn("Could not create index " + index.getIndexKeys().toJson() + " on collection " + collection + ": " + e.getMessage());
+			}
+		}
+		logger.info("Indexes of collection " + collection + ": " + getIndexInfo(database, collection));
+	}
+
+	/**
+	 * Returns the indexes that currently exist on the collection
+	 * 
+	 * @param database
+	 * @param collection
+	 * @return
+	 */
+	public List<IndexInfo> getIndexInfo(String database, String collection) {
+		return getTemplate(database).indexOps(collection).getIndexInfo();
+	}
+
+	/**
+	 * Has to be called after a collection has been dropped, so that its indexes
+	 * are created again by the next call to
+	 * {@link #ensureIndexes(String, String, List)}
+	 * 
+	 * @param database
+	 * @param collection
+	 */
+	public void forgetIndexes(String database, String collection) {
+		indexedCollections.remove(database + "." + collection);
+	}
+
+	/**
+	 * Returns the shared content-addressed file store on top of the GridFS bucket
+	 * of the file collection of the given configuration. Its unique content hash
+	 * and TTL indexes are always created, since deduplication and the removal of
+	 * abandoned uploads depend on them.
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public MongoDBFileStore getFileStore(BaSyxMongoDBConfiguration config) {
+		String database = config.getDatabase();
+		String bucketName = config.getFileCollection();
+		return fileStores.computeIfAbsent(database + "." + bucketName, key -> {
+			ensureIndexes(database, MongoDBFileStore.getFilesCollection(bucketName), MongoDBFileStore.getFileIndexes());
+			ensureIndexes(database, MongoDBFileStore.getSessionCollection(bucketName), MongoDBFileStore.getUploadIndexes());
+			ensureIndexes(database, MongoDBFileStore.getSessionChunkCollection(bucketName), MongoDBFileStore.getUploadIndexes());
+			return new MongoDBFileStore(client.getDatabase(database), getGridFSBucket(database, bucketName), config.getUploadSessionTTL());
+		});
+	}
+
+	/**
+	 * Returns the shared write-behind buffer for the submodel collection of the
+	 * given configuration
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public MongoDBSubmodelWriteBuffer getSubmodelWriteBuffer(BaSyxMongoDBConfiguration config) {
+		return writeBuffers.computeIfAbsent(config.getDatabase() + "." + config.getSubmodelCollection(),
+				key -> new MongoDBSubmodelWriteBuffer(getTemplate(config.getDatabase()), config.getSubmodelCollection(), config.getWriteBehindInterval(), config.getWriteBehindMaxPending()));
+	}
+
+	/**
+	 * Writes all buffered submodel updates and stops their periodic flush
+	 */
+	public void closeWriteBuffers() {
+		writeBuffers.values().forEach(MongoDBSubmodelWriteBuffer::close);
+		writeBuffers.clear();
+	}
+
+	/**
+	 * Returns the shared change stream listener for the AAS and submodel
+	 * collections of the given configuration. It is started on first access.
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public MongoDBChangeStreamListener getChangeStreamListener(BaSyxMongoDBConfiguration config) {
+		return changeStreamListeners.computeIfAbsent(config.getDatabase() + "." + config.getAASCollection() + "." + config.getSubmodelCollection(), key -> {
+			MongoDBChangeStreamListener listener = new MongoDBChangeStreamListener(client.getDatabase(config.getDatabase()), config.getAASCollection(), config.getSubmodelCollection(), writerId);
+			listener.start();
+			return listener;
+		});
+	}
+
+	/**
+	 * Stops watching the collections for changes
+	 */
+	public void closeChangeStreamListeners() {
+		changeStreamListeners.values().forEach(MongoDBChangeStreamListener::close);
+		changeStreamListeners.clear();
+	}
+
+	/**
+	 * Returns the shared handler for asynchronous operation invocations that
+	 * stores the results in the operation result collection of the given
+	 * configuration. Its TTL index is always created, since expired results are
+	 * removed by it.
+	 * 
+	 * @param config
+	 * @return
+	 */
+	public MongoDBAsyncOperationHandler getAsyncOperationHandler(BaSyxMongoDBConfiguration config) {
+		return asyncOperationHandlers.computeIfAbsent(config.getDatabase() + "." + config.getOperationResultCollection(), key -> {
+			ensureIndexes(config.getDatabase(), config.getOperationResultCollection(), MongoDBAsyncOperationHandler.getIndexes());
+			return new MongoDBAsyncOperationHandler(getTemplate(config.getDatabase()), config.getOperationResultCollection(), config.getAsyncInvocationThreads(), config.getAsyncInvocationQueueSize(),
+					config.getOperationResultTTL());
+		});
+	}
+
+	/**
+	 * Stops accepting asynchronous operation invocations
+	 */
+	public void closeAsyncOperationHandlers() {
+		asyncOperationHandlers.values().forEach(MongoDBAsyncOperationHandler::close);
+		asyncOperationHandlers.clear();
+	}
+
+	/**
+	 * Stops the write buffers, change stream listeners and asynchronous operation
+	 * handlers of this pool and removes it from the shared pools. The client is
+	 * not closed, since others may still use it.
+	 */
+	public void close() {
+		closeWriteBuffers();
+		closeChangeStreamListeners();
+		closeAsyncOperationHandlers();
+		SHARED_POOLS.remove(client, this);
+		SHARED_CONNECTION_POOLS.values().remove(this);
+	}
+}
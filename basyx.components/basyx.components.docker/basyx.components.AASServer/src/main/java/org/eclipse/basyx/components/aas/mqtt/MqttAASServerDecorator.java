@@ -27,6 +27,7 @@ package org.eclipse.basyx.components.aas.mqtt;
 import org.eclipse.basyx.aas.aggregator.api.IAASAggregatorFactory;
 import org.eclipse.basyx.aas.restapi.api.IAASAPIFactory;
 import org.eclipse.basyx.components.aas.aascomponent.IAASServerDecorator;
+import org.eclipse.basyx.components.aas.aggregator.ReadForwardingAASAggregatorFactory;
 import org.eclipse.basyx.extensions.aas.aggregator.mqtt.MqttDecoratingAASAggregatorFactory;
 import org.eclipse.basyx.extensions.aas.api.mqtt.MqttDecoratingAASAPIFactory;
 import org.eclipse.basyx.extensions.submodel.aggregator.mqtt.MqttDecoratingSubmodelAggregatorFactory;
@@ -67,7 +68,9 @@ public class MqttAASServerDecorator implements IAASServerDecorator {
 
 	@Override
 	public IAASAggregatorFactory decorateAASAggregatorFactory(IAASAggregatorFactory aasAggregatorFactory) {
-		return new MqttDecoratingAASAggregatorFactory(aasAggregatorFactory, client);
+		// Paged listing and file streaming are read-only, so no events are missed if
+		// they bypass the eventing
+		return new ReadForwardingAASAggregatorFactory(aasAggregatorFactory, factory -> new MqttDecoratingAASAggregatorFactory(factory, client));
 	}
 
 }
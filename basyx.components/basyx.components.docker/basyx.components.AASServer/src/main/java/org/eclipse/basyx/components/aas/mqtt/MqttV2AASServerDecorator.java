@@ -27,6 +27,7 @@ package org.eclipse.basyx.components.aas.mqtt;
 import org.eclipse.basyx.aas.aggregator.api.IAASAggregatorFactory;
 import org.eclipse.basyx.aas.restapi.api.IAASAPIFactory;
 import org.eclipse.basyx.components.aas.aascomponent.IAASServerDecorator;
+import org.eclipse.basyx.components.aas.aggregator.ReadForwardingAASAggregatorFactory;
 import org.eclipse.basyx.extensions.aas.aggregator.mqtt.MqttV2AASAggregatorTopicFactory;
 import org.eclipse.basyx.extensions.aas.aggregator.mqtt.MqttV2DecoratingAASAggregatorFactory;
 import org.eclipse.basyx.extensions.shared.encoding.Base64URLEncoder;
@@ -83,7 +84,9 @@ public class MqttV2AASServerDecorator implements IAASServerDecorator {
 
 	@Override
 	public IAASAggregatorFactory decorateAASAggregatorFactory(IAASAggregatorFactory aasAggregatorFactory) {
-		return new MqttV2DecoratingAASAggregatorFactory(aasAggregatorFactory, client, this.aasRepoId, new MqttV2AASAggregatorTopicFactory(new Base64URLEncoder()));
+		// Paged listing and file streaming are read-only, so no events are missed if
+		// they bypass the eventing
+		return new ReadForwardingAASAggregatorFactory(aasAggregatorFactory, factory -> new MqttV2DecoratingAASAggregatorFactory(factory, client, this.aasRepoId, new MqttV2AASAggregatorTopicFactory(new Base64URLEncoder())));
 	}
 
 }
@@ -24,26 +24,458 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.aas.servlet;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.parsers.ParserConfigurationException;
+
 import org.eclipse.basyx.aas.aggregator.AASAggregator;
 import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
 import org.eclipse.basyx.aas.aggregator.restapi.AASAggregatorProvider;
+import org.eclipse.basyx.aas.bundle.AASBundle;
+import org.eclipse.basyx.aas.factory.xml.XMLAASBundleFactory;
+import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelUrn;
+import org.eclipse.basyx.components.aas.aggregator.AASAggregatorExtensions;
+import org.eclipse.basyx.components.aas.aggregator.IBulkImportAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IFileStreamingAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IResumableUploadAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
+import org.eclipse.basyx.components.servlet.ServletHelper;
+import org.eclipse.basyx.submodel.restapi.MultiSubmodelElementProvider;
+import org.eclipse.basyx.submodel.restapi.SubmodelProvider;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface;
+import org.xml.sax.SAXException;
 
 /**
  * A servlet containing the empty infrastructure needed to support receiving
  * AAS/Submodels by clients and hosting them
  * 
+ * If the aggregator is an {@link IPagedAASAggregator}, GET /shells supports the
+ * query parameters <i>cursor</i>, <i>offset</i> and <i>limit</i>. The
+ * requested page is then written to the response shell by shell.
+ * 
+ * If the aggregator is an {@link IFileStreamingAASAggregator}, the content of
+ * File submodel elements is streamed from the backend directly to the
+ * response. Single byte ranges given by the <i>Range</i> header are supported.
+ * 
+ * If the aggregator is an {@link IResumableUploadAASAggregator}, the file of a
+ * File submodel element can be uploaded in chunks. POST .../File/upload starts
+ * an upload session and returns its id. PUT .../File/upload/{sessionId} with
+ * the query parameter <i>offset</i> appends the chunk in the request body, GET
+ * returns the offset at which an interrupted upload has to be resumed, POST
+ * completes and DELETE aborts the session. If the content is already stored,
+ * e.g. for another File submodel element, PUT .../File/link with the query
+ * parameter <i>sha256</i> links the element to it without uploading it again.
+ * Responds with 404, if no content with this hash is stored.
+ * 
+ * If the aggregator is an {@link IBulkImportAASAggregator}, POST /shells/import
+ * imports all AAS and submodels of the JSON or XML AAS environment in the
+ * request body at once.
+ * 
+ * The optional interfaces are looked up through decorators that forward them,
+ * see {@link AASAggregatorExtensions}.
+ * 
  * @author schnicke
  *
  */
 public class AASAggregatorServlet extends VABHTTPInterface<AASAggregatorProvider> {
 	private static final long serialVersionUID = 1244938902937878401L;
 
+	public static final String SHELLS_PATH = "/shells";
+	public static final String PARAM_CURSOR = "cursor";
+	public static final String PARAM_OFFSET = "offset";
+	public static final String PARAM_LIMIT = "limit";
+	public static final String IMPORT_PATH = SHELLS_PATH + "/import";
+	public static final String UPLOAD = "upload";
+	public static final String LINK = "link";
+	public static final String PARAM_SHA256 = "sha256";
+
+	private static final String RANGE_UNIT = "bytes";
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private final transient IPagedAASAggregator pagedAggregator;
+	private final transient IFileStreamingAASAggregator fileStreamingAggregator;
+	private final transient IResumableUploadAASAggregator resumableUploadAggregator;
+	private final transient IBulkImportAASAggregator bulkImportAggregator;
+	private final transient GSONTools serializer = new GSONTools(new DefaultTypeFactory());
+
 	public AASAggregatorServlet() {
 		super(new AASAggregatorProvider(new AASAggregator()));
+		this.pagedAggregator = null;
+		this.fileStreamingAggregator = null;
+		this.resumableUploadAggregator = null;
+		this.bulkImportAggregator = null;
 	}
 
 	public AASAggregatorServlet(IAASAggregator aggregator) {
 		super(new AASAggregatorProvider(aggregator));
+		this.pagedAggregator = AASAggregatorExtensions.find(aggregator, IPagedAASAggregator.class);
+		this.fileStreamingAggregator = AASAggregatorExtensions.find(aggregator, IFileStreamingAASAggregator.class);
+		this.resumableUploadAggregator = AASAggregatorExtensions.find(aggregator, IResumableUploadAASAggregator.class);
+		this.bulkImportAggregator = AASAggregatorExtensions.find(aggregator, IBulkImportAASAggregator.class);
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (handleUploadSessionRequest(request, response)) {
+			return;
+		}
+
+		List<String> filePath = getSubmodelElementFilePath(request);
+		if (filePath != null) {
+			try {
+				sendFile(request, response, filePath);
+			} catch (ProviderException e) {
+				ServletHelper.sendError(response, e);
+			}
+			return;
+		}
+
+		if (!isPagedShellListRequest(request)) {
+			super.doGet(request, response);
+			return;
+		}
+
+		try {
+			String cursor = request.getParameter(PARAM_CURSOR);
+			int offset = ServletHelper.getNonNegativeParameter(request, PARAM_OFFSET);
+			int limit = ServletHelper.getNonNegativeParameter(request, PARAM_LIMIT);
+			ServletHelper.<IAssetAdministrationShell> sendJSONArray(response, consumer -> pagedAggregator.streamAASList(cursor, offset, limit, consumer));
+		} catch (MalformedRequestException e) {
+			ServletHelper.sendError(response, e);
+		}
+	}
+
+	@Override
+	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (handleUploadSessionRequest(request, response)) {
+			return;
+		}
+
+		if (bulkImportAggregator == null || !IMPORT_PATH.equals(request.getPathInfo())) {
+			super.doPost(request, response);
+			return;
+		}
+
+		try {
+			int imported = bulkImportAggregator.importAASBundles(parseBundles(request));
+			response.setContentType("application/json");
+			response.getOutputStream().write(Integer.toString(imported).getBytes(StandardCharsets.UTF_8));
+		} catch (ProviderException e) {
+			ServletHelper.sendError(response, e);
+		}
+	}
+
+	@Override
+	protected void doPut(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (!handleUploadSessionRequest(request, response) && !handleLinkRequest(request, response)) {
+			super.doPut(request, response);
+		}
+	}
+
+	@Override
+	protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (!handleUploadSessionRequest(request, response)) {
+			super.doDelete(request, response);
+		}
+	}
+
+	/**
+	 * Handles requests to .../File/upload and .../File/upload/{sessionId}
+	 * 
+	 * @return false, if the request does not target an upload session
+	 */
+	private boolean handleUploadSessionRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		List<String> segments = getSubmodelElementPath(request, resumableUploadAggregator);
+		if (segments == null) {
+			return false;
+		}
+
+		int last = segments.size() - 1;
+		boolean isStart = UPLOAD.equals(segments.get(last)) && SubmodelProvider.FILE.equals(segments.get(last - 1));
+		boolean isSession = !isStart && UPLOAD.equals(segments.get(last - 1)) && SubmodelProvider.FILE.equals(segments.get(last - 2));
+		if (!isStart && !isSession) {
+			return false;
+		}
+
+		ModelUrn aasId = new ModelUrn(segments.get(2));
+		String smIdShort = segments.get(5);
+		String method = request.getMethod();
+		try {
+			if (isStart) {
+				if (!"POST".equals(method)) {
+					response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+					return true;
+				}
+				String idShortPath = String.join("/", segments.subList(8, last - 1));
+				String sessionId = resumableUploadAggregator.startSubmodelElementFileUpload(aasId, smIdShort, idShortPath);
+				response.setStatus(HttpServletResponse.SC_CREATED);
+				sendJson(response, serializer.serialize(sessionId));
+				return true;
+			}
+
+			String sessionId = segments.get(last);
+			switch (method) {
+			case "GET":
+				sendJson(response, Long.toString(resumableUploadAggregator.getSubmodelElementFileUploadOffset(aasId, smIdShort, sessionId)));
+				break;
+			case "PUT":
+				long offset = getRequiredNonNegativeLongParameter(request, PARAM_OFFSET);
+				sendJson(response, Long.toString(resumableUploadAggregator.appendSubmodelElementFileChunk(aasId, smIdShort, sessionId, offset, request.getInputStream())));
+				break;
+			case "POST":
+				resumableUploadAggregator.completeSubmodelElementFileUpload(aasId, smIdShort, sessionId);
+				break;
+			case "DELETE":
+				resumableUploadAggregator.abortSubmodelElementFileUpload(aasId, smIdShort, sessionId);
+				break;
+			default:
+				response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+			}
+		} catch (ProviderException e) {
+			ServletHelper.sendError(response, e);
+		}
+		return true;
+	}
+
+	/**
+	 * Handles requests to .../File/link
+	 * 
+	 * @return false, if the request does not target the link of a file
+	 */
+	private boolean handleLinkRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		List<String> segments = getSubmodelElementPath(request, resumableUploadAggregator);
+		if (segments == null) {
+			return false;
+		}
+
+		int last = segments.size() - 1;
+		if (!LINK.equals(segments.get(last)) || !SubmodelProvider.FILE.equals(segments.get(last - 1))) {
+			return false;
+		}
+
+		ModelUrn aasId = new ModelUrn(segments.get(2));
+		String smIdShort = segments.get(5);
+		String idShortPath = String.join("/", segments.subList(8, last - 1));
+		try {
+			String sha256 = request.getParameter(PARAM_SHA256);
+			if (sha256 == null || sha256.isEmpty()) {
+				throw new MalformedRequestException("Query parameter '" + PARAM_SHA256 + "' is missing");
+			}
+			if (!resumableUploadAggregator.linkSubmodelElementFile(aasId, smIdShort, idShortPath, sha256)) {
+				throw new ResourceNotFoundException("No file with the hash " + sha256 + " is stored");
+			}
+			response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+		} catch (ProviderException e) {
+			ServletHelper.sendError(response, e);
+		}
+		return true;
+	}
+
+	private void sendJson(HttpServletResponse response, String json) throws IOException {
+		response.setContentType("application/json");
+		response.getOutputStream().write(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Parses the bundles of the request body. JSON environments are read from the
+	 * request stream and their bundles are created while the import consumes them.
+	 * XML environments are read as a whole, since the XML factory needs the
+	 * complete document.
+	 */
+	private Stream<AASBundle> parseBundles(HttpServletRequest request) throws IOException {
+		String contentType = request.getContentType();
+		try {
+			if (contentType != null && contentType.contains("xml")) {
+				String environment = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+				return new XMLAASBundleFactory(environment).create().stream();
+			}
+			Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+			return new JSONAASBundleStreamFactory(reader).create();
+		} catch (ParserConfigurationException | SAXException | RuntimeException e) {
+			throw new MalformedRequestException("The request body is not a valid AAS environment: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the decoded segments of a path of the form
+	 * /shells/{aasId}/aas/submodels/{smIdShort}/submodel/submodelElements/{idShortPath}/File
+	 * or null, if the request does not target the file of a submodel element
+	 */
+	private List<String> getSubmodelElementFilePath(HttpServletRequest request) throws IOException {
+		List<String> segments = getSubmodelElementPath(request, fileStreamingAggregator);
+		return segments != null && SubmodelProvider.FILE.equals(segments.get(segments.size() - 1)) ? segments : null;
+	}
+
+	/**
+	 * Returns the decoded segments of a path of the form
+	 * /shells/{aasId}/aas/submodels/{smIdShort}/submodel/submodelElements/{idShortPath}/...
+	 * or null, if the request does not target a submodel element or the
+	 * aggregator does not support the extension handling it
+	 */
+	private List<String> getSubmodelElementPath(HttpServletRequest request, IAASAggregator extension) throws IOException {
+		if (extension == null) {
+			return null;
+		}
+
+		// Use the raw URI, since decoding it first would split ids containing "/"
+		String path = request.getRequestURI().substring(request.getContextPath().length() + request.getServletPath().length());
+		String[] segments = path.split("/");
+		if (segments.length < 10 || !segments[0].isEmpty()) {
+			return null;
+		}
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = decodePathSegment(segments[i]);
+		}
+
+		boolean isElementPath = SHELLS_PATH.equals("/" + segments[1]) && "aas".equals(segments[3]) && "submodels".equals(segments[4]) && "submodel".equals(segments[6])
+				&& MultiSubmodelElementProvider.ELEMENTS.equals(segments[7]);
+		return isElementPath ? Arrays.asList(segments) : null;
+	}
+
+	/**
+	 * Decodes the percent-encoded characters of a path segment. In contrast to
+	 * form data, a "+" in a path is no encoded space, so it is kept.
+	 */
+	private static String decodePathSegment(String segment) throws IOException {
+		return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8.name());
+	}
+
+	private void sendFile(HttpServletRequest request, HttpServletResponse response, List<String> filePath) throws IOException {
+		ModelUrn aasId = new ModelUrn(filePath.get(2));
+		String smIdShort = filePath.get(5);
+		String idShortPath = String.join("/", filePath.subList(8, filePath.size() - 1));
+
+		try (SubmodelElementFileStream fileStream = fileStreamingAggregator.openSubmodelElementFile(aasId, smIdShort, idShortPath)) {
+			long fileLength = fileStream.getLength();
+			long[] range = getRequestedRange(request.getHeader("Range"), fileLength);
+			if (range == null) {
+				response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				response.setHeader("Content-Range", RANGE_UNIT + " */" + fileLength);
+				return;
+			}
+
+			long start = range[0];
+			long length = range[1] - range[0] + 1;
+			if (length < fileLength) {
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", RANGE_UNIT + " " + range[0] + "-" + range[1] + "/" + fileLength);
+			}
+			response.setHeader("Accept-Ranges", RANGE_UNIT);
+			response.setContentType(getContentType(fileStream.getFileName()));
+			response.setContentLengthLong(length);
+
+			skipFully(fileStream, start);
+			copy(fileStream, response.getOutputStream(), length);
+		}
+	}
+
+	/**
+	 * Parses a single byte range. Returns the whole file if no or multiple ranges
+	 * are requested, since serving the whole content is always allowed. Returns
+	 * null if the range can not be satisfied.
+	 * 
+	 * @return first and last byte position, both inclusive
+	 */
+	private long[] getRequestedRange(String rangeHeader, long fileLength) {
+		long[] wholeFile = { 0, fileLength - 1 };
+		if (rangeHeader == null || !rangeHeader.startsWith(RANGE_UNIT + "=") || rangeHeader.contains(",")) {
+			return wholeFile;
+		}
+
+		String[] bounds = rangeHeader.substring(RANGE_UNIT.length() + 1).trim().split("-", -1);
+		if (bounds.length != 2) {
+			return wholeFile;
+		}
+
+		try {
+			long start;
+			long end;
+			if (bounds[0].isEmpty()) {
+				// Suffix range, i.e. the last n bytes
+				long suffixLength = Long.parseLong(bounds[1]);
+				start = Math.max(0, fileLength - suffixLength);
+				end = fileLength - 1;
+				if (suffixLength == 0) {
+					return null;
+				}
+			} else {
+				start = Long.parseLong(bounds[0]);
+				end = bounds[1].isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(bounds[1]), fileLength - 1);
+			}
+
+			if (start < 0 || start >= fileLength || end < start) {
+				return null;
+			}
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			return wholeFile;
+		}
+	}
+
+	private String getContentType(String fileName) {
+		String contentType = getServletContext().getMimeType(fileName);
+		return contentType == null ? "application/octet-stream" : contentType;
+	}
+
+	private void skipFully(SubmodelElementFileStream fileStream, long toSkip) throws IOException {
+		while (toSkip > 0) {
+			long skipped = fileStream.skip(toSkip);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of file while skipping to the requested range");
+			}
+			toSkip -= skipped;
+		}
+	}
+
+	private void copy(SubmodelElementFileStream fileStream, OutputStream out, long length) throws IOException {
+		byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		long remaining = length;
+		while (remaining > 0) {
+			int read = fileStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				break;
+			}
+			out.write(buffer, 0, read);
+			remaining -= read;
+		}
+		out.flush();
+	}
+
+	private boolean isPagedShellListRequest(HttpServletRequest request) {
+		if (pagedAggregator == null || !SHELLS_PATH.equals(request.getPathInfo())) {
+			return false;
+		}
+		return request.getParameter(PARAM_CURSOR) != null || request.getParameter(PARAM_OFFSET) != null || request.getParameter(PARAM_LIMIT) != null;
+	}
+
+	private long getRequiredNonNegativeLongParameter(HttpServletRequest request, String name) {
+		String value = request.getParameter(name);
+		try {
+			long parsed = Long.parseLong(value);
+			if (parsed >= 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// Handled below, also covers a missing parameter
+		}
+		throw new MalformedRequestException("Query parameter '" + name + "' has to be a non-negative integer, but was '" + value + "'");
 	}
 }
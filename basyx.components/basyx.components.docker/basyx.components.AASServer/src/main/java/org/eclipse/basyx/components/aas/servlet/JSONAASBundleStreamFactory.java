@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.aas.servlet;
+
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.basyx.aas.bundle.AASBundle;
+import org.eclipse.basyx.aas.factory.json.JSONAASBundleFactory;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Creates the AASBundles of a JSON AAS environment read from a stream. Unlike
+ * {@link JSONAASBundleFactory}, the document is never held as a String and the
+ * bundles are created one shell at a time while the returned stream is consumed
+ * 
+ * @author schnicke
+ *
+ */
+public class JSONAASBundleStreamFactory {
+	private static final String SHELLS = "assetAdministrationShells";
+	private static final String SUBMODELS = "submodels";
+	private static final String ASSETS = "assets";
+	private static final String CONCEPT_DESCRIPTIONS = "conceptDescriptions";
+
+	private final Reader reader;
+
+	public JSONAASBundleStreamFactory(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Parses the environment and returns a stream that creates the bundle of each
+	 * shell on demand
+	 * 
+	 * @return
+	 */
+	public Stream<AASBundle> create() {
+		JsonObject environment = new Gson().fromJson(reader, JsonObject.class);
+		if (environment == null) {
+			return Stream.empty();
+		}
+
+		JsonArray shells = getArray(environment, SHELLS);
+		JsonArray assets = getArray(environment, ASSETS);
+		Map<String, JsonElement> submodels = indexSubmodels(getArray(environment, SUBMODELS));
+		return StreamSupport.stream(shells.spliterator(), false).map(shell -> createBundle(shell.getAsJsonObject(), submodels, assets));
+	}
+
+	private AASBundle createBundle(JsonObject shell, Map<String, JsonElement> submodels, JsonArray assets) {
+		try {
+			return new JSONAASBundleFactory(createShellEnvironment(shell, submodels, assets).toString()).create().iterator().next();
+		} catch (RuntimeException e) {
+			// Bundles are created while the import consumes them, so the cause has to
+			// be reported as a malformed request at this point
+			throw new MalformedRequestException("The request body is not a valid AAS environment: " + e.getMessage());
+		}
+	}
+
+	private static JsonObject createShellEnvironment(JsonObject shell, Map<String, JsonElement> submodels, JsonArray assets) {
+		JsonArray shellSubmodels = new JsonArray();
+		for (JsonElement reference : getArray(shell, SUBMODELS)) {
+			JsonElement submodel = submodels.get(getLastKeyValue(reference.getAsJsonObject()));
+			if (submodel != null) {
+				shellSubmodels.add(submodel);
+			}
+		}
+
+		JsonArray shellArray = new JsonArray();
+		shellArray.add(shell);
+
+		JsonObject environment = new JsonObject();
+		environment.add(SHELLS, shellArray);
+		environment.add(SUBMODELS, shellSubmodels);
+		environment.add(ASSETS, assets);
+		environment.add(CONCEPT_DESCRIPTIONS, new JsonArray());
+		return environment;
+	}
+
+	private static Map<String, JsonElement> indexSubmodels(JsonArray submodels) {
+		Map<String, JsonElement> index = new HashMap<>();
+		for (JsonElement submodel : submodels) {
+			JsonElement identification = submodel.getAsJsonObject().get("identification");
+			if (identification != null && identification.isJsonObject() && identification.getAsJsonObject().has("id")) {
+				index.put(identification.getAsJsonObject().get("id").getAsString(), submodel);
+			}
+		}
+		return index;
+	}
+
+	private static String getLastKeyValue(JsonObject reference) {
+		JsonArray keys = getArray(reference, "keys");
+		if (keys.size() == 0) {
+			return null;
+		}
+		JsonElement value = keys.get(keys.size() - 1).getAsJsonObject().get("value");
+		return value == null ? null : value.getAsString();
+	}
+
+	private static JsonArray getArray(JsonObject object, String key) {
+		JsonElement element = object.get(key);
+		return element != null && element.isJsonArray() ? element.getAsJsonArray() : new JsonArray();
+	}
+}
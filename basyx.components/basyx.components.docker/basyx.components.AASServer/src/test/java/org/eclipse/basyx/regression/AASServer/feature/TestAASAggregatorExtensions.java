@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.eclipse.basyx.aas.aggregator.AASAggregator;
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.bundle.AASBundle;
+import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.registration.memory.InMemoryRegistry;
+import org.eclipse.basyx.components.aas.aggregator.AASAggregatorExtensions;
+import org.eclipse.basyx.components.aas.aggregator.IBulkImportAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IFileStreamingAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
+import org.eclipse.basyx.components.aas.aggregator.ReadForwardingAASAggregatorFactory;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
+import org.eclipse.basyx.components.aas.autoregistration.AutoRegisterAASAggregator;
+import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.junit.Test;
+
+/**
+ * Tests that the optional aggregator interfaces are found through forwarding
+ * decorators and hidden by other decorators
+ * 
+ * @author espen
+ *
+ */
+public class TestAASAggregatorExtensions {
+	private static final String ENDPOINT = "http://localhost:4001/aasServer";
+	private static final IIdentifier AAS_ID = new CustomId("extensionAAS");
+	private static final IIdentifier SM_ID = new CustomId("extensionSM");
+
+	private ExtendedAggregator backend = new ExtendedAggregator();
+	private InMemoryRegistry registry = new InMemoryRegistry();
+
+	@Test
+	public void extensionsAreForwardedByAutoRegistration() {
+		IAASAggregator decorated = new AutoRegisterAASAggregator(backend, registry, ENDPOINT);
+
+		assertNotNull(AASAggregatorExtensions.find(decorated, IPagedAASAggregator.class));
+		assertNotNull(AASAggregatorExtensions.find(decorated, IFileStreamingAASAggregator.class));
+		assertNotNull(AASAggregatorExtensions.find(decorated, IBulkImportAASAggregator.class));
+	}
+
+	@Test
+	public void extensionsOfPlainAggregatorAreNotFound() {
+		IAASAggregator decorated = new AutoRegisterAASAggregator(new AASAggregator(), registry, ENDPOINT);
+
+		assertNull(AASAggregatorExtensions.find(decorated, IPagedAASAggregator.class));
+		assertNull(AASAggregatorExtensions.find(decorated, IBulkImportAASAggregator.class));
+	}
+
+	@Test
+	public void nonForwardingDecoratorHidesExtensions() {
+		IAASAggregator decorated = new AutoRegisterAASAggregator(createNonForwardingDecorator(backend), registry, ENDPOINT);
+
+		assertNull(AASAggregatorExtensions.find(decorated, IPagedAASAggregator.class));
+	}
+
+	@Test
+	public void readOnlyExtensionsAreForwardedAroundObservingDecorator() {
+		IAASAggregator decorated = new ReadForwardingAASAggregatorFactory(() -> backend, factory -> () -> createNonForwardingDecorator(factory.create())).create();
+
+		IPagedAASAggregator paged = AASAggregatorExtensions.find(decorated, IPagedAASAggregator.class);
+		assertNotNull(paged);
+		assertNotNull(AASAggregatorExtensions.find(decorated, IFileStreamingAASAggregator.class));
+		assertNull(AASAggregatorExtensions.find(decorated, IBulkImportAASAggregator.class));
+
+		backend.createAAS(createShell());
+		List<IAssetAdministrationShell> shells = new ArrayList<>();
+		paged.streamAASList(null, 0, 0, shells::add);
+		assertEquals(1, shells.size());
+	}
+
+	@Test
+	public void importedShellsAndSubmodelsAreRegistered() {
+		IBulkImportAASAggregator decorated = AASAggregatorExtensions.find(new AutoRegisterAASAggregator(backend, registry, ENDPOINT), IBulkImportAASAggregator.class);
+		Submodel submodel = new Submodel("extensionSM", SM_ID);
+		AASBundle bundle = new AASBundle(createShell(), Collections.<ISubmodel>singleton(submodel));
+
+		assertEquals(1, decorated.importAASBundles(Stream.of(bundle)));
+
+		assertEquals(AAS_ID.getId(), registry.lookupAAS(AAS_ID).getIdentifier().getId());
+		assertEquals(SM_ID.getId(), registry.lookupSubmodel(AAS_ID, SM_ID).getIdentifier().getId());
+	}
+
+	private static AssetAdministrationShell createShell() {
+		AssetAdministrationShell shell = new AssetAdministrationShell();
+		shell.setIdentification(AAS_ID);
+		shell.setIdShort("extensionAAS");
+		return shell;
+	}
+
+	/**
+	 * Decorator that only implements IAASAggregator, like the decorators of the
+	 * SDK
+	 */
+	private static IAASAggregator createNonForwardingDecorator(IAASAggregator aggregator) {
+		return (IAASAggregator) Proxy.newProxyInstance(IAASAggregator.class.getClassLoader(), new Class<?>[] { IAASAggregator.class }, (proxy, method, args) -> {
+			try {
+				return method.invoke(aggregator, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+
+	private static class ExtendedAggregator extends AASAggregator implements IPagedAASAggregator, IFileStreamingAASAggregator, IBulkImportAASAggregator {
+		@Override
+		public void streamAASList(String cursor, int offset, int limit, Consumer<IAssetAdministrationShell> consumer) {
+			getAASList().forEach(consumer);
+		}
+
+		@Override
+		public SubmodelElementFileStream openSubmodelElementFile(IIdentifier aasId, String smIdShort, String idShortPath) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int importAASBundles(Stream<AASBundle> bundles) {
+			int[] imported = { 0 };
+			bundles.forEach(bundle -> {
+				createAAS((AssetAdministrationShell) bundle.getAAS());
+				imported[0]++;
+			});
+			return imported[0];
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.SubmodelDescriptor;
+import org.eclipse.basyx.aas.registration.api.IAASRegistry;
+import org.eclipse.basyx.aas.registration.memory.InMemoryRegistry;
+import org.eclipse.basyx.components.aas.autoregistration.AsyncRegistrationQueue;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.junit.Test;
+
+/**
+ * Tests the coalescing and retrying of registry calls by the
+ * {@link AsyncRegistrationQueue}
+ * 
+ * @author espen
+ *
+ */
+public class TestAsyncRegistrationQueue {
+	private static final IIdentifier AAS_ID = new CustomId("asyncAAS");
+	private static final IIdentifier OTHER_AAS_ID = new CustomId("otherAsyncAAS");
+	private static final IIdentifier SM_ID = new CustomId("asyncSM");
+
+	private InMemoryRegistry backend = new InMemoryRegistry();
+	private AtomicInteger registryCalls = new AtomicInteger();
+	private AtomicInteger failuresToInject = new AtomicInteger();
+	private CountDownLatch firstCallStarted = new CountDownLatch(1);
+	private CountDownLatch releaseFirstCall = new CountDownLatch(1);
+
+	@Test
+	public void pendingCallsAreSentOnClose() {
+		releaseFirstCall.countDown();
+		AsyncRegistrationQueue queue = new AsyncRegistrationQueue(createRegistry(), 100);
+
+		queue.registerAAS(new AASDescriptor(AAS_ID, "http://localhost/aas"));
+		queue.registerSubmodel(AAS_ID, new SubmodelDescriptor("asyncSM", SM_ID, "http://localhost/aas/submodels/asyncSM"));
+		queue.close();
+
+		assertEquals("http://localhost/aas", backend.lookupAAS(AAS_ID).getFirstEndpoint());
+		assertEquals(1, backend.lookupSubmodels(AAS_ID).size());
+	}
+
+	@Test
+	public void pendingCallsForTheSameShellAreCoalesced() throws InterruptedException {
+		AsyncRegistrationQueue queue = new AsyncRegistrationQueue(createRegistry(), 100);
+
+		// Blocks the worker, so that the following calls stay pending
+		queue.registerAAS(new AASDescriptor(OTHER_AAS_ID, "http://localhost/other"));
+		assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+
+		queue.registerAAS(new AASDescriptor(AAS_ID, "http://localhost/old"));
+		queue.registerAAS(new AASDescriptor(AAS_ID, "http://localhost/new"));
+		assertEquals(1, queue.getPendingCount());
+
+		releaseFirstCall.countDown();
+		queue.close();
+
+		assertEquals(2, registryCalls.get());
+		assertEquals("http://localhost/new", backend.lookupAAS(AAS_ID).getFirstEndpoint());
+	}
+
+	@Test
+	public void failedCallsAreRetried() {
+		releaseFirstCall.countDown();
+		failuresToInject.set(2);
+		AsyncRegistrationQueue queue = new AsyncRegistrationQueue(createRegistry(), 100);
+
+		queue.registerAAS(new AASDescriptor(AAS_ID, "http://localhost/aas"));
+		queue.close();
+
+		assertEquals(3, registryCalls.get());
+		assertEquals("http://localhost/aas", backend.lookupAAS(AAS_ID).getFirstEndpoint());
+	}
+
+	/**
+	 * Creates a registry that counts the write calls. The first call blocks until
+	 * it is released and the first calls fail as long as there are failures to
+	 * inject.
+	 */
+	private IAASRegistry createRegistry() {
+		return (IAASRegistry) Proxy.newProxyInstance(IAASRegistry.class.getClassLoader(), new Class<?>[] { IAASRegistry.class }, (proxy, method, args) -> {
+			boolean isWrite = method.getName().equals("register") || method.getName().equals("delete");
+			if (isWrite) {
+				int call = registryCalls.incrementAndGet();
+				if (call == 1) {
+					firstCallStarted.countDown();
+					releaseFirstCall.await();
+				}
+				if (failuresToInject.getAndDecrement() > 0) {
+					throw new IllegalStateException("Registry not reachable");
+				}
+			}
+			try {
+				return method.invoke(backend, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPI;
+import org.eclipse.basyx.components.aas.caching.SubmodelCache;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
+import org.eclipse.basyx.submodel.restapi.vab.VABSubmodelAPIFactory;
+import org.junit.Test;
+
+/**
+ * Tests the read-through cache of the {@link CachingSubmodelAPI}
+ * 
+ * @author espen
+ *
+ */
+public class TestCachingSubmodelAPI {
+	private static final String SM_ID = "cachedSM";
+	private static final String PROPERTY_ID_SHORT = "prop";
+
+	private int backendReads = 0;
+
+	@Test
+	public void repeatedReadsAreServedFromCache() {
+		ISubmodelAPI cachingAPI = createCachingAPI(new SubmodelCache(10, 60000));
+
+		cachingAPI.getSubmodel();
+		cachingAPI.getSubmodel();
+		cachingAPI.getSubmodelElements();
+
+		assertEquals(1, backendReads);
+	}
+
+	@Test
+	public void writesInvalidateCache() {
+		ISubmodelAPI cachingAPI = createCachingAPI(new SubmodelCache(10, 60000));
+
+		cachingAPI.getSubmodel();
+		cachingAPI.updateSubmodelElement(PROPERTY_ID_SHORT, 1);
+		cachingAPI.getSubmodel();
+
+		assertEquals(2, backendReads);
+	}
+
+	@Test
+	public void expiredSubmodelsAreReloaded() throws InterruptedException {
+		ISubmodelAPI cachingAPI = createCachingAPI(new SubmodelCache(10, 0));
+
+		cachingAPI.getSubmodel();
+		Thread.sleep(5);
+		cachingAPI.getSubmodel();
+
+		assertEquals(2, backendReads);
+	}
+
+	@Test
+	public void leastRecentlyUsedSubmodelIsEvicted() {
+		SubmodelCache cache = new SubmodelCache(2, 60000);
+		cache.put("a", new Submodel("a", new CustomId("a")), cache.getInvalidationStamp("a"));
+		cache.put("b", new Submodel("b", new CustomId("b")), cache.getInvalidationStamp("b"));
+		cache.get("a");
+		cache.put("c", new Submodel("c", new CustomId("c")), cache.getInvalidationStamp("c"));
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+
+	@Test
+	public void loadRacingWithInvalidationIsNotCached() {
+		SubmodelCache cache = new SubmodelCache(2, 60000);
+		long stamp = cache.getInvalidationStamp(SM_ID);
+		cache.invalidate(SM_ID);
+		cache.put(SM_ID, new Submodel(SM_ID, new CustomId(SM_ID)), stamp);
+
+		assertNull(cache.get(SM_ID));
+	}
+
+	@Test
+	public void invalidationOfOtherSubmodelDoesNotPreventCaching() {
+		SubmodelCache cache = new SubmodelCache(2, 60000);
+		long stamp = cache.getInvalidationStamp(SM_ID);
+		cache.invalidate("otherSM");
+		cache.put(SM_ID, new Submodel(SM_ID, new CustomId(SM_ID)), stamp);
+
+		assertNotNull(cache.get(SM_ID));
+	}
+
+	@Test
+	public void modifyingReturnedSubmodelDoesNotChangeCache() {
+		ISubmodelAPI cachingAPI = createCachingAPI(new SubmodelCache(10, 60000));
+
+		cachingAPI.getSubmodel();
+		cachingAPI.getSubmodel().addSubmodelElement(new Property("added", 1));
+
+		assertFalse(cachingAPI.getSubmodel().getSubmodelElements().containsKey("added"));
+		assertEquals(1, backendReads);
+	}
+
+	private ISubmodelAPI createCachingAPI(SubmodelCache cache) {
+		Submodel submodel = new Submodel(SM_ID, new CustomId(SM_ID));
+		submodel.addSubmodelElement(new Property(PROPERTY_ID_SHORT, 0));
+		ISubmodelAPI inMemoryAPI = new VABSubmodelAPIFactory().create(submodel);
+
+		// Counts the reads of the whole submodel that reach the backend
+		ISubmodelAPI countingAPI = (ISubmodelAPI) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ISubmodelAPI.class }, (proxy, method, args) -> {
+			if (method.getName().equals("getSubmodel")) {
+				backendReads++;
+			}
+			return method.invoke(inMemoryAPI, args);
+		});
+		return new CachingSubmodelAPI(countingAPI, SM_ID, cache);
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2022 the Eclipse BaSyx Authors
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import org.eclipse.basyx.aas.metamodel.api.parts.asset.AssetKind;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.parts.Asset;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregatorFactory;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.junit.BeforeClass;
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPI;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregator;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Benchmark of the submodel lookup latency by id depending on the collection
+ * size, with and without the indexes created by the MongoDB backend. It is
+ * ignored by default, as it pushes hundreds of thousands of submodels to the
+ * MongoDB.
+ * 
+ * @author espen
+ *
+ */
+@Ignore
+public class MongoDBIndexBenchmark {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBIndexBenchmark.class);
+
+	private static final String COLLECTION = "basyxIndexBenchmark";
+	private static final int[] COLLECTION_SIZES = { 1000, 10000, 100000, 300000 };
+	private static final int LOOKUPS = 200;
+	private static final int BATCH_SIZE = 1000;
+
+	@Test
+	public void lookupLatencyAgainstCollectionSize() {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		MongoClient client = MongoClients.create(config.getConnectionUrl());
+		MongoTemplate mongoOps = new MongoTemplate(client, config.getDatabase());
+		mongoOps.dropCollection(COLLECTION);
+
+		int size = 0;
+		for (int targetSize : COLLECTION_SIZES) {
+			insertSubmodels(mongoOps, size, targetSize);
+			size = targetSize;
+
+			mongoOps.indexOps(COLLECTION).dropAllIndexes();
+			double unindexed = measureLookupMillis(mongoOps, size);
+
+			for (IndexDefinition index : MongoDBSubmodelAggregator.getSubmodelIndexes()) {
+				mongoOps.indexOps(COLLECTION).ensureIndex(index);
+			}
+			double indexed = measureLookupMillis(mongoOps, size);
+
+			logger.info(String.format("%d submodels: %.3f ms per lookup without indexes, %.3f ms with indexes", size, unindexed, indexed));
+		}
+
+		mongoOps.dropCollection(COLLECTION);
+		client.close();
+	}
+
+	private void insertSubmodels(MongoTemplate mongoOps, int from, int to) {
+		List<Submodel> batch = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			Submodel sm = new Submodel("sm" + i, new Identifier(IdentifierType.CUSTOM, "benchmarkSM" + i));
+			sm.addSubmodelElement(new Property("prop", i));
+			batch.add(sm);
+			if (batch.size() == BATCH_SIZE) {
+				mongoOps.insert(batch, COLLECTION);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			mongoOps.insert(batch, COLLECTION);
+		}
+	}
+
+	private double measureLookupMillis(MongoTemplate mongoOps, int size) {
+		Random random = new Random(42);
+		long start = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++) {
+			String id = "benchmarkSM" + random.nextInt(size);
+			mongoOps.findOne(query(where(MongoDBSubmodelAPI.SMIDPATH).is(id)), Submodel.class, COLLECTION);
+		}
+		return (System.nanoTime() - start) / 1e6 / LOOKUPS;
+	}
+}
@@ -25,8 +25,14 @@
 package org.eclipse.basyx.regression.AASServer.mongodb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -34,16 +40,30 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
 import org.eclipse.basyx.aas.aggregator.proxy.AASAggregatorProxy;
+import org.eclipse.basyx.aas.bundle.AASBundle;
 import org.eclipse.basyx.aas.manager.ConnectedAssetAdministrationShellManager;
+import org.eclipse.basyx.aas.metamodel.api.IAssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
 import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelUrn;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.aas.registration.memory.AASRegistry;
 import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
 import org.eclipse.basyx.components.aas.AASServerComponent;
+import org.eclipse.basyx.components.aas.aascomponent.IAASServerDecorator;
+import org.eclipse.basyx.components.aas.aascomponent.MongoDBAASServerComponentFactory;
+import org.eclipse.basyx.components.aas.aggregator.IPagedAASAggregator;
+import org.eclipse.basyx.components.aas.autoregistration.AutoRegisterAASAggregator;
+import org.eclipse.basyx.components.aas.autoregistration.AutoRegisterAASServerFeature;
+import org.eclipse.basyx.components.aas.caching.CachingAASServerDecorator;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPI;
+import org.eclipse.basyx.components.aas.caching.SubmodelCache;
 import org.eclipse.basyx.components.aas.configuration.AASServerBackend;
 import org.eclipse.basyx.components.aas.configuration.BaSyxAASServerConfiguration;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregatorFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
 import org.eclipse.basyx.components.configuration.BaSyxContextConfiguration;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.components.registry.mongodb.MongoDBRegistryHandler;
@@ -53,6 +73,9 @@ import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
 import org.eclipse.basyx.submodel.metamodel.map.Submodel;
 import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.Referable;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.Operation;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
 import org.eclipse.basyx.testsuite.regression.aas.aggregator.AASAggregatorSuite;
 import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
@@ -62,6 +85,7 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.xml.sax.SAXException;
 
 import com.mongodb.client.MongoClient;
@@ -204,6 +228,126 @@ public class TestMongoDBAggregator extends AASAggregatorSuite {
 		return aggregator;
 	}
 
+	@Test
+	public void streamAASListInPages() {
+		MongoDBAASAggregator aggregator = (MongoDBAASAggregator) getAggregator();
+		for (String id : Arrays.asList("pagedC", "pagedA", "pagedB")) {
+			AssetAdministrationShell shell = new AssetAdministrationShell();
+			shell.setIdentification(new Identifier(IdentifierType.CUSTOM, id));
+			shell.setIdShort(id);
+			aggregator.createAAS(shell);
+		}
+
+		assertEquals(Arrays.asList("pagedA", "pagedB"), streamIdShorts(aggregator, null, 0, 2));
+		assertEquals(Arrays.asList("pagedB", "pagedC"), streamIdShorts(aggregator, null, 1, 0));
+		assertEquals(Arrays.asList("pagedC"), streamIdShorts(aggregator, "pagedB", 0, 2));
+	}
+
+	@Test
+	public void lookupIndexesAreCreated() {
+		MongoDBAASAggregator aggregator = (MongoDBAASAggregator) getAggregator();
+		List<IndexInfo> aasIndexes = aggregator.getAASIndexInfo();
+		List<IndexInfo> smIndexes = aggregator.getSubmodelIndexInfo();
+
+		assertTrue(aasIndexes.stream().anyMatch(index -> index.isUnique() && index.isIndexForFields(Arrays.asList("identification.id"))));
+		assertTrue(smIndexes.stream().anyMatch(index -> index.isUnique() && index.isIndexForFields(Arrays.asList("identification.id"))));
+		assertTrue(smIndexes.stream().anyMatch(index -> index.isIndexForFields(Arrays.asList("idShort", "identification.id"))));
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void aggregatorsOfOneConnectionShareTheirPool() {
+		MongoClient client = MongoClients.create(mongoDBConfig.getConnectionUrl());
+		MongoDBAASAggregator first = new MongoDBAASAggregator(mongoDBConfig, new MongoDBAASAPIFactory(mongoDBConfig, client), new MongoDBSubmodelAggregatorFactory(mongoDBConfig, new MongoDBSubmodelAPIFactory(mongoDBConfig, client), client), client);
+		MongoDBAASAggregator second = new MongoDBAASAggregator(mongoDBConfig, new MongoDBAASAPIFactory(mongoDBConfig, client), new MongoDBSubmodelAggregatorFactory(mongoDBConfig, new MongoDBSubmodelAPIFactory(mongoDBConfig, client), client), client);
+
+		assertSame(first.getTemplatePool(), second.getTemplatePool());
+		assertSame(MongoDBTemplatePool.getShared(client), first.getTemplatePool());
+
+		// The deprecated configuration based constructors do not open a client each
+		assertSame(new MongoDBAASAggregator(mongoDBConfig).getTemplatePool(), new MongoDBAASAggregator(mongoDBConfig).getTemplatePool());
+		assertSame(MongoDBTemplatePool.getShared(mongoDBConfig), new MongoDBAASAggregator(mongoDBConfig).getTemplatePool());
+	}
+
+	@Test
+	public void backendAggregatorIsAvailableWithRegistryDecorator() {
+		IAASServerDecorator autoRegisterDecorator = new AutoRegisterAASServerFeature(registry, getURL()).getDecorator();
+		MongoDBAASServerComponentFactory factory = new MongoDBAASServerComponentFactory(mongoDBConfig, Collections.singletonList(autoRegisterDecorator), registry);
+
+		IAASAggregator aggregator = factory.create();
+
+		// The startup registration lists the shells and submodel headers from the
+		// backend, since the registry decorator hides its paged and header access
+		assertTrue(aggregator instanceof AutoRegisterAASAggregator);
+		assertTrue(factory.getBackendAggregator() instanceof MongoDBAASAggregator);
+		assertTrue(factory.getBackendAggregator() instanceof IPagedAASAggregator);
+	}
+
+	@Test
+	public void submodelsLoadedFromDatabaseAreCached() {
+		SubmodelCache cache = new SubmodelCache(10, 60000);
+		List<IAASServerDecorator> decorators = Collections.singletonList(new CachingAASServerDecorator(cache));
+		IAASAggregator aggregator = new MongoDBAASServerComponentFactory(mongoDBConfig, decorators, registry).create();
+
+		ModelUrn aasId = new ModelUrn("cachedAAS");
+		AssetAdministrationShell shell = new AssetAdministrationShell();
+		shell.setIdentification(aasId);
+		shell.setIdShort("cachedAAS");
+		Submodel submodel = new Submodel("cachedSM", new Identifier(IdentifierType.CUSTOM, "cachedSMId"));
+		submodel.addSubmodelElement(new Property("cachedProp", 0));
+		submodel.addSubmodelElement(new Operation("cachedOp"));
+		shell.addSubmodel(submodel);
+		aggregator.createAAS(shell);
+		((MultiSubmodelProvider) aggregator.getAASProvider(aasId)).getSmAggregator().createSubmodel(submodel);
+
+		// After a restart, the submodel is loaded from the database
+		cache.clear();
+		IAASAggregator restarted = new MongoDBAASServerComponentFactory(mongoDBConfig, decorators, registry).create();
+		ISubmodelAPI submodelAPI = ((MultiSubmodelProvider) restarted.getAASProvider(aasId)).getSmAggregator().getSubmodelAPIById(submodel.getIdentification());
+		assertTrue(submodelAPI instanceof CachingSubmodelAPI);
+
+		submodelAPI.getSubmodel();
+		assertNotNull(cache.get(submodel.getIdentification().getId()));
+
+		// Served from the cache
+		assertTrue(submodelAPI.getSubmodelElements().stream().allMatch(element -> element instanceof Property || element instanceof Operation));
+		assertEquals(2, submodelAPI.getSubmodelElements().size());
+		assertTrue(submodelAPI.getOperations().iterator().next() instanceof Operation);
+
+		restarted.deleteAAS(aasId);
+	}
+
+	private List<String> streamIdShorts(MongoDBAASAggregator aggregator, String cursor, int offset, int limit) {
+		List<String> idShorts = new ArrayList<>();
+		aggregator.streamAASList(cursor, offset, limit, (IAssetAdministrationShell aas) -> idShorts.add(aas.getIdShort()));
+		return idShorts;
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void importAASBundlesInBulk() {
+		MongoDBAASAggregator aggregator = (MongoDBAASAggregator) getAggregator();
+		List<AASBundle> bundles = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			AssetAdministrationShell shell = new AssetAdministrationShell();
+			shell.setIdentification(new ModelUrn("bulkAAS" + i));
+			shell.setIdShort("bulkAAS" + i);
+			Submodel submodel = new Submodel("bulkSM", new Identifier(IdentifierType.CUSTOM, "bulkSM" + i));
+			bundles.add(new AASBundle(shell, Collections.singleton(submodel)));
+		}
+
+		assertEquals(3, aggregator.importAASBundles(bundles.stream()));
+
+		// Both the importing aggregator and a new one reading from the database
+		// resolve the imported AAS and their submodels
+		for (IAASAggregator toCheck : Arrays.asList(aggregator, new MongoDBAASAggregator(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH))) {
+			for (int i = 0; i < 3; i++) {
+				assertEquals("bulkAAS" + i, toCheck.getAAS(new ModelUrn("bulkAAS" + i)).getIdShort());
+				assertEquals("bulkSM" + i, getSubmodelFromAggregator(toCheck, "bulkAAS" + i, "bulkSM").getIdentification().getId());
+			}
+		}
+	}
+
 	@SuppressWarnings("deprecation")
 	@Test
 	public void checkInitialSetupAfterCreatingAndRegisteringAasAndSubmodel() {
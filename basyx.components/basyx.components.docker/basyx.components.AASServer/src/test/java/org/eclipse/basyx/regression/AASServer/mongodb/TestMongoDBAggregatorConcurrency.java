@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelUrn;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.aggregator.SubmodelAggregatorFactory;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.client.MongoClients;
+
+/**
+ * Creates, reads, updates and deletes AAS from many threads in parallel on the
+ * same MongoDBAASAggregator
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBAggregatorConcurrency {
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 25;
+	private static final String SHARED_AAS_ID = "sharedConcurrentAAS";
+
+	private ExecutorService executor;
+	private BaSyxMongoDBConfiguration config;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(THREADS);
+		config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void parallelCreateReadDelete() throws Exception {
+		MongoDBAASAggregator aggregator = createAggregator();
+		runInParallel(thread -> {
+			for (int i = 0; i < ITERATIONS; i++) {
+				String id = "concurrentAAS_" + thread + "_" + i;
+				aggregator.createAAS(createShell(id));
+				assertEquals(id, aggregator.getAAS(new ModelUrn(id)).getIdShort());
+				aggregator.deleteAAS(new ModelUrn(id));
+			}
+		});
+
+		assertTrue(aggregator.getAASList().isEmpty());
+	}
+
+	@Test
+	public void parallelUpdatesOfSameAAS() throws Exception {
+		MongoDBAASAggregator aggregator = createAggregator();
+		aggregator.createAAS(createShell(SHARED_AAS_ID));
+
+		runInParallel(thread -> {
+			for (int i = 0; i < ITERATIONS; i++) {
+				aggregator.updateAAS(createShell(SHARED_AAS_ID));
+				aggregator.getAASProvider(new ModelUrn(SHARED_AAS_ID));
+				aggregator.getAASList();
+			}
+		});
+
+		assertEquals(1, aggregator.getAASList().size());
+	}
+
+	@Test
+	public void parallelCreateAndDeleteOfSameAAS() throws Exception {
+		MongoDBAASAggregator aggregator = createAggregator();
+		runInParallel(thread -> {
+			for (int i = 0; i < ITERATIONS; i++) {
+				if (thread % 2 == 0) {
+					aggregator.createAAS(createShell(SHARED_AAS_ID));
+				} else {
+					aggregator.deleteAAS(new ModelUrn(SHARED_AAS_ID));
+				}
+			}
+		});
+
+		// Provider map and database have to agree on the final state
+		aggregator.deleteAAS(new ModelUrn(SHARED_AAS_ID));
+		assertTrue(aggregator.getAASList().isEmpty());
+		try {
+			aggregator.getAASProvider(new ModelUrn(SHARED_AAS_ID));
+		} catch (ResourceNotFoundException e) {
+			return;
+		}
+		throw new AssertionError("AAS has not been deleted");
+	}
+
+	private void runInParallel(ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int threadIndex = thread;
+			futures.add(executor.submit(() -> {
+				start.await();
+				task.run(threadIndex);
+				return null;
+			}));
+		}
+		start.countDown();
+
+		// Rethrows assertion errors and exceptions of the threads
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+	}
+
+	private MongoDBAASAggregator createAggregator() {
+		MongoDBTemplatePool templatePool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+		MongoDBAASAggregator aggregator = new MongoDBAASAggregator(config, new MongoDBAASAPIFactory(config, templatePool), new SubmodelAggregatorFactory(new MongoDBSubmodelAPIFactory(config, templatePool)), templatePool);
+		aggregator.reset();
+		return aggregator;
+	}
+
+	private static AssetAdministrationShell createShell(String idShort) {
+		AssetAdministrationShell shell = new AssetAdministrationShell();
+		shell.setIdentification(new ModelUrn(idShort));
+		shell.setIdShort(idShort);
+		return shell;
+	}
+
+	private interface ThreadTask {
+		void run(int thread) throws Exception;
+	}
+}
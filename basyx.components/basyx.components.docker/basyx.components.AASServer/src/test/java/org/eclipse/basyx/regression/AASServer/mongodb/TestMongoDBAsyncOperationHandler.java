@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Map;
+
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAsyncOperationHandler;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.client.MongoClients;
+
+/**
+ * Tests the stored states of asynchronous operation invocations
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBAsyncOperationHandler {
+	private static final String SM_ID = "asyncSM";
+	private static final String OPERATION = "asyncOp";
+
+	private MongoDBAsyncOperationHandler handler;
+
+	@Before
+	public void setUp() {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+		MongoDBTemplatePool templatePool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+		handler = new MongoDBAsyncOperationHandler(templatePool.getTemplate(config.getDatabase()), "basyxTestAsyncOperations", 1, 10, 60000);
+	}
+
+	@After
+	public void tearDown() {
+		handler.close();
+	}
+
+	@Test
+	public void completedInvocationIsStored() throws InterruptedException {
+		String requestId = handler.invokeAsync(SM_ID, OPERATION, () -> 5);
+
+		Map<String, Object> result = awaitResult(requestId);
+		assertEquals(MongoDBAsyncOperationHandler.STATE_COMPLETED, result.get(MongoDBAsyncOperationHandler.EXECUTION_STATE));
+		assertEquals(5, result.get(MongoDBAsyncOperationHandler.RESULT));
+	}
+
+	@Test
+	public void unstorableResultFailsInvocation() throws InterruptedException {
+		// Exceeds the maximum document size of MongoDB
+		String tooLarge = new String(new char[17 * 1024 * 1024]);
+		String requestId = handler.invokeAsync(SM_ID, OPERATION, () -> tooLarge);
+
+		Map<String, Object> result = awaitResult(requestId);
+		assertEquals(MongoDBAsyncOperationHandler.STATE_FAILED, result.get(MongoDBAsyncOperationHandler.EXECUTION_STATE));
+		assertNotNull(result.get(MongoDBAsyncOperationHandler.MESSAGE));
+	}
+
+	private Map<String, Object> awaitResult(String requestId) throws InterruptedException {
+		Map<String, Object> result = handler.getResult(SM_ID, OPERATION, requestId);
+		for (int i = 0; i < 100 && MongoDBAsyncOperationHandler.STATE_RUNNING.equals(result.get(MongoDBAsyncOperationHandler.EXECUTION_STATE)); i++) {
+			Thread.sleep(50);
+			result = handler.getResult(SM_ID, OPERATION, requestId);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.bundle.AASBundle;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelUrn;
+import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPI;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.caching.SubmodelCache;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregatorFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.aggregator.SubmodelAggregatorFactory;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.eclipse.basyx.vab.modelprovider.api.IModelProvider;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.client.MongoClients;
+
+/**
+ * Tests that AAS servers sharing a MongoDB see each other's changes if change
+ * streams are enabled. Skipped if MongoDB does not run as a replica set.
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBChangeStreams {
+	private static final long TIMEOUT_MILLIS = 10000;
+
+	private MongoDBTemplatePool firstPool;
+	private MongoDBTemplatePool secondPool;
+	private MongoDBAASAggregator first;
+	private MongoDBAASAggregator second;
+
+	@Before
+	public void setUp() {
+		BaSyxMongoDBConfiguration config = createConfig();
+		firstPool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+		Assume.assumeTrue("Change streams require a replica set", isReplicaSet(firstPool, config));
+		secondPool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+
+		// Reset before watching, so that the dropped collections do not trigger a resync
+		config.setChangeStreamsEnabled(false);
+		createAggregator(config, firstPool).reset();
+		config.setChangeStreamsEnabled(true);
+
+		first = createAggregator(config, firstPool);
+		second = createAggregator(config, secondPool);
+	}
+
+	@After
+	public void tearDown() {
+		firstPool.closeChangeStreamListeners();
+		if (secondPool != null) {
+			secondPool.closeChangeStreamListeners();
+		}
+	}
+
+	@Test
+	public void createdAASIsSeenByOtherServer() {
+		ModelUrn aasId = new ModelUrn("changeStreamAAS");
+		first.createAAS(createShell(aasId, "changeStreamAAS"));
+
+		awaitCondition(() -> hasAAS(second, aasId));
+		assertEquals("changeStreamAAS", second.getAAS(aasId).getIdShort());
+	}
+
+	@Test
+	public void deletedAASIsRemovedFromOtherServer() {
+		ModelUrn aasId = new ModelUrn("changeStreamAAS");
+		first.createAAS(createShell(aasId, "changeStreamAAS"));
+		awaitCondition(() -> hasAAS(second, aasId));
+
+		first.deleteAAS(aasId);
+		awaitCondition(() -> !hasAAS(second, aasId));
+	}
+
+	@Test
+	public void decoratedAPIsSurviveChangeEvents() {
+		ModelUrn aasId = new ModelUrn("changeStreamAAS");
+		AssetAdministrationShell shell = createShell(aasId, "changeStreamAAS");
+		Submodel submodel = new Submodel("changeStreamSM", new CustomId("changeStreamSM"));
+		first.importAASBundles(Stream.of(new AASBundle(shell, Collections.singleton(submodel))));
+		IModelProvider ownProvider = first.getAASProvider(aasId);
+
+		awaitCondition(() -> hasAAS(second, aasId));
+		ISubmodelAPI reloadedAPI = ((MultiSubmodelProvider) second.getAASProvider(aasId)).getSmAggregator().getSubmodelAPIById(submodel.getIdentification());
+		assertTrue(reloadedAPI instanceof CachingSubmodelAPI);
+
+		// The change event of its own write does not replace the provider
+		assertSame(ownProvider, first.getAASProvider(aasId));
+	}
+
+	private static boolean hasAAS(IAASAggregator aggregator, ModelUrn aasId) {
+		try {
+			aggregator.getAAS(aasId);
+			return true;
+		} catch (ResourceNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static void awaitCondition(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	private static boolean isReplicaSet(MongoDBTemplatePool pool, BaSyxMongoDBConfiguration config) {
+		Document hello = pool.getClient().getDatabase(config.getDatabase()).runCommand(new Document("isMaster", 1));
+		return hello.containsKey("setName");
+	}
+
+	private static MongoDBAASAggregator createAggregator(BaSyxMongoDBConfiguration config, MongoDBTemplatePool templatePool) {
+		ISubmodelAPIFactory submodelAPIFactory = new CachingSubmodelAPIFactory(new MongoDBSubmodelAPIFactory(config, templatePool), new SubmodelCache(10, 60000));
+		return (MongoDBAASAggregator) new MongoDBAASAggregatorFactory(config, null, new MongoDBAASAPIFactory(config, templatePool), submodelAPIFactory, new SubmodelAggregatorFactory(submodelAPIFactory), templatePool).create();
+	}
+
+	private static BaSyxMongoDBConfiguration createConfig() {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+		config.setAASCollection("basyxTestChangeStreamAAS");
+		config.setSubmodelCollection("basyxTestChangeStreamSM");
+		return config;
+	}
+
+	private static AssetAdministrationShell createShell(ModelUrn aasId, String idShort) {
+		AssetAdministrationShell shell = new AssetAdministrationShell();
+		shell.setIdentification(aasId);
+		shell.setIdShort(idShort);
+		return shell;
+	}
+}
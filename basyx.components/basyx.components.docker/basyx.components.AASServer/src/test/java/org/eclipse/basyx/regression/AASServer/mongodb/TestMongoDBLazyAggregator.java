@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.eclipse.basyx.aas.aggregator.api.IAASAggregator;
+import org.eclipse.basyx.aas.bundle.AASBundle;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelUrn;
+import org.eclipse.basyx.aas.restapi.MultiSubmodelProvider;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPI;
+import org.eclipse.basyx.components.aas.caching.CachingSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.caching.SubmodelCache;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.aggregator.SubmodelAggregatorFactory;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPIFactory;
+import org.eclipse.basyx.testsuite.regression.aas.aggregator.AASAggregatorSuite;
+import org.junit.Test;
+
+import com.mongodb.client.MongoClients;
+
+/**
+ * Tests the MongoDBAASAggregator with lazy loading of the AAS providers and a
+ * provider cache that is smaller than the number of AAS
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBLazyAggregator extends AASAggregatorSuite {
+	private static final int CACHE_SIZE = 1;
+
+	@Override
+	protected IAASAggregator getAggregator() {
+		MongoDBAASAggregator aggregator = createLazyAggregator();
+		aggregator.reset();
+		return aggregator;
+	}
+
+	@Test
+	public void evictedProvidersAreReloaded() {
+		IAASAggregator aggregator = getAggregator();
+		aggregator.createAAS(createShell("lazyAAS1"));
+		aggregator.createAAS(createShell("lazyAAS2"));
+
+		assertEquals("lazyAAS1", aggregator.getAAS(new ModelUrn("lazyAAS1")).getIdShort());
+		assertEquals("lazyAAS2", aggregator.getAAS(new ModelUrn("lazyAAS2")).getIdShort());
+		assertEquals(2, aggregator.getAASList().size());
+	}
+
+	@Test
+	public void providersAreLoadedOnFirstAccessAfterRestart() {
+		IAASAggregator aggregator = getAggregator();
+		aggregator.createAAS(createShell("lazyAAS1"));
+		aggregator.createAAS(createShell("lazyAAS2"));
+
+		IAASAggregator restarted = createLazyAggregator();
+		assertEquals("lazyAAS1", restarted.getAAS(new ModelUrn("lazyAAS1")).getIdShort());
+		assertEquals(2, restarted.getAASList().size());
+	}
+
+	@Test
+	public void listingDoesNotEvictCachedProviders() {
+		MongoDBAASAggregator aggregator = createLazyAggregator();
+		aggregator.reset();
+		aggregator.createAAS(createShell("lazyAAS1"));
+		aggregator.createAAS(createShell("lazyAAS2"));
+		MultiSubmodelProvider cachedProvider = aggregator.getProviderForAASId(new ModelUrn("lazyAAS2").getId());
+
+		assertEquals(2, aggregator.getAASList().size());
+		assertSame(cachedProvider, aggregator.getProviderForAASId(new ModelUrn("lazyAAS2").getId()));
+	}
+
+	@Test
+	public void evictedProvidersAreReloadedWithDecoratedAPIs() {
+		MongoDBAASAggregator aggregator = createLazyAggregator();
+		aggregator.reset();
+		ModelUrn aasId = new ModelUrn("lazyAAS1");
+		Submodel submodel = new Submodel("lazySM", new CustomId("lazySM"));
+		aggregator.importAASBundles(Stream.of(new AASBundle(createShell("lazyAAS1"), Collections.singleton(submodel))));
+		aggregator.getAAS(aasId);
+
+		// Evicts the provider of the first AAS
+		aggregator.createAAS(createShell("lazyAAS2"));
+		aggregator.getAAS(new ModelUrn("lazyAAS2"));
+
+		ISubmodelAPI reloadedAPI = aggregator.getProviderForAASId(aasId.getId()).getSmAggregator().getSubmodelAPIById(submodel.getIdentification());
+		assertTrue(reloadedAPI instanceof CachingSubmodelAPI);
+	}
+
+	private static MongoDBAASAggregator createLazyAggregator() {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+		config.setAASLazyLoadingEnabled(true);
+		config.setAASProviderCacheSize(CACHE_SIZE);
+
+		MongoDBTemplatePool templatePool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+		ISubmodelAPIFactory submodelAPIFactory = new CachingSubmodelAPIFactory(new MongoDBSubmodelAPIFactory(config, templatePool), new SubmodelCache(10, 60000));
+		return new MongoDBAASAggregator(config, null, new MongoDBAASAPIFactory(config, templatePool), submodelAPIFactory, new SubmodelAggregatorFactory(submodelAPIFactory), templatePool);
+	}
+
+	private static AssetAdministrationShell createShell(String idShort) {
+		AssetAdministrationShell shell = new AssetAdministrationShell();
+		shell.setIdentification(new ModelUrn(idShort));
+		shell.setIdShort(idShort);
+		return shell;
+	}
+}
@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -40,6 +41,7 @@ import org.eclipse.basyx.components.aas.configuration.AASServerBackend;
 import org.eclipse.basyx.components.aas.configuration.BaSyxAASServerConfiguration;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAPI;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBAASAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBAsyncOperationHandler;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPI;
 import org.eclipse.basyx.components.configuration.BaSyxContextConfiguration;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
@@ -47,9 +49,11 @@ import org.eclipse.basyx.regression.AASServer.AASServerSuite;
 import org.eclipse.basyx.submodel.metamodel.api.ISubmodel;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IdentifierType;
 import org.eclipse.basyx.submodel.metamodel.api.reference.IReference;
+import org.eclipse.basyx.submodel.metamodel.api.reference.enums.KeyElements;
 import org.eclipse.basyx.submodel.metamodel.map.Submodel;
 import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.qualifiable.Qualifier;
+import org.eclipse.basyx.submodel.metamodel.map.reference.Reference;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.operation.Operation;
 import org.eclipse.basyx.submodel.restapi.OperationProvider;
 import org.eclipse.basyx.submodel.restapi.operation.DelegatedInvocationManager;
@@ -79,7 +83,7 @@ public class TestMongoDBServer extends AASServerSuite {
 	private static BaSyxContextConfiguration contextConfig;
 	private static BaSyxAASServerConfiguration aasConfig;
 
-	private boolean executed = false;
+	private volatile boolean executed = false;
 
 	@Override
 	protected String getURL() {
@@ -124,6 +128,25 @@ public class TestMongoDBServer extends AASServerSuite {
 		checkSubmodelReferencesSize(0);
 	}
 
+	@Test
+	public void testRepeatedSubmodelCreationKeepsSingleReference() {
+		createAssetAdministrationShell();
+		createSubmodel();
+		createSubmodel();
+		checkSubmodelReferencesSize(1);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testParallelSubmodelReferenceAdditions() {
+		createAssetAdministrationShell();
+		MongoDBAASAPI aasAPI = new MongoDBAASAPI(mongoDBConfig, shellIdentifier.getId());
+
+		IntStream.range(0, 20).parallel().forEach(i -> aasAPI.addSubmodel(new Reference(new Identifier(IdentifierType.CUSTOM, "parallelSM" + i), KeyElements.SUBMODEL, true)));
+
+		checkSubmodelReferencesSize(20);
+	}
+
 	@SuppressWarnings("deprecation")
 	@Test
 	public void testAggregatorPersistency() throws Exception {
@@ -159,6 +182,38 @@ public class TestMongoDBServer extends AASServerSuite {
 		assertTrue(executed);
 	}
 
+	@SuppressWarnings({ "deprecation", "unchecked" })
+	@Test
+	public void testInvokeDelegatedOperationAsync() throws InterruptedException {
+		createAssetAdministrationShell();
+		createSubmodel();
+
+		Operation op = new Operation(OP_ID_SHORT);
+		op.setInvokable((Runnable) -> {
+			executed = true;
+		});
+		OperationProvider opProvider = new OperationProvider(new VABMapProvider(op));
+
+		ConnectorProviderStub connector = new ConnectorProviderStub();
+		connector.addMapping(OP_ID_SHORT, opProvider);
+
+		MongoDBSubmodelAPI api = new MongoDBSubmodelAPI(mongoDBConfig, SM_IDENTIFICATION.getId(), new DelegatedInvocationManager(connector));
+
+		executed = false;
+		String requestId = (String) api.invokeAsync(DELEGATE_OP_ID_SHORT);
+
+		// The result is persisted, so it can also be retrieved by another API instance
+		MongoDBSubmodelAPI otherApi = new MongoDBSubmodelAPI(mongoDBConfig, SM_IDENTIFICATION.getId());
+		Map<String, Object> result = (Map<String, Object>) otherApi.getOperationResult(DELEGATE_OP_ID_SHORT, requestId);
+		for (int i = 0; i < 100 && MongoDBAsyncOperationHandler.STATE_RUNNING.equals(result.get(MongoDBAsyncOperationHandler.EXECUTION_STATE)); i++) {
+			Thread.sleep(50);
+			result = (Map<String, Object>) otherApi.getOperationResult(DELEGATE_OP_ID_SHORT, requestId);
+		}
+
+		assertEquals(MongoDBAsyncOperationHandler.STATE_COMPLETED, result.get(MongoDBAsyncOperationHandler.EXECUTION_STATE));
+		assertTrue(executed);
+	}
+
 	@SuppressWarnings("deprecation")
 	private void checkIfSubmodelHasBeenPersisted(Identifier smIdentification) {
 		MongoDBSubmodelAPI smAPI = new MongoDBSubmodelAPI(mongoDBConfig, smIdentification.getId());
@@ -25,20 +25,47 @@
 
 package org.eclipse.basyx.regression.AASServer.mongodb;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.components.aas.aggregator.SubmodelElementFileStream;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPI;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.metamodel.map.Submodel;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.LangStrings;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.File;
 import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.MultiLanguageProperty;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 import org.junit.Test;
 
 import com.mongodb.MongoGridFSException;
@@ -47,6 +74,7 @@ import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.gridfs.GridFSBucket;
 import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.model.Filters;
 
 /**
  * Tests the ISubmodelAPI implementation of the MongoDB backend
@@ -72,6 +100,54 @@ public class TestMongoDBSubmodelAPI {
 		assertEquals(expected, value);
 	}
 
+	@Test
+	public void updateNestedPropertyValue() {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+
+		SubmodelElementCollection collection = new SubmodelElementCollection("myCollection");
+		collection.addSubmodelElement(new Property("nestedProp", 1));
+		submodelAPI.addSubmodelElement(collection);
+		submodelAPI.addSubmodelElement(new Property("topLevelProp", "unchanged"));
+
+		submodelAPI.updateSubmodelElement("myCollection/nestedProp", 42);
+
+		assertEquals(42, submodelAPI.getSubmodelElementValue("myCollection/nestedProp"));
+		assertEquals("unchanged", submodelAPI.getSubmodelElementValue("topLevelProp"));
+		assertEquals(2, submodelAPI.getSubmodelElements().size());
+	}
+
+	@Test(expected = ResourceNotFoundException.class)
+	public void updateNotExistingNestedProperty() {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		submodelAPI.addSubmodelElement(new SubmodelElementCollection("myCollection"));
+
+		submodelAPI.updateSubmodelElement("myCollection/notExisting", 42);
+	}
+
+	@Test
+	public void writeBehindUpdatesAreReadFromBufferUntilFlushed() {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+		config.setWriteBehindEnabled(true);
+		config.setWriteBehindInterval(60000);
+		client = MongoClients.create(config.getConnectionUrl());
+		MongoDBTemplatePool templatePool = new MongoDBTemplatePool(client);
+
+		MongoDBSubmodelAPI bufferedAPI = new MongoDBSubmodelAPI(config, "", templatePool);
+		bufferedAPI.setSubmodel(new Submodel("mySubmodel", new CustomId("mySubmodelId")));
+		bufferedAPI.addSubmodelElement(new Property("bufferedProp", 0));
+		MongoDBSubmodelAPI unbufferedAPI = new MongoDBSubmodelAPI("mySubmodelId", client);
+
+		for (int i = 1; i <= 10; i++) {
+			bufferedAPI.updateSubmodelElement("bufferedProp", i);
+		}
+		assertEquals(10, bufferedAPI.getSubmodelElementValue("bufferedProp"));
+		assertEquals(0, unbufferedAPI.getSubmodelElementValue("bufferedProp"));
+
+		templatePool.closeWriteBuffers();
+		assertEquals(10, unbufferedAPI.getSubmodelElementValue("bufferedProp"));
+	}
+
 	@Test
 	public void fileSubmodelElementFileUpload() throws FileNotFoundException {
 		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
@@ -89,6 +165,149 @@ public class TestMongoDBSubmodelAPI {
 		assertEquals(expected.length(), value.length());
 	}
 
+	@Test
+	public void fileSubmodelElementFileIsStreamedFromGridFS() throws IOException {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		uploadDummyFile(submodelAPI, "fileSmeIdShort");
+
+		byte[] expected = Files.readAllBytes(Paths.get("src/test/resources/testfile.xml"));
+		try (SubmodelElementFileStream fileStream = submodelAPI.openSubmodelElementFile("fileSmeIdShort")) {
+			assertEquals("mySubmodelId-fileSmeIdShort.xml", fileStream.getFileName());
+			assertEquals(expected.length, fileStream.getLength());
+
+			// Ranges are served by skipping to their start
+			assertEquals(1, fileStream.skip(1));
+			byte[] rest = new byte[expected.length - 1];
+			int read = 0;
+			while (read < rest.length) {
+				read += fileStream.read(rest, read, rest.length - read);
+			}
+			assertArrayEquals(Arrays.copyOfRange(expected, 1, expected.length), rest);
+		}
+	}
+
+	@Test(expected = ResourceNotFoundException.class)
+	public void streamingMissingFileThrowsResourceNotFound() {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		File file = new File("application/xml");
+		file.setValue("");
+		file.setIdShort("notUploaded");
+		submodelAPI.addSubmodelElement(file);
+
+		submodelAPI.openSubmodelElementFile("notUploaded");
+	}
+
+	@Test
+	public void identicalFilesAreStoredOnce() throws IOException {
+		MongoDBSubmodelAPI firstAPI = createAPIWithPreconfiguredSubmodel();
+		MongoDBSubmodelAPI secondAPI = new MongoDBSubmodelAPI("", client);
+		secondAPI.setSubmodel(new Submodel("mySecondSubmodel", new CustomId("mySecondSubmodelId")));
+
+		byte[] content = createUniqueContent();
+		uploadFile(firstAPI, "dedupFile", content);
+		uploadFile(secondAPI, "dedupFile", content);
+		assertEquals(1, countStoredContents(content));
+
+		// The content is kept until its last reference is removed
+		firstAPI.deleteSubmodelElement("dedupFile");
+		assertArrayEquals(content, readFile(secondAPI, "dedupFile"));
+
+		secondAPI.deleteSubmodelElement("dedupFile");
+		assertEquals(0, countStoredContents(content));
+	}
+
+	@Test
+	public void concurrentIdenticalUploadsAreStoredOnce() throws Exception {
+		MongoDBSubmodelAPI firstAPI = createAPIWithPreconfiguredSubmodel();
+		byte[] content = createUniqueContent();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> uploads = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				String smId = "concurrentUploadSubmodel" + i;
+				MongoDBSubmodelAPI submodelAPI = i == 0 ? firstAPI : new MongoDBSubmodelAPI("", client);
+				if (i > 0) {
+					submodelAPI.setSubmodel(new Submodel(smId, new CustomId(smId)));
+				}
+				uploads.add(executor.submit(() -> uploadFile(submodelAPI, "concurrentFile", content)));
+			}
+			for (Future<?> upload : uploads) {
+				upload.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(1, countStoredContents(content));
+		assertArrayEquals(content, readFile(firstAPI, "concurrentFile"));
+	}
+
+	@Test
+	public void storedContentIsLinkedByHash() throws IOException {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		byte[] content = createUniqueContent();
+		uploadFile(submodelAPI, "uploadedFile", content);
+		addFileElement(submodelAPI, "linkedFile");
+
+		assertFalse(submodelAPI.linkSubmodelElementFile("linkedFile", sha256(createUniqueContent())));
+		assertTrue(submodelAPI.linkSubmodelElementFile("linkedFile", sha256(content)));
+
+		assertArrayEquals(content, readFile(submodelAPI, "linkedFile"));
+		assertEquals("mySubmodelId-linkedFile.xml", submodelAPI.getSubmodelElementValue("linkedFile"));
+		assertEquals(1, countStoredContents(content));
+	}
+
+	@Test
+	public void chunkedUploadCanBeResumed() throws IOException {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		addFileElement(submodelAPI, "fileSmeIdShort");
+
+		byte[] content = createUniqueContent();
+		int half = content.length / 2;
+		String sessionId = submodelAPI.startSubmodelElementFileUpload("fileSmeIdShort");
+		submodelAPI.appendSubmodelElementFileChunk(sessionId, 0, new ByteArrayInputStream(content, 0, half));
+
+		// A chunk at the wrong offset is rejected and the upload resumes where it stopped
+		try {
+			submodelAPI.appendSubmodelElementFileChunk(sessionId, 0, new ByteArrayInputStream(content, 0, half));
+			fail();
+		} catch (MalformedRequestException e) {
+			// Expected
+		}
+		long offset = submodelAPI.getSubmodelElementFileUploadOffset(sessionId);
+		assertEquals(half, offset);
+		submodelAPI.appendSubmodelElementFileChunk(sessionId, offset, new ByteArrayInputStream(content, half, content.length - half));
+		submodelAPI.completeSubmodelElementFileUpload(sessionId);
+
+		assertArrayEquals(content, readFile(submodelAPI, "fileSmeIdShort"));
+	}
+
+	@Test
+	public void appendedChunkExtendsSessionExpiry() throws InterruptedException {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		addFileElement(submodelAPI, "fileSmeIdShort");
+
+		String sessionId = submodelAPI.startSubmodelElementFileUpload("fileSmeIdShort");
+		Date startedExpiry = getUploadSessionExpiry(sessionId);
+		Thread.sleep(10);
+		submodelAPI.appendSubmodelElementFileChunk(sessionId, 0, new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+
+		assertTrue(getUploadSessionExpiry(sessionId).after(startedExpiry));
+	}
+
+	@Test(expected = ResourceNotFoundException.class)
+	public void completedUploadSessionIsRemoved() {
+		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
+		addFileElement(submodelAPI, "fileSmeIdShort");
+
+		String sessionId = submodelAPI.startSubmodelElementFileUpload("fileSmeIdShort");
+		submodelAPI.appendSubmodelElementFileChunk(sessionId, 0, new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+		submodelAPI.completeSubmodelElementFileUpload(sessionId);
+
+		submodelAPI.getSubmodelElementFileUploadOffset(sessionId);
+	}
+
 	@Test(expected = MongoGridFSException.class)
 	public void fileSubmodelElementFileIsAutomaticallyDeleted() throws FileNotFoundException {
 		MongoDBSubmodelAPI submodelAPI = createAPIWithPreconfiguredSubmodel();
@@ -114,6 +333,55 @@ public class TestMongoDBSubmodelAPI {
 		submodelAPI.uploadSubmodelElementFile(idShort, new FileInputStream(dummyFile));
 	}
 
+	private byte[] readFile(MongoDBSubmodelAPI submodelAPI, String idShortPath) throws IOException {
+		try (SubmodelElementFileStream fileStream = submodelAPI.openSubmodelElementFile(idShortPath)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = fileStream.read(buffer)) >= 0) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private void addFileElement(MongoDBSubmodelAPI submodelAPI, String idShort) {
+		File file = new File("application/xml");
+		file.setValue("");
+		file.setIdShort(idShort);
+		submodelAPI.addSubmodelElement(file);
+	}
+
+	private void uploadFile(MongoDBSubmodelAPI submodelAPI, String idShort, byte[] content) {
+		addFileElement(submodelAPI, idShort);
+		submodelAPI.uploadSubmodelElementFile(idShort, new ByteArrayInputStream(content));
+	}
+
+	private byte[] createUniqueContent() {
+		return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private long countStoredContents(byte[] content) {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		MongoDatabase database = client.getDatabase(config.getDatabase());
+		return database.getCollection(config.getFileCollection() + ".files").countDocuments(Filters.eq("metadata.sha256", sha256(content)));
+	}
+
+	private Date getUploadSessionExpiry(String sessionId) {
+		BaSyxMongoDBConfiguration config = new BaSyxMongoDBConfiguration();
+		MongoDatabase database = client.getDatabase(config.getDatabase());
+		return database.getCollection(config.getFileCollection() + ".uploadSessions").find(Filters.eq("_id", sessionId)).first().getDate("expiresAt");
+	}
+
+	private String sha256(byte[] content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+			return String.format("%064x", new BigInteger(1, hash));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private MongoDBSubmodelAPI createAPIWithPreconfiguredSubmodel() {
 		client = MongoClients.create(new BaSyxMongoDBConfiguration().getConnectionUrl());
 		MongoDBSubmodelAPI submodelAPI = new MongoDBSubmodelAPI("", client);
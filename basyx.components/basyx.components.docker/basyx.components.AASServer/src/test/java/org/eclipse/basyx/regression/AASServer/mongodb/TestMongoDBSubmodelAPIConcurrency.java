@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (C) 2023 the Eclipse BaSyx Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.AASServer.mongodb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPI;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
+import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.ISubmodelElement;
+import org.eclipse.basyx.submodel.metamodel.api.submodelelement.ISubmodelElementCollection;
+import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mongodb.client.MongoClients;
+
+/**
+ * Writes the same submodel from many threads in parallel and ensures that no
+ * write is lost
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBSubmodelAPIConcurrency {
+	private static final int THREADS = 16;
+	private static final int ITERATIONS = 20;
+	private static final String SM_ID = "concurrentSubmodelId";
+	private static final String COLLECTION_ID = "collection";
+
+	private ExecutorService executor;
+	private BaSyxMongoDBConfiguration config;
+	private MongoDBTemplatePool templatePool;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(THREADS);
+		config = new BaSyxMongoDBConfiguration();
+		config.loadFromResource(BaSyxMongoDBConfiguration.DEFAULT_CONFIG_PATH);
+		templatePool = new MongoDBTemplatePool(MongoClients.create(config.getConnectionUrl()));
+
+		Submodel sm = new Submodel("concurrentSubmodel", new CustomId(SM_ID));
+		SubmodelElementCollection collection = new SubmodelElementCollection(COLLECTION_ID);
+		for (int thread = 0; thread < THREADS; thread++) {
+			collection.addSubmodelElement(new Property("counter_" + thread, 0));
+		}
+		sm.addSubmodelElement(collection);
+		createAPI().setSubmodel(sm);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void parallelAddsAreNotLost() throws Exception {
+		runInParallel(thread -> {
+			MongoDBSubmodelAPI api = createAPI();
+			for (int i = 0; i < ITERATIONS; i++) {
+				api.addSubmodelElement(new Property("property_" + thread + "_" + i, i));
+				api.addSubmodelElement(COLLECTION_ID + "/nested_" + thread + "_" + i, new Property("nested_" + thread + "_" + i, i));
+			}
+		});
+
+		MongoDBSubmodelAPI api = createAPI();
+		// All properties and the collection
+		assertEquals(THREADS * ITERATIONS + 1, api.getSubmodelElements().size());
+		assertEquals(THREADS + THREADS * ITERATIONS, getCollectionElements(api).size());
+	}
+
+	@Test
+	public void parallelUpdatesAndAddsAreNotLost() throws Exception {
+		runInParallel(thread -> {
+			MongoDBSubmodelAPI api = createAPI();
+			for (int i = 1; i <= ITERATIONS; i++) {
+				api.updateSubmodelElement(COLLECTION_ID + "/counter_" + thread, i);
+				api.addSubmodelElement(COLLECTION_ID + "/nested_" + thread + "_" + i, new Property("nested_" + thread + "_" + i, i));
+			}
+		});
+
+		MongoDBSubmodelAPI api = createAPI();
+		for (int thread = 0; thread < THREADS; thread++) {
+			assertEquals(ITERATIONS, api.getSubmodelElementValue(COLLECTION_ID + "/counter_" + thread));
+		}
+		assertEquals(THREADS + THREADS * ITERATIONS, getCollectionElements(api).size());
+	}
+
+	@Test
+	public void parallelDeletesAreNotLost() throws Exception {
+		runInParallel(thread -> {
+			createAPI().deleteSubmodelElement(COLLECTION_ID + "/counter_" + thread);
+		});
+
+		assertEquals(0, getCollectionElements(createAPI()).size());
+	}
+
+	private static Map<String, ISubmodelElement> getCollectionElements(MongoDBSubmodelAPI api) {
+		return ((ISubmodelElementCollection) api.getSubmodelElement(COLLECTION_ID)).getSubmodelElements();
+	}
+
+	private void runInParallel(ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int threadIndex = thread;
+			futures.add(executor.submit(() -> {
+				start.await();
+				task.run(threadIndex);
+				return null;
+			}));
+		}
+		start.countDown();
+
+		// Rethrows assertion errors and exceptions of the threads
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+	}
+
+	private MongoDBSubmodelAPI createAPI() {
+		return new MongoDBSubmodelAPI(config, SM_ID, templatePool);
+	}
+
+	private interface ThreadTask {
+		void run(int thread) throws Exception;
+	}
+}
@@ -26,17 +26,32 @@
 
 package org.eclipse.basyx.regression.AASServer.mongodb;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPI;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAPIFactory;
 import org.eclipse.basyx.components.aas.mongodb.MongoDBSubmodelAggregator;
+import org.eclipse.basyx.components.aas.mongodb.MongoDBTemplatePool;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.submodel.aggregator.api.ISubmodelAggregator;
 import org.eclipse.basyx.submodel.metamodel.map.Submodel;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.SubmodelElementCollection;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.File;
+import org.eclipse.basyx.submodel.metamodel.map.submodelelement.dataelement.property.Property;
+import org.eclipse.basyx.submodel.restapi.api.ISubmodelAPI;
 import org.eclipse.basyx.testsuite.regression.submodel.aggregator.SubmodelAggregatorSuite;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -44,6 +59,7 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.Filters;
 
 public class TestMongoDBSubmodelAggregator extends SubmodelAggregatorSuite {
 
@@ -72,6 +88,97 @@ public class TestMongoDBSubmodelAggregator extends SubmodelAggregatorSuite {
 		assertSubmodelDoesNotExist(toDelete);
 	}
 
+	@Test
+	public void bufferedUpdateDoesNotRestoreDeletedSubmodel() {
+		BaSyxMongoDBConfiguration config = getMongoDBConfiguration();
+		config.setWriteBehindEnabled(true);
+		config.setWriteBehindInterval(60000);
+		MongoClient client = MongoClients.create(config.getConnectionUrl());
+		MongoDBSubmodelAggregator bufferedAggregator = new MongoDBSubmodelAggregator(new MongoDBSubmodelAPIFactory(config, client), config, client);
+
+		Submodel toDelete = new Submodel("bufferedIdShort", new CustomId("bufferedDeleteMe"));
+		toDelete.addSubmodelElement(new Property("bufferedProp", 0));
+		bufferedAggregator.createSubmodel(toDelete);
+		bufferedAggregator.getSubmodelAPIById(toDelete.getIdentification()).updateSubmodelElement("bufferedProp", 1);
+
+		bufferedAggregator.deleteSubmodelByIdentifier(toDelete.getIdentification());
+		MongoDBTemplatePool.getShared(client).closeWriteBuffers();
+
+		assertSubmodelDoesNotExist(toDelete);
+	}
+
+	@Test
+	public void deletedSubmodelReleasesItsFiles() {
+		Submodel toDelete = new Submodel("filesIdShort", new CustomId("filesDeleteMe"));
+		toDelete.addSubmodelElement(createFileElement("topFile"));
+		SubmodelElementCollection collection = new SubmodelElementCollection("files");
+		collection.addSubmodelElement(createFileElement("nestedFile"));
+		toDelete.addSubmodelElement(collection);
+		aggregator.createSubmodel(toDelete);
+
+		byte[] topContent = createUniqueContent();
+		byte[] nestedContent = createUniqueContent();
+		ISubmodelAPI submodelAPI = aggregator.getSubmodelAPIById(toDelete.getIdentification());
+		submodelAPI.uploadSubmodelElementFile("topFile", new ByteArrayInputStream(topContent));
+		submodelAPI.uploadSubmodelElementFile("files/nestedFile", new ByteArrayInputStream(nestedContent));
+		assertEquals(1, countStoredContents(topContent));
+		assertEquals(1, countStoredContents(nestedContent));
+
+		aggregator.deleteSubmodelByIdentifier(toDelete.getIdentification());
+
+		assertEquals(0, countStoredContents(topContent));
+		assertEquals(0, countStoredContents(nestedContent));
+	}
+
+	@Test
+	public void indexesAreEnsuredOncePerPool() {
+		BaSyxMongoDBConfiguration config = getMongoDBConfiguration();
+		MongoClient client = MongoClients.create(config.getConnectionUrl());
+		createAggregator(config, client);
+		MongoDBTemplatePool templatePool = MongoDBTemplatePool.getShared(client);
+		templatePool.getTemplate(config.getDatabase()).indexOps(config.getSubmodelCollection()).dropAllIndexes();
+
+		// A submodel aggregator is created per AAS, these do not create the indexes
+		// again
+		assertFalse(hasUniqueIdIndex(createAggregator(config, client)));
+
+		templatePool.forgetIndexes(config.getDatabase(), config.getSubmodelCollection());
+		assertTrue(hasUniqueIdIndex(createAggregator(config, client)));
+	}
+
+	private MongoDBSubmodelAggregator createAggregator(BaSyxMongoDBConfiguration config, MongoClient client) {
+		return new MongoDBSubmodelAggregator(new MongoDBSubmodelAPIFactory(config, client), config, client);
+	}
+
+	private boolean hasUniqueIdIndex(MongoDBSubmodelAggregator aggregator) {
+		return aggregator.getIndexInfo().stream().anyMatch(index -> index.isUnique() && index.isIndexForFields(Arrays.asList(MongoDBSubmodelAPI.SMIDPATH)));
+	}
+
+	private File createFileElement(String idShort) {
+		File file = new File("application/xml");
+		file.setValue("");
+		file.setIdShort(idShort);
+		return file;
+	}
+
+	private byte[] createUniqueContent() {
+		return UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private long countStoredContents(byte[] content) {
+		BaSyxMongoDBConfiguration config = getMongoDBConfiguration();
+		return getMongoTemplate(config).getCollection(config.getFileCollection() + ".files").countDocuments(Filters.eq("metadata.sha256", sha256(content)));
+	}
+
+	private String sha256(byte[] content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+			return String.format("%064x", new BigInteger(1, hash));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private void assertSubmodelDoesNotExist(Submodel toDelete) {
 		BaSyxMongoDBConfiguration config = getMongoDBConfiguration();
 
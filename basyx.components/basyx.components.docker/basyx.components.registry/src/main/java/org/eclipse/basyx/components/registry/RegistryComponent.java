@@ -45,9 +45,11 @@ import org.eclipse.basyx.components.registry.mqtt.MqttRegistryFactory;
 import org.eclipse.basyx.components.registry.mqtt.MqttTaggedDirectoryFactory;
 import org.eclipse.basyx.components.registry.mqtt.MqttV2RegistryFactory;
 import org.eclipse.basyx.components.registry.mqtt.MqttV2TaggedDirectoryFactory;
+import org.eclipse.basyx.components.registry.paging.IPagedAASRegistry;
 import org.eclipse.basyx.components.registry.servlet.RegistryServlet;
 import org.eclipse.basyx.components.registry.servlet.TaggedDirectoryServlet;
 import org.eclipse.basyx.components.registry.sql.SQLRegistry;
+import org.eclipse.basyx.components.registry.tagging.ITagQueryDirectory;
 import org.eclipse.basyx.components.security.authorization.internal.AuthorizationDynamicClassLoader;
 import org.eclipse.basyx.components.security.authorization.internal.IJwtBearerTokenAuthenticationConfigurationProvider;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.IAASTaggedDirectory;
@@ -256,7 +258,18 @@ public class RegistryComponent implements IComponent {
 
 		IAASRegistry registryBackend = createRegistryBackend();
 		IAASRegistry decoratedRegistry = decorate(registryBackend);
-		return new RegistryServlet(decoratedRegistry);
+		return new RegistryServlet(decoratedRegistry, getPagedRegistry(registryBackend));
+	}
+
+	/**
+	 * Paged listings are read from the backend directly. This is not possible with
+	 * authorization, since it would bypass the authorization decorator.
+	 */
+	private IPagedAASRegistry getPagedRegistry(IAASRegistry registryBackend) {
+		if (registryConfig.isAuthorizationEnabled() || !(registryBackend instanceof IPagedAASRegistry)) {
+			return null;
+		}
+		return (IPagedAASRegistry) registryBackend;
 	}
 
 	private HttpServlet createTaggedRegistryServlet() {
@@ -271,7 +284,18 @@ public class RegistryComponent implements IComponent {
 			taggedDirectory = new MapTaggedDirectory(new HashedMap<>(), new HashedMap<>());
 		}
 		IAASTaggedDirectory decoratedDirectory = decorateTaggedDirectory(taggedDirectory);
-		return new TaggedDirectoryServlet(decoratedDirectory);
+		return new TaggedDirectoryServlet(decoratedDirectory, getTagQueryDirectory(taggedDirectory));
+	}
+
+	/**
+	 * Tag queries are answered by the backend directly. This is not possible with
+	 * authorization, since it would bypass the authorization decorator.
+	 */
+	private ITagQueryDirectory getTagQueryDirectory(IAASTaggedDirectory taggedDirectory) {
+		if (registryConfig.isAuthorizationEnabled() || !(taggedDirectory instanceof ITagQueryDirectory)) {
+			return null;
+		}
+		return (ITagQueryDirectory) taggedDirectory;
 	}
 
 	private IAASTaggedDirectory decorateTaggedDirectory(IAASTaggedDirectory taggedDirectory) {
@@ -340,6 +364,10 @@ public class RegistryComponent implements IComponent {
 		logger.info("Creating MongoDBRegistry");
 		final BaSyxMongoDBConfiguration mongoDBConfiguration = loadMongoDBConfiguration();
 		try (final var ignored = ElevatedCodeAuthentication.enterElevatedCodeAuthenticationArea()) {
+			if (registryConfig.isCacheEnabled()) {
+				logger.info("Enable descriptor cache for MongoDBRegistry");
+				return new MongoDBRegistry(mongoDBConfiguration, registryConfig.getCacheSize(), registryConfig.getCacheTTL());
+			}
 			return new MongoDBRegistry(mongoDBConfiguration);
 		}
 	}
@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.caching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.registration.memory.IRegistryHandler;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
+import org.eclipse.basyx.submodel.metamodel.map.qualifier.Identifiable;
+
+/**
+ * Size bounded, write-through cache in front of another
+ * {@link IRegistryHandler}. Descriptors are indexed by AAS id and by asset id
+ * and the least recently used descriptor is evicted. Several Shells may share
+ * an asset id. Lookups of such an asset id are read from the backend, so that
+ * they return the same descriptor as the backend.
+ * 
+ * Without a TTL, the cache assumes that all writes go through it. Then, as long
+ * as no descriptor has been evicted after loading all descriptors,
+ * {@link #getAll()} and lookups of unknown ids are served from the cache, too.
+ * With a TTL, other registry instances may write to the same backend. Cached
+ * descriptors expire after the TTL, so that writes of other instances are
+ * visible after at most the TTL, and unknown ids and {@link #getAll()} are
+ * always read from the backend.
+ * 
+ * @author espen
+ *
+ */
+public class CachingRegistryHandler implements IRegistryHandler {
+	private final IRegistryHandler handler;
+	private final long ttlMillis;
+	private final Map<String, CachedDescriptor> byAASId;
+	private final Map<String, Set<String>> aasIdsByAssetId = new HashMap<>();
+
+	// True, if the cache contains all descriptors of the backend
+	private boolean complete = false;
+
+	// Incremented on each write to detect loads and writes that raced with another
+	// write
+	private long writeStamp = 0;
+
+	/**
+	 * Creates a cache that is the only writer of the backend, its descriptors do
+	 * not expire
+	 * 
+	 * @param handler
+	 * @param maxSize
+	 */
+	public CachingRegistryHandler(IRegistryHandler handler, int maxSize) {
+		this(handler, maxSize, 0);
+	}
+
+	/**
+	 * Creates a cache whose descriptors expire after ttlMillis. If ttlMillis is 0,
+	 * the cache has to be the only writer of the backend.
+	 * 
+	 * @param handler
+	 * @param maxSize
+	 * @param ttlMillis
+	 */
+	public CachingRegistryHandler(IRegistryHandler handler, int maxSize, long ttlMillis) {
+		this.handler = handler;
+		this.ttlMillis = ttlMillis;
+		this.byAASId = new LinkedHashMap<String, CachedDescriptor>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedDescriptor> eldest) {
+				if (size() <= maxSize) {
+					return false;
+				}
+				removeAssetId(eldest.getValue().descriptor);
+				complete = false;
+				return true;
+			}
+		};
+	}
+
+	@Override
+	public boolean contains(IIdentifier identifier) {
+		synchronized (this) {
+			if (lookup(identifier.getId()) != null) {
+				return true;
+			}
+			if (complete) {
+				return false;
+			}
+		}
+		return handler.contains(identifier);
+	}
+
+	@Override
+	public void remove(IIdentifier identifier) {
+		boolean isCachedAASId;
+		synchronized (this) {
+			isCachedAASId = byAASId.containsKey(identifier.getId());
+		}
+		long stamp = invalidate(identifier);
+		handler.remove(identifier);
+		synchronized (this) {
+			// The backend may remove several descriptors by asset id, so the cache is only
+			// complete afterwards if a single cached Shell has been removed
+			if (!isCachedAASId || stamp != writeStamp) {
+				complete = false;
+			}
+		}
+	}
+
+	@Override
+	public void insert(AASDescriptor descriptor) {
+		long stamp = invalidate(descriptor.getIdentifier());
+		handler.insert(descriptor);
+		putIfUnchanged(descriptor, stamp);
+	}
+
+	@Override
+	public void update(AASDescriptor descriptor) {
+		long stamp = invalidate(descriptor.getIdentifier());
+		handler.update(descriptor);
+		putIfUnchanged(descriptor, stamp);
+	}
+
+	@Override
+	public AASDescriptor get(IIdentifier identifier) {
+		long stamp;
+		synchronized (this) {
+			AASDescriptor cached = lookup(identifier.getId());
+			boolean ambiguous = getCachedAASIds(identifier.getId()).size() > 1;
+			if (cached != null && !ambiguous) {
+				return copy(cached);
+			}
+			if (complete && !ambiguous) {
+				return null;
+			}
+			stamp = writeStamp;
+		}
+
+		AASDescriptor loaded = handler.get(identifier);
+		if (loaded != null) {
+			synchronized (this) {
+				if (stamp == writeStamp) {
+					put(copy(loaded));
+				}
+			}
+		}
+		return loaded;
+	}
+
+	@Override
+	public List<AASDescriptor> getAll() {
+		long stamp;
+		synchronized (this) {
+			if (complete) {
+				return byAASId.values().stream().map(cached -> copy(cached.descriptor)).collect(Collectors.toList());
+			}
+			stamp = writeStamp;
+		}
+
+		List<AASDescriptor> loaded = handler.getAll();
+		synchronized (this) {
+			if (stamp == writeStamp) {
+				loaded.forEach(descriptor -> put(copy(descriptor)));
+				// Other writers may register descriptors at any time, so only the only writer
+				// knows all of them
+				complete = !hasOtherWriters() && byAASId.size() == loaded.size();
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Removes the descriptor with the given AAS id or all descriptors with the
+	 * given asset id from the cache, e.g. because they have been changed without
+	 * this handler
+	 * 
+	 * @param identifier
+	 * @return the write stamp after the invalidation
+	 */
+	public synchronized long invalidate(IIdentifier identifier) {
+		writeStamp++;
+		for (String aasId : getCachedAASIds(identifier.getId())) {
+			CachedDescriptor cached = byAASId.remove(aasId);
+			if (cached != null) {
+				removeAssetId(cached.descriptor);
+			}
+		}
+		return writeStamp;
+	}
+
+	public synchronized void clear() {
+		writeStamp++;
+		byAASId.clear();
+		aasIdsByAssetId.clear();
+		complete = false;
+	}
+
+	public synchronized int size() {
+		return byAASId.size();
+	}
+
+	private boolean hasOtherWriters() {
+		return ttlMillis > 0;
+	}
+
+	private void putIfUnchanged(AASDescriptor descriptor, long stamp) {
+		synchronized (this) {
+			if (stamp == writeStamp) {
+				put(copy(descriptor));
+			} else {
+				// Another write may have been applied in between, so the written descriptor
+				// can not be cached
+				complete = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns a cached descriptor with the given AAS id or asset id. Expired
+	 * descriptors are removed.
+	 */
+	private AASDescriptor lookup(String id) {
+		AASDescriptor found = null;
+		for (String aasId : getCachedAASIds(id)) {
+			CachedDescriptor cached = byAASId.get(aasId);
+			if (cached == null) {
+				continue;
+			}
+			if (cached.isExpired()) {
+				byAASId.remove(aasId);
+				removeAssetId(cached.descriptor);
+			} else if (found == null) {
+				found = cached.descriptor;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the AAS ids of the cached descriptors with the given AAS id or asset
+	 * id
+	 */
+	private List<String> getCachedAASIds(String id) {
+		if (byAASId.containsKey(id)) {
+			return Collections.singletonList(id);
+		}
+		return new ArrayList<>(aasIdsByAssetId.getOrDefault(id, Collections.emptySet()));
+	}
+
+	private void put(AASDescriptor descriptor) {
+		long expiresAt = hasOtherWriters() ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+		CachedDescriptor previous = byAASId.put(descriptor.getIdentifier().getId(), new CachedDescriptor(descriptor, expiresAt));
+		if (previous != null) {
+			removeAssetId(previous.descriptor);
+		}
+		String assetId = getAssetId(descriptor);
+		if (assetId != null) {
+			aasIdsByAssetId.computeIfAbsent(assetId, key -> new LinkedHashSet<>()).add(descriptor.getIdentifier().getId());
+		}
+	}
+
+	private void removeAssetId(AASDescriptor descriptor) {
+		String assetId = getAssetId(descriptor);
+		Set<String> aasIds = assetId == null ? null : aasIdsByAssetId.get(assetId);
+		if (aasIds != null) {
+			aasIds.remove(descriptor.getIdentifier().getId());
+			if (aasIds.isEmpty()) {
+				aasIdsByAssetId.remove(assetId);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String getAssetId(AASDescriptor descriptor) {
+		Object asset = descriptor.get(AASDescriptor.ASSET);
+		if (!(asset instanceof Map<?, ?>)) {
+			return null;
+		}
+		Object identification = ((Map<String, Object>) asset).get(Identifiable.IDENTIFICATION);
+		if (!(identification instanceof Map<?, ?>)) {
+			return null;
+		}
+		Object id = ((Map<String, Object>) identification).get(Identifier.ID);
+		return id == null ? null : id.toString();
+	}
+
+	/**
+	 * Descriptors are mutable maps, e.g. submodel descriptors are added to the
+	 * descriptor returned by {@link #get(IIdentifier)}. Therefore, the cache only
+	 * hands out and stores deep copies.
+	 */
+	@SuppressWarnings("unchecked")
+	private static AASDescriptor copy(AASDescriptor descriptor) {
+		return new AASDescriptor((Map<String, Object>) deepCopy(descriptor));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object deepCopy(Object value) {
+		if (value instanceof Map<?, ?>) {
+			Map<String, Object> copy = new LinkedHashMap<>();
+			((Map<String, Object>) value).forEach((key, entry) -> copy.put(key, deepCopy(entry)));
+			return copy;
+		}
+		if (value instanceof Set<?>) {
+			Set<Object> copy = new LinkedHashSet<>();
+			((Set<Object>) value).forEach(entry -> copy.add(deepCopy(entry)));
+			return copy;
+		}
+		if (value instanceof Collection<?>) {
+			List<Object> copy = new ArrayList<>();
+			((Collection<Object>) value).forEach(entry -> copy.add(deepCopy(entry)));
+			return copy;
+		}
+		return value;
+	}
+
+	private static class CachedDescriptor {
+		private final AASDescriptor descriptor;
+		private final long expiresAt;
+
+		public CachedDescriptor(AASDescriptor descriptor, long expiresAt) {
+			this.descriptor = descriptor;
+			this.expiresAt = expiresAt;
+		}
+
+		public boolean isExpired() {
+			return System.currentTimeMillis() > expiresAt;
+		}
+	}
+}
@@ -49,6 +49,9 @@ public class BaSyxRegistryConfiguration extends BaSyxConfiguration {
 	public static final String DEFAULT_EVENTS = RegistryEventBackend.NONE.toString();
 	public static final String DEFAULT_AUTHORIZATION = FEATURE_DISABLED;
 	public static final String DEFAULT_TAGGED_DIRECTORY = FEATURE_DISABLED;
+	public static final String DEFAULT_CACHE = FEATURE_DISABLED;
+	public static final String DEFAULT_CACHE_SIZE = "10000";
+	public static final String DEFAULT_CACHE_TTL = "60000";
 
 	// Configuration keys
 	public static final String ID = "registry.id";
@@ -56,6 +59,9 @@ public class BaSyxRegistryConfiguration extends BaSyxConfiguration {
 	public static final String EVENTS = "registry.events";
 	public static final String AUTHORIZATION = "registry.authorization";
 	private static final String TAGGED_DIRECTORY = "registry.taggedDirectory";
+	public static final String CACHE = "registry.cache";
+	public static final String CACHE_SIZE = "registry.cache.size";
+	public static final String CACHE_TTL = "registry.cache.ttl";
 
 	// The default path for the context properties file
 	public static final String DEFAULT_CONFIG_PATH = "registry.properties";
@@ -69,6 +75,9 @@ public class BaSyxRegistryConfiguration extends BaSyxConfiguration {
 		defaultProps.put(EVENTS, DEFAULT_EVENTS);
 		defaultProps.put(AUTHORIZATION, DEFAULT_AUTHORIZATION);
 		defaultProps.put(TAGGED_DIRECTORY, DEFAULT_TAGGED_DIRECTORY);
+		defaultProps.put(CACHE, DEFAULT_CACHE);
+		defaultProps.put(CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		defaultProps.put(CACHE_TTL, DEFAULT_CACHE_TTL);
 		return defaultProps;
 	}
 
@@ -86,7 +95,7 @@ public class BaSyxRegistryConfiguration extends BaSyxConfiguration {
 	}
 
 	public void loadFromEnvironmentVariables() {
-		loadFromEnvironmentVariables(ENV_PREFIX, BACKEND, EVENTS, AUTHORIZATION, TAGGED_DIRECTORY, ID);
+		loadFromEnvironmentVariables(ENV_PREFIX, BACKEND, EVENTS, AUTHORIZATION, TAGGED_DIRECTORY, ID, CACHE, CACHE_SIZE, CACHE_TTL);
 	}
 
 	public void loadFromDefaultSource() {
@@ -137,4 +146,44 @@ public class BaSyxRegistryConfiguration extends BaSyxConfiguration {
 	public void disableTaggedDirectory() {
 		setProperty(TAGGED_DIRECTORY, FEATURE_DISABLED);
 	}
+
+	/**
+	 * If enabled, descriptors of the MongoDB backend are cached in-process. See
+	 * {@link #getCacheTTL()} for registries sharing the backend.
+	 */
+	public boolean isCacheEnabled() {
+		return FEATURE_ENABLED.equals(getProperty(CACHE));
+	}
+
+	public void enableCache() {
+		setProperty(CACHE, FEATURE_ENABLED);
+	}
+
+	public void disableCache() {
+		setProperty(CACHE, FEATURE_DISABLED);
+	}
+
+	public int getCacheSize() {
+		String size = getProperty(CACHE_SIZE);
+		return size == null ? Integer.parseInt(DEFAULT_CACHE_SIZE) : Integer.parseInt(size);
+	}
+
+	public void setCacheSize(int size) {
+		setProperty(CACHE_SIZE, Integer.toString(size));
+	}
+
+	/**
+	 * Cached descriptors expire after this number of milliseconds, so that changes
+	 * of other registries on the same backend become visible. 0 disables the
+	 * expiry and is only suitable if this registry is the only writer of the
+	 * backend.
+	 */
+	public long getCacheTTL() {
+		String ttl = getProperty(CACHE_TTL);
+		return ttl == null ? Long.parseLong(DEFAULT_CACHE_TTL) : Long.parseLong(ttl);
+	}
+
+	public void setCacheTTL(long ttlMillis) {
+		setProperty(CACHE_TTL, Long.toString(ttlMillis));
+	}
 }
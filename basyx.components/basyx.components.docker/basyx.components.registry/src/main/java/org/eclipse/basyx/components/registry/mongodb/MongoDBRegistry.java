@@ -1,15 +1,30 @@
 package org.eclipse.basyx.components.registry.mongodb;
 
+import java.util.function.Consumer;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
 import org.eclipse.basyx.aas.registration.memory.AASRegistry;
+import org.eclipse.basyx.aas.registration.memory.IRegistryHandler;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.components.registry.caching.CachingRegistryHandler;
+import org.eclipse.basyx.components.registry.paging.DescriptorFilter;
+import org.eclipse.basyx.components.registry.paging.IPagedAASRegistry;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
 
 /**
- * Wrapper class for AASRegistry with MongoDB backend
+ * Wrapper class for AASRegistry with MongoDB backend. Registering and deleting
+ * a Shell are single requests to the database instead of checking the
+ * existence of the Shell first. Optionally, descriptors are cached in-process
+ * by a {@link CachingRegistryHandler}.
  * 
  * @author espen
  *
  */
-public class MongoDBRegistry extends AASRegistry {
+public class MongoDBRegistry extends AASRegistry implements IPagedAASRegistry {
+	private IRegistryHandler registryHandler;
+	private MongoDBRegistryHandler mongoDBHandler;
+	private CachingRegistryHandler cache;
 
 	/**
 	 * Constructor for initializing the registry with a mongoDB config
@@ -17,6 +32,99 @@ public class MongoDBRegistry extends AASRegistry {
 	 * @param mongoDBConfig
 	 */
 	public MongoDBRegistry(BaSyxMongoDBConfiguration mongoDBConfig) {
-		super(new MongoDBRegistryHandler(mongoDBConfig));
+		this(new MongoDBRegistryHandler(mongoDBConfig));
+	}
+
+	/**
+	 * Constructor for initializing the registry with an existing handler
+	 * 
+	 * @param handler
+	 */
+	public MongoDBRegistry(MongoDBRegistryHandler handler) {
+		super(handler);
+		this.registryHandler = handler;
+		this.mongoDBHandler = handler;
+	}
+
+	/**
+	 * Constructor for initializing the registry with a mongoDB config and a
+	 * descriptor cache holding at most cacheSize descriptors. The cache assumes
+	 * that this registry is the only writer of the database.
+	 * 
+	 * @param mongoDBConfig
+	 * @param cacheSize
+	 */
+	public MongoDBRegistry(BaSyxMongoDBConfiguration mongoDBConfig, int cacheSize) {
+		this(new MongoDBRegistryHandler(mongoDBConfig), cacheSize);
+	}
+
+	/**
+	 * Constructor for initializing the registry with an existing handler and a
+	 * descriptor cache holding at most cacheSize descriptors. The cache assumes
+	 * that this registry is the only writer of the database.
+	 * 
+	 * @param handler
+	 * @param cacheSize
+	 */
+	public MongoDBRegistry(MongoDBRegistryHandler handler, int cacheSize) {
+		this(handler, new CachingRegistryHandler(handler, cacheSize));
+	}
+
+	/**
+	 * Constructor for initializing the registry with a mongoDB config and a
+	 * descriptor cache holding at most cacheSize descriptors for cacheTTL
+	 * milliseconds. Use a TTL if other registries write to the same database.
+	 * 
+	 * @param mongoDBConfig
+	 * @param cacheSize
+	 * @param cacheTTL
+	 */
+	public MongoDBRegistry(BaSyxMongoDBConfiguration mongoDBConfig, int cacheSize, long cacheTTL) {
+		this(new MongoDBRegistryHandler(mongoDBConfig), cacheSize, cacheTTL);
+	}
+
+	/**
+	 * Constructor for initializing the registry with an existing handler and a
+	 * descriptor cache holding at most cacheSize descriptors for cacheTTL
+	 * milliseconds
+	 * 
+	 * @param handler
+	 * @param cacheSize
+	 * @param cacheTTL
+	 */
+	public MongoDBRegistry(MongoDBRegistryHandler handler, int cacheSize, long cacheTTL) {
+		this(handler, new CachingRegistryHandler(handler, cacheSize, cacheTTL));
+	}
+
+	private MongoDBRegistry(MongoDBRegistryHandler handler, CachingRegistryHandler cache) {
+		super(cache);
+		this.registryHandler = cache;
+		this.mongoDBHandler = handler;
+		this.cache = cache;
+	}
+
+	@Override
+	public void register(AASDescriptor deviceAASDescriptor) {
+		// Updating is an upsert for MongoDB
+		registryHandler.update(deviceAASDescriptor);
+	}
+
+	@Override
+	public void delete(IIdentifier aasId) {
+		if (cache != null) {
+			// The existence check is usually answered by the cache, and the removal has to
+			// go through it
+			super.delete(aasId);
+			return;
+		}
+		if (!mongoDBHandler.removeIfExists(aasId)) {
+			throw new ResourceNotFoundException("AAS with Identifier " + aasId.getId() + " does not exist");
+		}
+	}
+
+	@Override
+	public void streamDescriptors(DescriptorFilter filter, String cursor, int limit, Consumer<AASDescriptor> consumer) {
+		// Always read from the database, since the cache may not hold all descriptors
+		mongoDBHandler.streamDescriptors(filter, cursor, limit, consumer);
 	}
 }
@@ -27,20 +27,38 @@ package org.eclipse.basyx.components.registry.mongodb;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
 import org.eclipse.basyx.aas.registration.memory.IRegistryHandler;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.components.registry.paging.DescriptorFilter;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
 import org.eclipse.basyx.submodel.metamodel.map.identifier.Identifier;
 import org.eclipse.basyx.submodel.metamodel.map.qualifier.Identifiable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.result.DeleteResult;
 
 /**
  * A registry handler based on MongoDB
@@ -48,6 +66,7 @@ import com.mongodb.client.MongoClients;
  * @author espen
  */
 public class MongoDBRegistryHandler implements IRegistryHandler {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBRegistryHandler.class);
 	private static final String DEFAULT_CONFIG_PATH = "mongodb.properties";
 
 	protected BaSyxMongoDBConfiguration config;
@@ -56,6 +75,9 @@ public class MongoDBRegistryHandler implements IRegistryHandler {
 
 	private static final String AASID = Identifiable.IDENTIFICATION + "." + Identifier.ID;
 	private static final String ASSETID = AASDescriptor.ASSET + "." + Identifiable.IDENTIFICATION + "." + Identifier.ID;
+	private static final String ASSETKIND = AASDescriptor.ASSET + "." + DescriptorFilter.KIND;
+	private static final String SEMANTICID = DescriptorFilter.SUBMODELS + "." + DescriptorFilter.SEMANTICID + "." + DescriptorFilter.KEYS + "." + DescriptorFilter.VALUE;
+	private static final String ENDPOINTADDRESS = DescriptorFilter.ENDPOINTS + "." + DescriptorFilter.ADDRESS;
 
 	/**
 	 * Receives the path of the configuration.properties file in it's constructor.
@@ -88,22 +110,58 @@ public class MongoDBRegistryHandler implements IRegistryHandler {
 		MongoClient client = MongoClients.create(config.getConnectionUrl());
 		this.mongoOps = new MongoTemplate(client, config.getDatabase());
 		this.collection = config.getRegistryCollection();
+		if (config.isIndexCreationEnabled()) {
+			ensureIndexes();
+		}
+	}
+
+	/**
+	 * Creates the indexes for the lookups by AAS id, asset id and submodel
+	 * semantic id. Failures, e.g.
+	 * because existing descriptors violate the unique index, are logged and do not
+	 * prevent the startup.
+	 */
+	protected void ensureIndexes() {
+		IndexOperations indexOps = mongoOps.indexOps(collection);
+		for (IndexDefinition index : Arrays.asList(new Index().on(AASID, Direction.ASC).unique(), new Index().on(ASSETID, Direction.ASC), new Index().on(SEMANTICID, Direction.ASC))) {
+			try {
+				indexOps.ensureIndex(index);
+			} catch (DataAccessException e) {
+				logger.warn("Could not create index " + index.getIndexKeys().toJson() + " on collection " + collection + ": " + e.getMessage());
+			}
+		}
+		logger.info("Indexes of collection " + collection + ": " + getIndexInfo());
+	}
+
+	/**
+	 * Returns the indexes that currently exist on the registry collection
+	 * 
+	 * @return
+	 */
+	public List<IndexInfo> getIndexInfo() {
+		return mongoOps.indexOps(collection).getIndexInfo();
 	}
 
 	@Override
 	public boolean contains(IIdentifier identifier) {
-		String id = identifier.getId();
-		Criteria hasId = new Criteria();
-		hasId.orOperator(where(AASID).is(id), where(ASSETID).is(id));
-		return mongoOps.exists(query(hasId), collection);
+		return mongoOps.exists(query(hasAASOrAssetId(identifier)), collection);
 	}
 
 	@Override
 	public void remove(IIdentifier identifier) {
-		String id = identifier.getId();
-		Criteria hasId = new Criteria();
-		hasId.orOperator(where(AASID).is(id), where(ASSETID).is(id));
-		mongoOps.remove(query(hasId), collection);
+		mongoOps.remove(query(hasAASOrAssetId(identifier)), collection);
+	}
+
+	/**
+	 * Removes the descriptor with a single request, instead of checking its
+	 * existence first
+	 * 
+	 * @param identifier
+	 * @return true, if a descriptor has been removed
+	 */
+	public boolean removeIfExists(IIdentifier identifier) {
+		DeleteResult result = mongoOps.remove(query(hasAASOrAssetId(identifier)), collection);
+		return result.getDeletedCount() > 0;
 	}
 
 	@Override
@@ -115,24 +173,92 @@ public class MongoDBRegistryHandler implements IRegistryHandler {
 
 	@Override
 	public void update(AASDescriptor descriptor) {
+		upsert(descriptor);
+	}
+
+	/**
+	 * Replaces the descriptor with the same AAS id or inserts it, if it does not
+	 * exist yet. Both is done with a single request.
+	 * 
+	 * @param descriptor
+	 */
+	public void upsert(AASDescriptor descriptor) {
 		String aasId = descriptor.getIdentifier().getId();
-		Object result = mongoOps.findAndReplace(query(where(AASID).is(aasId)), descriptor, collection);
-		if (result == null) {
-			insert(descriptor);
+		try {
+			mongoOps.findAndReplace(query(where(AASID).is(aasId)), descriptor, FindAndReplaceOptions.options().upsert(), collection);
+		} catch (DuplicateKeyException e) {
+			// A concurrent upsert has inserted the descriptor in the meantime, so it can be
+			// replaced now
+			mongoOps.findAndReplace(query(where(AASID).is(aasId)), descriptor, collection);
 		}
 	}
 
 	@Override
 	public AASDescriptor get(IIdentifier identifier) {
-		String id = identifier.getId();
-		Criteria hasId = new Criteria();
-		hasId.orOperator(where(AASID).is(id), where(ASSETID).is(id));
-		AASDescriptor result = mongoOps.findOne(query(hasId), AASDescriptor.class, collection);
+		AASDescriptor result = mongoOps.findOne(query(hasAASOrAssetId(identifier)), AASDescriptor.class, collection);
 		removeMongoDBSpecificId(result);
 		
 		return result;
 	}
 
+	/**
+	 * Returns the descriptors with the given AAS ids with a single query
+	 * 
+	 * @param aasIds
+	 * @return
+	 */
+	public List<AASDescriptor> getAll(Collection<String> aasIds) {
+		List<AASDescriptor> result = mongoOps.find(query(where(AASID).in(aasIds)), AASDescriptor.class, collection);
+		result.forEach(this::removeMongoDBSpecificId);
+		return result;
+	}
+
+	/**
+	 * Matches descriptors by AAS id or asset id. Both fields are indexed, so the
+	 * $or is answered by the two indexes instead of a collection scan.
+	 */
+	private Criteria hasAASOrAssetId(IIdentifier identifier) {
+		String id = identifier.getId();
+		return new Criteria().orOperator(where(AASID).is(id), where(ASSETID).is(id));
+	}
+
+	/**
+	 * Passes the descriptors matching the filter ordered by their AAS id to the
+	 * consumer. The filter and the page are both part of the query, so only the
+	 * descriptors of the page are read from the database.
+	 * 
+	 * @param filter
+	 * @param cursor
+	 *            AAS id after which the listing starts, or null
+	 * @param limit
+	 *            Maximum number of descriptors, or 0 for no limit
+	 * @param consumer
+	 */
+	public void streamDescriptors(DescriptorFilter filter, String cursor, int limit, Consumer<AASDescriptor> consumer) {
+		Query page = new Query();
+		if (cursor != null) {
+			page.addCriteria(where(AASID).gt(cursor));
+		}
+		if (filter.getAssetKind() != null) {
+			page.addCriteria(where(ASSETKIND).is(filter.getAssetKind()));
+		}
+		if (filter.getSemanticId() != null) {
+			page.addCriteria(where(SEMANTICID).is(filter.getSemanticId()));
+		}
+		if (filter.getEndpointHost() != null) {
+			page.addCriteria(where(ENDPOINTADDRESS).regex(filter.getEndpointHostPattern()));
+		}
+		page.with(Sort.by(AASID)).limit(limit);
+
+		try (CloseableIterator<AASDescriptor> iterator = mongoOps.stream(page, AASDescriptor.class, collection)) {
+			while (iterator.hasNext()) {
+				AASDescriptor descriptor = iterator.next();
+				removeMongoDBSpecificId(descriptor);
+				consumer.accept(descriptor);
+			}
+		}
+	}
+
 	private void removeMongoDBSpecificId(AASDescriptor result) {
 		if (result != null) {
 			// Remove mongoDB-specific map attribute from AASDescriptor
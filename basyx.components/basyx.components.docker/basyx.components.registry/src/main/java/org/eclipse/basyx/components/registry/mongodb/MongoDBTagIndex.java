@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.mongodb;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Persistent inverted tag index of a tagged directory. There is one entry per
+ * tagged shell and one per tagged submodel, holding its tags. The multikey
+ * index on the tags maps each tag to its entries, so tag lookups only read the
+ * matching entries. Entries of submodels also hold the submodel descriptor.
+ * 
+ * A marker entry records that the index has been built from all descriptors,
+ * so that a directory without any tags is not rebuilt on each start.
+ * 
+ * @author espen
+ *
+ */
+public class MongoDBTagIndex {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBTagIndex.class);
+
+	public static final String AASID = "aasId";
+	public static final String SMID = "smId";
+	public static final String TAGS = "tags";
+	public static final String DESCRIPTOR = "descriptor";
+
+	private static final String ID = "_id";
+	private static final String BUILT_MARKER_ID = "tagIndexBuilt";
+
+	private final MongoOperations mongoOps;
+	private final String collection;
+
+	public MongoDBTagIndex(MongoOperations mongoOps, String collection, boolean createIndexes) {
+		this.mongoOps = mongoOps;
+		this.collection = collection;
+		if (createIndexes) {
+			ensureIndexes();
+		}
+	}
+
+	private void ensureIndexes() {
+		List<IndexDefinition> indexes = Arrays.asList(new Index().on(AASID, Direction.ASC).on(SMID, Direction.ASC).unique(), new Index().on(TAGS, Direction.ASC).on(SMID, Direction.ASC));
+		for (IndexDefinition index : indexes) {
+			try {
+				mongoOps.indexOps(collection).ensureIndex(index);
+			} catch (DataAccessException e) {
+				logger.warn("Could not create index " + index.getIndexKeys().toJson() + " on collection " + collection + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Returns true, if the index has been built from all descriptors
+	 */
+	public boolean isBuilt() {
+		return mongoOps.exists(query(where(ID).is(BUILT_MARKER_ID)), collection);
+	}
+
+	public void markBuilt() {
+		mongoOps.save(new Document(ID, BUILT_MARKER_ID), collection);
+	}
+
+	/**
+	 * Sets the tags of a shell. Shells without tags are removed from the index.
+	 */
+	public void indexAAS(String aasId, Collection<String> tags) {
+		Query entry = query(where(AASID).is(aasId).and(SMID).is(null));
+		if (tags.isEmpty()) {
+			mongoOps.remove(entry, collection);
+		} else {
+			upsert(entry, Update.update(TAGS, new ArrayList<>(tags)));
+		}
+	}
+
+	/**
+	 * Sets the tags and the descriptor of a submodel. Submodels without tags are
+	 * removed from the index.
+	 */
+	public void indexSubmodel(String aasId, String smId, Collection<String> tags, Map<String, Object> descriptor) {
+		Query entry = query(where(AASID).is(aasId).and(SMID).is(smId));
+		if (tags.isEmpty()) {
+			mongoOps.remove(entry, collection);
+		} else {
+			upsert(entry, Update.update(TAGS, new ArrayList<>(tags)).set(DESCRIPTOR, new Document(descriptor)));
+		}
+	}
+
+	/**
+	 * Removes the shell and all of its submodels from the index
+	 */
+	public void removeAAS(String aasId) {
+		mongoOps.remove(query(where(AASID).is(aasId)), collection);
+	}
+
+	public void removeSubmodel(String aasId, String smId) {
+		mongoOps.remove(query(where(AASID).is(aasId).and(SMID).is(smId)), collection);
+	}
+
+	/**
+	 * Removes the submodels of the shell that are not contained in smIds, e.g.
+	 * after the shell has been registered again without them
+	 */
+	public void retainSubmodels(String aasId, Collection<String> smIds) {
+		mongoOps.remove(query(where(AASID).is(aasId).and(SMID).ne(null).nin(smIds)), collection);
+	}
+
+	/**
+	 * Returns the ids of the shells that have all of the given tags
+	 */
+	public List<String> findAASIds(Collection<String> tags) {
+		Query query = query(where(TAGS).all(tags).and(SMID).is(null));
+		query.fields().include(AASID);
+		return mongoOps.find(query, Document.class, collection).stream().map(entry -> entry.getString(AASID)).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the descriptors of the submodels that have all of the given tags
+	 * 
+	 * @param tags
+	 * @param aasIds
+	 *            Ids of the shells the submodels have to belong to, or null for
+	 *            all shells
+	 */
+	public List<Map<String, Object>> findSubmodelDescriptors(Collection<String> tags, Collection<String> aasIds) {
+		Criteria criteria = where(TAGS).all(tags).and(SMID).ne(null);
+		if (aasIds != null) {
+			criteria.and(AASID).in(aasIds);
+		}
+		Query query = query(criteria);
+		query.fields().include(DESCRIPTOR);
+		return mongoOps.find(query, Document.class, collection).stream().map(entry -> (Map<String, Object>) entry.get(DESCRIPTOR, Document.class)).collect(Collectors.toList());
+	}
+
+	/**
+	 * Removes all entries including the built marker
+	 */
+	public void clear() {
+		mongoOps.remove(new Query(), collection);
+	}
+
+	private void upsert(Query entry, Update update) {
+		try {
+			mongoOps.upsert(entry, update, collection);
+		} catch (DuplicateKeyException e) {
+			// A concurrent upsert has inserted the entry in the meantime, so it can be
+			// updated now
+			mongoOps.updateFirst(entry, update, collection);
+		}
+	}
+}
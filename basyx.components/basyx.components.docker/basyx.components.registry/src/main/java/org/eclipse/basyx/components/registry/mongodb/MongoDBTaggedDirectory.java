@@ -24,68 +24,229 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.registry.mongodb;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
-import org.eclipse.basyx.aas.metamodel.map.descriptor.ModelDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.SubmodelDescriptor;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.components.registry.tagging.ITagQueryDirectory;
+import org.eclipse.basyx.components.registry.tagging.TagBitmapIndex;
+import org.eclipse.basyx.components.registry.tagging.TagQuery;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedAASDescriptor;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedSubmodelDescriptor;
 import org.eclipse.basyx.extensions.aas.directory.tagged.map.MapTaggedDirectory;
 import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A tagged Directory with MongoDB backend
  * 
+ * The tags are kept in a persistent inverted index ({@link MongoDBTagIndex}),
+ * which is updated on each registration and deletion. Tag lookups query the
+ * index instead of an in-memory tag map, so they only read the matching
+ * descriptors, and a restart does not need to read all descriptors.
+ * 
+ * Shell tag lookups are answered by a {@link TagBitmapIndex}, which loads the
+ * shells of a tag from the persistent index on its first use, and allow
+ * combining tags with AND, OR and NOT.
+ * 
  * @author zhangzai, jungjan
  *
  */
-public class MongoDBTaggedDirectory extends MapTaggedDirectory {
+public class MongoDBTaggedDirectory extends MapTaggedDirectory implements ITagQueryDirectory {
+	private static Logger logger = LoggerFactory.getLogger(MongoDBTaggedDirectory.class);
+
+	private MongoDBRegistryHandler mongoDBHandler;
+	private MongoDBTagIndex tagIndex;
+	private TagBitmapIndex tagBitmaps;
 
+	/**
+	 * @deprecated The tags are kept in MongoDB, the given tag map is not used
+	 *             anymore. Use {@link #MongoDBTaggedDirectory(BaSyxMongoDBConfiguration)}
+	 *             instead.
+	 */
+	@Deprecated
 	public MongoDBTaggedDirectory(BaSyxMongoDBConfiguration mongoDBConfig, Map<String, Set<TaggedAASDescriptor>> tagMap) {
-		super(new MongoDBRegistryHandler(mongoDBConfig), tagMap);
-		initializeTagMap();
+		this(new MongoDBRegistryHandler(mongoDBConfig), mongoDBConfig, tagMap);
 	}
-	
+
 	public MongoDBTaggedDirectory(BaSyxMongoDBConfiguration mongoDBConfig) {
-		this(mongoDBConfig, new HashMap<>());
+		this(new MongoDBRegistryHandler(mongoDBConfig), mongoDBConfig, new HashMap<>());
+	}
+
+	private MongoDBTaggedDirectory(MongoDBRegistryHandler handler, BaSyxMongoDBConfiguration mongoDBConfig, Map<String, Set<TaggedAASDescriptor>> tagMap) {
+		super(handler, tagMap);
+		this.mongoDBHandler = handler;
+		this.tagIndex = new MongoDBTagIndex(handler.mongoOps, mongoDBConfig.getTagIndexCollection(), mongoDBConfig.isIndexCreationEnabled());
+		this.tagBitmaps = new TagBitmapIndex(tag -> tagIndex.findAASIds(Collections.singleton(tag)), mongoDBConfig.getTagCacheTTL());
+		initializeTagIndex();
 	}
 
-	private void initializeTagMap() {
-		List<AASDescriptor> shellDescriptors = super.handler.getAll();	
-		shellDescriptors.stream().filter(this::isTaggedDescriptor).map(TaggedAASDescriptor::createAsFacade).forEach(super::addTags);
+	/**
+	 * Builds the tag index once for directories that have been created without it
+	 */
+	private void initializeTagIndex() {
+		if (!tagIndex.isBuilt()) {
+			rebuildTagIndex();
+		}
+	}
+
+	/**
+	 * Recreates the tag index from all descriptors, e.g. after the descriptors
+	 * have been changed without this directory
+	 */
+	public void rebuildTagIndex() {
+		tagIndex.clear();
+		List<AASDescriptor> shellDescriptors = mongoDBHandler.getAll();
+		for (AASDescriptor shellDescriptor : shellDescriptors) {
+			indexAASTags(shellDescriptor);
+			for (SubmodelDescriptor submodelDescriptor : shellDescriptor.getSubmodelDescriptors()) {
+				indexSubmodelTags(shellDescriptor.getIdentifier(), submodelDescriptor);
+			}
+		}
+		tagIndex.markBuilt();
+		tagBitmaps.clear();
+		logger.info("Indexed the tags of " + shellDescriptors.size() + " descriptors");
+	}
+
+	@Override
+	public void register(AASDescriptor descriptor) {
+		// Updating is an upsert for MongoDB
+		mongoDBHandler.update(descriptor);
+		indexAASTags(descriptor);
+
+		// The descriptor replaces the previous one including its submodels
+		List<String> smIds = new ArrayList<>();
+		for (SubmodelDescriptor submodelDescriptor : descriptor.getSubmodelDescriptors()) {
+			indexSubmodelTags(descriptor.getIdentifier(), submodelDescriptor);
+			smIds.add(submodelDescriptor.getIdentifier().getId());
+		}
+		tagIndex.retainSubmodels(descriptor.getIdentifier().getId(), smIds);
 	}
-	
-	private boolean isTaggedDescriptor(ModelDescriptor descriptor) {
-		return descriptor.get(TaggedAASDescriptor.TAGS) != null;
+
+	@Override
+	public void register(TaggedAASDescriptor descriptor) {
+		register((AASDescriptor) descriptor);
 	}
 
 	@Override
 	public void registerSubmodel(IIdentifier aas, TaggedSubmodelDescriptor descriptor) {
 		super.register(aas, descriptor);
-		addSubmodelTags(descriptor);
-		updateTagMap(aas, descriptor);
+		indexSubmodelTags(aas, descriptor);
+	}
+
+	@Override
+	public void register(IIdentifier aas, SubmodelDescriptor descriptor) {
+		super.register(aas, descriptor);
+		indexSubmodelTags(aas, descriptor);
+	}
+
+	@Override
+	public void delete(IIdentifier aasIdentifier) {
+		// The deletion does not go through the tag map of the super class, since it
+		// is not filled anymore
+		if (!mongoDBHandler.removeIfExists(aasIdentifier)) {
+			throw new ResourceNotFoundException("AAS with Identifier " + aasIdentifier.getId() + " does not exist");
+		}
+		tagIndex.removeAAS(aasIdentifier.getId());
+		tagBitmaps.remove(aasIdentifier.getId());
+	}
+
+	@Override
+	public void delete(IIdentifier aasIdentifier, IIdentifier submodelIdentifier) {
+		AASDescriptor descriptor = mongoDBHandler.get(aasIdentifier);
+		if (descriptor == null) {
+			throw new ResourceNotFoundException("AAS with Identifier " + aasIdentifier.getId() + " does not exist");
+		}
+		descriptor.removeSubmodelDescriptor(submodelIdentifier);
+		mongoDBHandler.update(descriptor);
+		tagIndex.removeSubmodel(aasIdentifier.getId(), submodelIdentifier.getId());
+	}
+
+	@Override
+	public void deleteSubmodelTag(IIdentifier aasIdentifier, IIdentifier submodelIdentifier) {
+		delete(aasIdentifier, submodelIdentifier);
+	}
+
+	@Override
+	public Set<TaggedAASDescriptor> lookupTag(String tag) {
+		return lookupTags(Collections.singleton(tag));
+	}
+
+	@Override
+	public Set<TaggedAASDescriptor> lookupTags(Set<String> tags) {
+		if (tags.isEmpty()) {
+			return new HashSet<>();
+		}
+		return lookupTags(TagQuery.allOf(tags));
+	}
+
+	@Override
+	public Set<TaggedAASDescriptor> lookupTags(TagQuery query) {
+		if (!query.hasPositiveTags()) {
+			throw new MalformedRequestException("The tag query " + query + " needs at least one tag that is required or allowed");
+		}
+		List<String> aasIds = tagBitmaps.query(query);
+		if (aasIds.isEmpty()) {
+			return new HashSet<>();
+		}
+		return mongoDBHandler.getAll(aasIds).stream().map(TaggedAASDescriptor::createAsFacade).collect(Collectors.toSet());
+	}
+
+	@Override
+	public Set<TaggedSubmodelDescriptor> lookupSubmodelTag(String submodelTag) {
+		return lookupSubmodelTags(Collections.singleton(submodelTag));
+	}
+
+	@Override
+	public Set<TaggedSubmodelDescriptor> lookupSubmodelTags(Set<String> submodelTags) {
+		if (submodelTags.isEmpty()) {
+			return new HashSet<>();
+		}
+		return toSubmodelDescriptors(tagIndex.findSubmodelDescriptors(submodelTags, null));
+	}
+
+	@Override
+	public Set<TaggedSubmodelDescriptor> lookupBothAasAndSubmodelTags(Set<String> aasTags, Set<String> submodelTags) {
+		if (aasTags.isEmpty() || submodelTags.isEmpty()) {
+			return new HashSet<>();
+		}
+		List<String> aasIds = tagBitmaps.query(TagQuery.allOf(aasTags));
+		if (aasIds.isEmpty()) {
+			return new HashSet<>();
+		}
+		return toSubmodelDescriptors(tagIndex.findSubmodelDescriptors(submodelTags, aasIds));
+	}
+
+	private Set<TaggedSubmodelDescriptor> toSubmodelDescriptors(List<Map<String, Object>> descriptors) {
+		return descriptors.stream().map(TaggedSubmodelDescriptor::createAsFacade).collect(Collectors.toSet());
 	}
 
-	private void updateTagMap(IIdentifier aas, TaggedSubmodelDescriptor descriptor) {
-		tagMap.values().forEach(tagSet -> {
-			tagSet.forEach(tagDesc -> {
-				if (descriptorEqualsToGivenAASId(aas, tagDesc)) {
-					if (!containsSubmodelDescriptor(descriptor, tagDesc))
-						tagDesc.addSubmodelDescriptor(descriptor);
-				}
-			});
-		});
+	private void indexAASTags(AASDescriptor descriptor) {
+		String aasId = descriptor.getIdentifier().getId();
+		Collection<String> tags = getTags(descriptor);
+		tagIndex.indexAAS(aasId, tags);
+		tagBitmaps.update(aasId, tags);
 	}
 
-	private boolean containsSubmodelDescriptor(TaggedSubmodelDescriptor descriptor, TaggedAASDescriptor tagDesc) {
-		return tagDesc.getSubmodelDescriptorFromIdShort(descriptor.getIdShort()) != null;
+	private void indexSubmodelTags(IIdentifier aas, SubmodelDescriptor descriptor) {
+		tagIndex.indexSubmodel(aas.getId(), descriptor.getIdentifier().getId(), getTags(descriptor), descriptor);
 	}
 
-	private boolean descriptorEqualsToGivenAASId(IIdentifier aas, TaggedAASDescriptor tagDesc) {
-		return tagDesc.getIdentifier().getId().equals(aas.getId());
+	@SuppressWarnings("unchecked")
+	private static Collection<String> getTags(Map<String, Object> descriptor) {
+		Object tags = descriptor.get(TaggedAASDescriptor.TAGS);
+		return tags instanceof Collection<?> ? (Collection<String>) tags : Collections.emptyList();
 	}
 }
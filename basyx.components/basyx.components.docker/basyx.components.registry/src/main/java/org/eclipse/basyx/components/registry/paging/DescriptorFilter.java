@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.paging;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+
+/**
+ * Criteria for listing registry descriptors. Criteria that are null match all
+ * descriptors. Backends translate the criteria into queries; {@link #matches}
+ * evaluates them in memory for backends that can not.
+ * 
+ * @author espen
+ *
+ */
+public class DescriptorFilter {
+	// Paths of the filtered values within a descriptor
+	public static final String SUBMODELS = "submodels";
+	public static final String SEMANTICID = "semanticId";
+	public static final String KEYS = "keys";
+	public static final String VALUE = "value";
+	public static final String KIND = "kind";
+	public static final String ENDPOINTS = "endpoints";
+	public static final String ADDRESS = "address";
+
+	public static final DescriptorFilter NONE = new DescriptorFilter(null, null, null);
+
+	private final String assetKind;
+	private final String semanticId;
+	private final String endpointHost;
+
+	/**
+	 * @param assetKind
+	 *            Kind of the asset, e.g. Instance
+	 * @param semanticId
+	 *            Key value of the semantic id of at least one submodel
+	 * @param endpointHost
+	 *            Host of at least one endpoint of the shell
+	 */
+	public DescriptorFilter(String assetKind, String semanticId, String endpointHost) {
+		this.assetKind = assetKind;
+		this.semanticId = semanticId;
+		this.endpointHost = endpointHost;
+	}
+
+	public String getAssetKind() {
+		return assetKind;
+	}
+
+	public String getSemanticId() {
+		return semanticId;
+	}
+
+	public String getEndpointHost() {
+		return endpointHost;
+	}
+
+	/**
+	 * Matches endpoint addresses like scheme://[user@]host[:port][/path] with the
+	 * host of this filter, ignoring the case
+	 * 
+	 * @return
+	 */
+	public Pattern getEndpointHostPattern() {
+		if (endpointHost == null) {
+			return null;
+		}
+		String escapedHost = endpointHost.replaceAll("[^A-Za-z0-9-]", "\\\\$0");
+		return Pattern.compile("^[^:/]+://([^@/]*@)?" + escapedHost + "(:[0-9]+)?(/|$)", Pattern.CASE_INSENSITIVE);
+	}
+
+	public boolean isEmpty() {
+		return assetKind == null && semanticId == null && endpointHost == null;
+	}
+
+	public boolean matches(AASDescriptor descriptor) {
+		return matchesAssetKind(descriptor) && matchesSemanticId(descriptor) && matchesEndpointHost(descriptor);
+	}
+
+	private boolean matchesAssetKind(AASDescriptor descriptor) {
+		if (assetKind == null) {
+			return true;
+		}
+		Object asset = descriptor.get(AASDescriptor.ASSET);
+		return asset instanceof Map<?, ?> && assetKind.equals(((Map<?, ?>) asset).get(KIND));
+	}
+
+	private boolean matchesSemanticId(AASDescriptor descriptor) {
+		if (semanticId == null) {
+			return true;
+		}
+		for (Object submodel : getCollection(descriptor, SUBMODELS)) {
+			if (!(submodel instanceof Map<?, ?>)) {
+				continue;
+			}
+			Object reference = ((Map<?, ?>) submodel).get(SEMANTICID);
+			if (!(reference instanceof Map<?, ?>)) {
+				continue;
+			}
+			for (Object key : getCollection((Map<?, ?>) reference, KEYS)) {
+				if (key instanceof Map<?, ?> && semanticId.equals(((Map<?, ?>) key).get(VALUE))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean matchesEndpointHost(AASDescriptor descriptor) {
+		if (endpointHost == null) {
+			return true;
+		}
+		Pattern pattern = getEndpointHostPattern();
+		for (Object endpoint : getCollection(descriptor, ENDPOINTS)) {
+			if (endpoint instanceof Map<?, ?>) {
+				Object address = ((Map<?, ?>) endpoint).get(ADDRESS);
+				if (address != null && pattern.matcher(address.toString()).find()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static Collection<?> getCollection(Map<?, ?> map, String key) {
+		Object value = map.get(key);
+		return value instanceof Collection<?> ? (Collection<?>) value : Collections.emptyList();
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.paging;
+
+import java.util.function.Consumer;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.registration.api.IAASRegistry;
+
+/**
+ * An IAASRegistry that can list its descriptors page by page and filtered by
+ * the backend, without loading all of them into memory
+ * 
+ * @author espen
+ *
+ */
+public interface IPagedAASRegistry extends IAASRegistry {
+
+	/**
+	 * Passes the matching descriptors ordered by their AAS id to the consumer one
+	 * after the other
+	 * 
+	 * @param filter
+	 *            Criteria the descriptors have to match
+	 * @param cursor
+	 *            AAS id of the descriptor after which the listing starts, or null
+	 *            to start at the first descriptor
+	 * @param limit
+	 *            Maximum number of descriptors, or 0 for no limit
+	 * @param consumer
+	 *            Receives each descriptor of the page
+	 */
+	public void streamDescriptors(DescriptorFilter filter, String cursor, int limit, Consumer<AASDescriptor> consumer);
+}
@@ -24,7 +24,6 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.registry.servlet;
 
-import org.eclipse.basyx.aas.registration.memory.AASRegistry;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.components.configuration.BaSyxMqttConfiguration;
 import org.eclipse.basyx.components.registry.mongodb.MongoDBRegistry;
@@ -46,7 +45,7 @@ public class MongoDBRegistryServlet extends RegistryServlet {
 	 * configuration
 	 */
 	public MongoDBRegistryServlet() {
-		super(new AASRegistry(new MongoDBRegistryHandler()));
+		super(new MongoDBRegistry(new MongoDBRegistryHandler()));
 	}
 
 	/**
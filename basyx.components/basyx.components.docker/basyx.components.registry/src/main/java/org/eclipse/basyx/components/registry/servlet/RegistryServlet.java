@@ -24,22 +24,84 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.registry.servlet;
 
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.aas.registration.restapi.AASRegistryModelProvider;
+import org.eclipse.basyx.components.registry.paging.DescriptorFilter;
+import org.eclipse.basyx.components.registry.paging.IPagedAASRegistry;
+import org.eclipse.basyx.components.servlet.ServletHelper;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
 import org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface;
 
 /**
  * A registry servlet based on a provided registry implementation.
+ * 
+ * If an {@link IPagedAASRegistry} is available, GET /api/v1/registry supports
+ * the query parameters <i>cursor</i> and <i>limit</i> for paging and
+ * <i>assetKind</i>, <i>semanticId</i> and <i>endpointHost</i> for filtering.
+ * The requested page is then written to the response descriptor by
+ * descriptor.
  *
  * @author pneuschwander
  */
 public class RegistryServlet extends VABHTTPInterface<AASRegistryModelProvider> {
 	private static final long serialVersionUID = 1L;
 
+	public static final String REGISTRY_PATH = "/api/v1/registry";
+	public static final String PARAM_CURSOR = "cursor";
+	public static final String PARAM_LIMIT = "limit";
+	public static final String PARAM_ASSET_KIND = "assetKind";
+	public static final String PARAM_SEMANTIC_ID = "semanticId";
+	public static final String PARAM_ENDPOINT_HOST = "endpointHost";
+
+	private final transient IPagedAASRegistry pagedRegistry;
+
 	/**
 	 * Provides registry servlet based on the provided registry implementation.
 	 */
 	public RegistryServlet(IAASRegistry aasRegistry) {
+		this(aasRegistry, aasRegistry instanceof IPagedAASRegistry ? (IPagedAASRegistry) aasRegistry : null);
+	}
+
+	/**
+	 * Provides registry servlet based on the provided registry implementation.
+	 * Paged and filtered listings are read from the given paged registry, e.g.
+	 * the backend of a decorated registry. It may be null.
+	 */
+	public RegistryServlet(IAASRegistry aasRegistry, IPagedAASRegistry pagedRegistry) {
 		super(new AASRegistryModelProvider(aasRegistry));
+		this.pagedRegistry = pagedRegistry;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (!isPagedListRequest(request)) {
+			super.doGet(request, response);
+			return;
+		}
+
+		try {
+			String cursor = request.getParameter(PARAM_CURSOR);
+			int limit = ServletHelper.getNonNegativeParameter(request, PARAM_LIMIT);
+			DescriptorFilter filter = new DescriptorFilter(request.getParameter(PARAM_ASSET_KIND), request.getParameter(PARAM_SEMANTIC_ID), request.getParameter(PARAM_ENDPOINT_HOST));
+			ServletHelper.<AASDescriptor> sendJSONArray(response, consumer -> pagedRegistry.streamDescriptors(filter, cursor, limit, consumer));
+		} catch (MalformedRequestException e) {
+			ServletHelper.sendError(response, e);
+		}
+	}
+
+	private boolean isPagedListRequest(HttpServletRequest request) {
+		String path = request.getPathInfo();
+		if (pagedRegistry == null || path == null || !(REGISTRY_PATH.equals(path) || (REGISTRY_PATH + "/").equals(path))) {
+			return false;
+		}
+		return request.getParameter(PARAM_CURSOR) != null || request.getParameter(PARAM_LIMIT) != null || request.getParameter(PARAM_ASSET_KIND) != null
+				|| request.getParameter(PARAM_SEMANTIC_ID) != null || request.getParameter(PARAM_ENDPOINT_HOST) != null;
 	}
 }
@@ -24,23 +24,83 @@
  ******************************************************************************/
 package org.eclipse.basyx.components.registry.servlet;
 
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.eclipse.basyx.aas.registration.restapi.AASRegistryModelProvider;
+import org.eclipse.basyx.components.registry.tagging.ITagQueryDirectory;
+import org.eclipse.basyx.components.registry.tagging.TagQuery;
+import org.eclipse.basyx.components.servlet.ServletHelper;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.IAASTaggedDirectory;
+import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedAASDescriptor;
 import org.eclipse.basyx.extensions.aas.directory.tagged.restapi.TaggedDirectoryProvider;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
 import org.eclipse.basyx.vab.protocol.http.server.VABHTTPInterface;
 
 /**
  * A registry servlet based on a provided MapTaggedDirectory implementation.
+ * 
+ * If an {@link ITagQueryDirectory} is available, GET /api/v1/directory supports
+ * the query parameters <i>allOf</i>, <i>anyOf</i> and <i>noneOf</i>, each with
+ * comma separated tags. The shell descriptors matching the {@link TagQuery} are
+ * then returned. At least one tag of allOf or anyOf is required.
  *
  * @author jungjan
  */
 public class TaggedDirectoryServlet extends VABHTTPInterface<AASRegistryModelProvider> {
 	private static final long serialVersionUID = 1L;
 
+	public static final String DIRECTORY_PATH = "/api/v1/directory";
+	public static final String PARAM_ALL_OF = "allOf";
+	public static final String PARAM_ANY_OF = "anyOf";
+	public static final String PARAM_NONE_OF = "noneOf";
+
+	private final transient ITagQueryDirectory queryDirectory;
+
 	/**
 	 * Provides registry servlet based on the provided registry implementation.
 	 */
 	public TaggedDirectoryServlet(IAASTaggedDirectory directory) {
+		this(directory, directory instanceof ITagQueryDirectory ? (ITagQueryDirectory) directory : null);
+	}
+
+	/**
+	 * Provides registry servlet based on the provided registry implementation.
+	 * Tag queries are answered by the given query directory, e.g. the backend of
+	 * a decorated directory. It may be null.
+	 */
+	public TaggedDirectoryServlet(IAASTaggedDirectory directory, ITagQueryDirectory queryDirectory) {
 		super(new TaggedDirectoryProvider(directory));
+		this.queryDirectory = queryDirectory;
+	}
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (!isTagQueryRequest(request)) {
+			super.doGet(request, response);
+			return;
+		}
+
+		try {
+			TagQuery query = new TagQuery(ServletHelper.getCommaSeparatedParameter(request, PARAM_ALL_OF), ServletHelper.getCommaSeparatedParameter(request, PARAM_ANY_OF),
+					ServletHelper.getCommaSeparatedParameter(request, PARAM_NONE_OF));
+			if (!query.hasPositiveTags()) {
+				throw new MalformedRequestException("Query parameter '" + PARAM_ALL_OF + "' or '" + PARAM_ANY_OF + "' needs at least one tag");
+			}
+			ServletHelper.<TaggedAASDescriptor> sendJSONArray(response, consumer -> queryDirectory.lookupTags(query).forEach(consumer));
+		} catch (MalformedRequestException e) {
+			ServletHelper.sendError(response, e);
+		}
+	}
+
+	private boolean isTagQueryRequest(HttpServletRequest request) {
+		String path = request.getPathInfo();
+		if (queryDirectory == null || path == null || !(DIRECTORY_PATH.equals(path) || (DIRECTORY_PATH + "/").equals(path))) {
+			return false;
+		}
+		return request.getParameter(PARAM_ALL_OF) != null || request.getParameter(PARAM_ANY_OF) != null || request.getParameter(PARAM_NONE_OF) != null;
 	}
-}
\ No newline at end of file
+}
@@ -26,36 +26,91 @@ package org.eclipse.basyx.components.registry.sql;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.servlet.ServletException;
 
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
 import org.eclipse.basyx.aas.registration.memory.AASRegistry;
 import org.eclipse.basyx.aas.registration.memory.MapRegistryHandler;
 import org.eclipse.basyx.components.configuration.BaSyxSQLConfiguration;
+import org.eclipse.basyx.components.registry.paging.DescriptorFilter;
+import org.eclipse.basyx.components.registry.paging.IPagedAASRegistry;
 import org.eclipse.basyx.tools.sqlproxy.SQLRootElement;
 
 /**
  * Implements a local registry based on an SQL database
  * 
+ * Descriptors are stored as serialized maps by the SQL proxy, so filters can
+ * not be part of the SQL query. Unfiltered pages therefore only read the ids of
+ * all descriptors and load the descriptors of the page one by one. Filtered or
+ * unlimited listings load all descriptors with a single query and filter them
+ * in-process.
+ * 
  * @author espen
  *
  */
-public class SQLRegistry extends AASRegistry {
+public class SQLRegistry extends AASRegistry implements IPagedAASRegistry {
 	public final static String TABLE_ID = "root_registry";
 
+	private final AASDescriptorMap descriptorMap;
+
 	/**
 	 * Constructor using default sql connection
 	 */
 	public SQLRegistry() {
-		super(new MapRegistryHandler(new AASDescriptorMap(createRootMap(new BaSyxSQLConfiguration()))));
+		this(new AASDescriptorMap(createRootMap(new BaSyxSQLConfiguration())));
 	}
 
 	/**
 	 * Creates a SQLRegistry from a sql configuration
 	 */
 	public SQLRegistry(BaSyxSQLConfiguration configuration) {
-		super(new MapRegistryHandler(new AASDescriptorMap(createRootMap(configuration))));
+		this(new AASDescriptorMap(createRootMap(configuration)));
+	}
+
+	private SQLRegistry(AASDescriptorMap descriptorMap) {
+		super(new MapRegistryHandler(descriptorMap));
+		this.descriptorMap = descriptorMap;
+	}
+
+	@Override
+	public void streamDescriptors(DescriptorFilter filter, String cursor, int limit, Consumer<AASDescriptor> consumer) {
+		if (!filter.isEmpty() || limit <= 0) {
+			// The number of loads needed to fill the page is unknown, so all descriptors
+			// are loaded at once
+			streamFromAllDescriptors(filter, cursor, limit, consumer);
+			return;
+		}
+
+		TreeSet<String> aasIds = new TreeSet<>(descriptorMap.keySet());
+		int streamed = 0;
+		for (String aasId : cursor == null ? aasIds : aasIds.tailSet(cursor, false)) {
+			AASDescriptor descriptor = descriptorMap.get(aasId);
+			if (descriptor == null) {
+				continue;
+			}
+			consumer.accept(descriptor);
+			streamed++;
+			if (streamed == limit) {
+				return;
+			}
+		}
+	}
+
+	private void streamFromAllDescriptors(DescriptorFilter filter, String cursor, int limit, Consumer<AASDescriptor> consumer) {
+		Stream<AASDescriptor> descriptors = descriptorMap.values().stream()
+				.filter(descriptor -> cursor == null || descriptor.getIdentifier().getId().compareTo(cursor) > 0)
+				.filter(filter::matches)
+				.sorted(Comparator.comparing(descriptor -> descriptor.getIdentifier().getId()));
+		if (limit > 0) {
+			descriptors = descriptors.limit(limit);
+		}
+		descriptors.forEachOrdered(consumer);
 	}
 
 	private static Map<String, Object> createRootMap(BaSyxSQLConfiguration config) {
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.tagging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the descriptors per tag. Descriptor ids are interned to
+ * small ordinals, which are reused after a descriptor has left the index, and
+ * each tag is represented by a bitmap over these ordinals. Tag queries are
+ * answered with bitmap operations instead of intersecting sets of descriptors.
+ * 
+ * The bitmap of a tag is loaded from the persistent index on its first use and
+ * kept up to date by {@link #update} and {@link #remove} afterwards. Writes of
+ * other processes to the persistent index are not seen by these updates, so
+ * with a TTL, the bitmaps are loaded again after the TTL has passed.
+ * 
+ * Bitmaps are loaded without holding the lock, so that loads do not block other
+ * queries. A loaded bitmap is only kept if no write has happened during the
+ * load, otherwise it is only used for the query that loaded it.
+ * 
+ * @author espen
+ *
+ */
+public class TagBitmapIndex {
+	private final Function<String, Collection<String>> tagLoader;
+	private final long ttlMillis;
+
+	private final Map<String, TagBitmap> bitmaps = new HashMap<>();
+	private final Map<String, Integer> ordinals = new HashMap<>();
+	private final List<String> ids = new ArrayList<>();
+	private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+	// Incremented on each write to detect loads that raced with a write
+	private long writeStamp = 0;
+
+	/**
+	 * Creates an index whose bitmaps are kept until {@link #clear()}, i.e. this
+	 * process is the only writer of the persistent index
+	 * 
+	 * @param tagLoader
+	 *            Returns the ids of all descriptors with the given tag
+	 */
+	public TagBitmapIndex(Function<String, Collection<String>> tagLoader) {
+		this(tagLoader, 0);
+	}
+
+	/**
+	 * @param tagLoader
+	 *            Returns the ids of all descriptors with the given tag
+	 * @param ttlMillis
+	 *            Time after which a bitmap is loaded again, 0 to keep the bitmaps
+	 */
+	public TagBitmapIndex(Function<String, Collection<String>> tagLoader, long ttlMillis) {
+		this.tagLoader = tagLoader;
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Returns the ids of the descriptors that match the query
+	 */
+	public List<String> query(TagQuery query) {
+		while (true) {
+			List<String> missingTags;
+			long stamp;
+			synchronized (this) {
+				missingTags = getMissingTags(query);
+				if (missingTags.isEmpty()) {
+					return evaluate(query, Collections.emptyMap());
+				}
+				stamp = writeStamp;
+			}
+
+			Map<String, Collection<String>> loaded = new HashMap<>();
+			for (String tag : missingTags) {
+				loaded.put(tag, tagLoader.apply(tag));
+			}
+
+			synchronized (this) {
+				Map<String, BitSet> queryBitmaps = new HashMap<>();
+				for (Map.Entry<String, Collection<String>> tagIds : loaded.entrySet()) {
+					BitSet bitmap = new BitSet();
+					tagIds.getValue().forEach(id -> bitmap.set(intern(id)));
+					if (stamp == writeStamp) {
+						TagBitmap expired = bitmaps.put(tagIds.getKey(), new TagBitmap(bitmap, getExpiry()));
+						if (expired != null) {
+							releaseUnused(expired.bits);
+						}
+					} else {
+						queryBitmaps.put(tagIds.getKey(), bitmap);
+					}
+				}
+				try {
+					// Bitmaps loaded before are only missing if the index has been cleared in
+					// the meantime
+					if (isAvailable(query, queryBitmaps)) {
+						return evaluate(query, queryBitmaps);
+					}
+				} finally {
+					queryBitmaps.values().forEach(this::releaseUnused);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the tags of a descriptor
+	 */
+	public synchronized void update(String id, Collection<String> tags) {
+		writeStamp++;
+		Integer ordinal = ordinals.get(id);
+		for (Map.Entry<String, TagBitmap> bitmap : bitmaps.entrySet()) {
+			if (tags.contains(bitmap.getKey())) {
+				if (ordinal == null) {
+					ordinal = intern(id);
+				}
+				bitmap.getValue().bits.set(ordinal);
+			} else if (ordinal != null) {
+				bitmap.getValue().bits.clear(ordinal);
+			}
+		}
+		releaseIfUnused(id);
+	}
+
+	/**
+	 * Removes a descriptor from all tags
+	 */
+	public synchronized void remove(String id) {
+		writeStamp++;
+		Integer ordinal = ordinals.get(id);
+		if (ordinal == null) {
+			return;
+		}
+		for (TagBitmap bitmap : bitmaps.values()) {
+			bitmap.bits.clear(ordinal);
+		}
+		releaseIfUnused(id);
+	}
+
+	/**
+	 * Drops all bitmaps, so that they are loaded again on their next use
+	 */
+	public synchronized void clear() {
+		writeStamp++;
+		bitmaps.clear();
+		ordinals.clear();
+		ids.clear();
+		freeOrdinals.clear();
+	}
+
+	/**
+	 * Returns the number of tags whose bitmaps are loaded
+	 */
+	public synchronized int getLoadedTagCount() {
+		return bitmaps.size();
+	}
+
+	private List<String> getMissingTags(TagQuery query) {
+		List<String> missingTags = new ArrayList<>();
+		for (String tag : getTags(query)) {
+			TagBitmap bitmap = bitmaps.get(tag);
+			if (bitmap == null || bitmap.isExpired()) {
+				missingTags.add(tag);
+			}
+		}
+		return missingTags;
+	}
+
+	private boolean isAvailable(TagQuery query, Map<String, BitSet> queryBitmaps) {
+		for (String tag : getTags(query)) {
+			if (!queryBitmaps.containsKey(tag) && !bitmaps.containsKey(tag)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<String> getTags(TagQuery query) {
+		Set<String> tags = new HashSet<>(query.getAllOf());
+		tags.addAll(query.getAnyOf());
+		tags.addAll(query.getNoneOf());
+		return tags;
+	}
+
+	private List<String> evaluate(TagQuery query, Map<String, BitSet> queryBitmaps) {
+		BitSet result = null;
+		if (!query.getAllOf().isEmpty()) {
+			result = intersect(query.getAllOf(), queryBitmaps);
+		}
+		if (!query.getAnyOf().isEmpty() && (result == null || !result.isEmpty())) {
+			BitSet union = new BitSet();
+			for (String tag : query.getAnyOf()) {
+				union.or(getBitmap(tag, queryBitmaps));
+			}
+			if (result == null) {
+				result = union;
+			} else {
+				result.and(union);
+			}
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Query " + query + " does not select descriptors by a tag");
+		}
+		for (String tag : query.getNoneOf()) {
+			if (result.isEmpty()) {
+				break;
+			}
+			result.andNot(getBitmap(tag, queryBitmaps));
+		}
+		return result.stream().mapToObj(ids::get).collect(Collectors.toList());
+	}
+
+	private BitSet intersect(Collection<String> tags, Map<String, BitSet> queryBitmaps) {
+		// Starting with the smallest bitmap keeps the intermediate results small
+		List<BitSet> tagBitmaps = new ArrayList<>();
+		for (String tag : tags) {
+			tagBitmaps.add(getBitmap(tag, queryBitmaps));
+		}
+		tagBitmaps.sort(Comparator.comparingInt(BitSet::cardinality));
+		BitSet result = (BitSet) tagBitmaps.get(0).clone();
+		for (int i = 1; i < tagBitmaps.size() && !result.isEmpty(); i++) {
+			result.and(tagBitmaps.get(i));
+		}
+		return result;
+	}
+
+	private BitSet getBitmap(String tag, Map<String, BitSet> queryBitmaps) {
+		BitSet bitmap = queryBitmaps.get(tag);
+		return bitmap != null ? bitmap : bitmaps.get(tag).bits;
+	}
+
+	private long getExpiry() {
+		return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+	}
+
+	private int intern(String id) {
+		Integer ordinal = ordinals.get(id);
+		if (ordinal != null) {
+			return ordinal;
+		}
+		if (freeOrdinals.isEmpty()) {
+			ordinal = ids.size();
+			ids.add(id);
+		} else {
+			ordinal = freeOrdinals.pop();
+			ids.set(ordinal, id);
+		}
+		ordinals.put(id, ordinal);
+		return ordinal;
+	}
+
+	private void releaseIfUnused(String id) {
+		Integer ordinal = ordinals.get(id);
+		if (ordinal == null) {
+			return;
+		}
+		for (TagBitmap bitmap : bitmaps.values()) {
+			if (bitmap.bits.get(ordinal)) {
+				return;
+			}
+		}
+		ordinals.remove(id);
+		ids.set(ordinal, null);
+		freeOrdinals.push(ordinal);
+	}
+
+	/**
+	 * Releases the ordinals of a bitmap that has only been used for one query
+	 */
+	private void releaseUnused(BitSet bitmap) {
+		bitmap.stream().mapToObj(ids::get).forEach(this::releaseIfUnused);
+	}
+
+	private static class TagBitmap {
+		private final BitSet bits;
+		private final long expiresAt;
+
+		public TagBitmap(BitSet bits, long expiresAt) {
+			this.bits = bits;
+			this.expiresAt = expiresAt;
+		}
+
+		public boolean isExpired() {
+			return System.currentTimeMillis() > expiresAt;
+		}
+	}
+}
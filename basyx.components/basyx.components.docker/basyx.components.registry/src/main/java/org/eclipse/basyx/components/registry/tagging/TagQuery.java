@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.registry.tagging;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Combination of tags a tagged descriptor has to match. A descriptor matches,
+ * if it has all tags of {@link #getAllOf()}, at least one tag of
+ * {@link #getAnyOf()} and none of the tags of {@link #getNoneOf()}. Empty sets
+ * are ignored, but at least one tag of allOf or anyOf is required.
+ * 
+ * @author espen
+ *
+ */
+public class TagQuery {
+	private final Set<String> allOf;
+	private final Set<String> anyOf;
+	private final Set<String> noneOf;
+
+	/**
+	 * @param allOf
+	 *            Tags that are combined with AND
+	 * @param anyOf
+	 *            Tags that are combined with OR
+	 * @param noneOf
+	 *            Tags that must not be present
+	 */
+	public TagQuery(Set<String> allOf, Set<String> anyOf, Set<String> noneOf) {
+		this.allOf = copy(allOf);
+		this.anyOf = copy(anyOf);
+		this.noneOf = copy(noneOf);
+	}
+
+	/**
+	 * Creates a query for descriptors that have all of the given tags
+	 */
+	public static TagQuery allOf(Set<String> tags) {
+		return new TagQuery(tags, null, null);
+	}
+
+	public Set<String> getAllOf() {
+		return allOf;
+	}
+
+	public Set<String> getAnyOf() {
+		return anyOf;
+	}
+
+	public Set<String> getNoneOf() {
+		return noneOf;
+	}
+
+	/**
+	 * Checks if the query selects descriptors by at least one tag. Queries that
+	 * only exclude tags are not supported.
+	 */
+	public boolean hasPositiveTags() {
+		return !allOf.isEmpty() || !anyOf.isEmpty();
+	}
+
+	public boolean matches(Set<String> tags) {
+		return tags.containsAll(allOf) && (anyOf.isEmpty() || !Collections.disjoint(tags, anyOf)) && Collections.disjoint(tags, noneOf);
+	}
+
+	private static Set<String> copy(Set<String> tags) {
+		return tags == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(tags));
+	}
+
+	@Override
+	public String toString() {
+		return "TagQuery [allOf=" + allOf + ", anyOf=" + anyOf + ", noneOf=" + noneOf + "]";
+	}
+}
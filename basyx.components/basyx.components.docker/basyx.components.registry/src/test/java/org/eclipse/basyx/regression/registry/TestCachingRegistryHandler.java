@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.basyx.aas.metamodel.api.parts.asset.AssetKind;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.SubmodelDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.parts.Asset;
+import org.eclipse.basyx.aas.registration.memory.MapRegistryHandler;
+import org.eclipse.basyx.components.registry.caching.CachingRegistryHandler;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
+import org.junit.Test;
+
+/**
+ * Tests the lookups and the write-through of the
+ * {@link CachingRegistryHandler}
+ * 
+ * @author espen
+ *
+ */
+public class TestCachingRegistryHandler {
+	private static final IIdentifier AAS_ID = new CustomId("cachedAAS");
+	private static final IIdentifier ASSET_ID = new CustomId("cachedAsset");
+	private static final String ENDPOINT = "http://localhost/aas";
+
+	private CountingHandler backend = new CountingHandler();
+
+	@Test
+	public void repeatedLookupsAreServedFromCache() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10);
+		backend.insert(createDescriptor(AAS_ID, ENDPOINT));
+
+		cache.get(AAS_ID);
+		cache.get(AAS_ID);
+		assertTrue(cache.contains(AAS_ID));
+
+		assertEquals(1, backend.reads);
+	}
+
+	@Test
+	public void lookupByAssetIdIsServedFromCache() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10);
+		cache.insert(createDescriptor(AAS_ID, ENDPOINT));
+
+		assertEquals(AAS_ID.getId(), cache.get(ASSET_ID).getIdentifier().getId());
+		assertEquals(0, backend.reads);
+	}
+
+	@Test
+	public void shellsMayShareAnAssetId() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10);
+		IIdentifier otherAASId = new CustomId("otherCachedAAS");
+		cache.insert(createDescriptor(AAS_ID, ENDPOINT));
+		cache.insert(createDescriptor(otherAASId, ASSET_ID, ENDPOINT));
+		cache.getAll();
+
+		cache.remove(otherAASId);
+
+		assertEquals(AAS_ID.getId(), cache.get(ASSET_ID).getIdentifier().getId());
+	}
+
+	@Test
+	public void writesGoThroughTheCache() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10);
+		cache.insert(createDescriptor(AAS_ID, ENDPOINT));
+		cache.update(createDescriptor(AAS_ID, "http://localhost/updated"));
+
+		assertEquals("http://localhost/updated", cache.get(AAS_ID).getFirstEndpoint());
+		assertEquals("http://localhost/updated", backend.get(AAS_ID).getFirstEndpoint());
+
+		cache.remove(AAS_ID);
+		assertFalse(backend.contains(AAS_ID));
+		assertNull(cache.get(AAS_ID));
+	}
+
+	@Test
+	public void changesOfReturnedDescriptorsDoNotAffectCache() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10);
+		cache.insert(createDescriptor(AAS_ID, ENDPOINT));
+
+		AASDescriptor descriptor = cache.get(AAS_ID);
+		descriptor.addSubmodelDescriptor(new SubmodelDescriptor("sm", new CustomId("sm"), ENDPOINT + "/submodels/sm"));
+
+		assertTrue(cache.get(AAS_ID).getSubmodelDescriptors().isEmpty());
+	}
+
+	@Test
+	public void lookupAllIsServedFromCacheUntilEviction() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 2);
+		backend.insert(createDescriptor(new CustomId("aas1"), ENDPOINT));
+		backend.insert(createDescriptor(new CustomId("aas2"), ENDPOINT));
+
+		cache.getAll();
+		cache.insert(createDescriptor(new CustomId("aas2"), "http://localhost/updated"));
+		List<AASDescriptor> all = cache.getAll();
+		assertEquals(2, all.size());
+		assertEquals(1, backend.reads);
+
+		// Exceeds the size of the cache, so the next lookup has to be read from the
+		// backend again
+		cache.insert(createDescriptor(new CustomId("aas3"), ENDPOINT));
+		assertEquals(3, cache.getAll().size());
+		assertEquals(2, backend.reads);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void descriptorsExpireAfterTTL() throws InterruptedException {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10, 50);
+		cache.insert(createDescriptor(AAS_ID, ENDPOINT));
+
+		// Written by another registry on the same backend
+		backend.update(createDescriptor(AAS_ID, "http://localhost/updated"));
+		assertEquals(ENDPOINT, cache.get(AAS_ID).getFirstEndpoint());
+
+		Thread.sleep(100);
+		assertEquals("http://localhost/updated", cache.get(AAS_ID).getFirstEndpoint());
+	}
+
+	@Test
+	public void descriptorsOfOtherWritersAreFoundWithTTL() {
+		CachingRegistryHandler cache = new CachingRegistryHandler(backend, 10, 60000);
+		cache.insert(createDescriptor(new CustomId("aas1"), ENDPOINT));
+		cache.getAll();
+
+		// Written by another registry on the same backend
+		backend.insert(createDescriptor(AAS_ID, ENDPOINT));
+		assertTrue(cache.contains(AAS_ID));
+		assertEquals(2, cache.getAll().size());
+	}
+
+	private static AASDescriptor createDescriptor(IIdentifier aasId, String endpoint) {
+		IIdentifier assetId = aasId.getId().equals(AAS_ID.getId()) ? ASSET_ID : new CustomId(aasId.getId() + "Asset");
+		return createDescriptor(aasId, assetId, endpoint);
+	}
+
+	private static AASDescriptor createDescriptor(IIdentifier aasId, IIdentifier assetId, String endpoint) {
+		Asset asset = new Asset(assetId.getId(), assetId, AssetKind.INSTANCE);
+		AssetAdministrationShell shell = new AssetAdministrationShell(aasId.getId(), aasId, asset);
+		return new AASDescriptor(shell, endpoint);
+	}
+
+	/**
+	 * Counts the reads of the backend
+	 */
+	private static class CountingHandler extends MapRegistryHandler {
+		private int reads = 0;
+
+		public CountingHandler() {
+			super(new HashMap<>());
+		}
+
+		@Override
+		public AASDescriptor get(IIdentifier identifier) {
+			reads++;
+			return super.get(identifier);
+		}
+
+		@Override
+		public List<AASDescriptor> getAll() {
+			reads++;
+			return super.getAll();
+		}
+	}
+}
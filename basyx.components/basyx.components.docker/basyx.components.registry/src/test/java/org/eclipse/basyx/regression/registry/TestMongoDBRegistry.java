@@ -24,10 +24,17 @@
  ******************************************************************************/
 package org.eclipse.basyx.regression.registry;
 
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.aas.registration.memory.AASRegistry;
 import org.eclipse.basyx.components.registry.mongodb.MongoDBRegistryHandler;
 import org.eclipse.basyx.testsuite.regression.aas.registration.TestRegistryProviderSuite;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 
 /**
  * Test class for a local registry provider based on SQL tables
@@ -41,4 +48,12 @@ public class TestMongoDBRegistry extends TestRegistryProviderSuite {
 	protected IAASRegistry getRegistryService() {
 		return new AASRegistry(new MongoDBRegistryHandler("mongodb.properties"));
 	}
+
+	@Test
+	public void lookupIndexesAreCreated() {
+		List<IndexInfo> indexes = new MongoDBRegistryHandler("mongodb.properties").getIndexInfo();
+
+		assertTrue(indexes.stream().anyMatch(index -> index.isUnique() && index.isIndexForFields(Collections.singletonList("identification.id"))));
+		assertTrue(indexes.stream().anyMatch(index -> index.isIndexForFields(Collections.singletonList("asset.identification.id"))));
+	}
 }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.registry;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.basyx.aas.metamodel.api.parts.asset.AssetKind;
+import org.eclipse.basyx.aas.metamodel.map.AssetAdministrationShell;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.AASDescriptor;
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
+import org.eclipse.basyx.aas.metamodel.map.parts.Asset;
+import org.eclipse.basyx.aas.registration.api.IAASRegistry;
+import org.eclipse.basyx.components.registry.mongodb.MongoDBRegistry;
+import org.eclipse.basyx.components.registry.mongodb.MongoDBRegistryHandler;
+import org.eclipse.basyx.components.registry.paging.DescriptorFilter;
+import org.eclipse.basyx.testsuite.regression.aas.registration.TestRegistryProviderSuite;
+import org.junit.Test;
+
+/**
+ * Test class for the MongoDB registry that registers and deletes with single
+ * requests to the database
+ * 
+ * @author espen
+ *
+ */
+public class TestMongoDBRegistryService extends TestRegistryProviderSuite {
+
+	@Override
+	protected IAASRegistry getRegistryService() {
+		return new MongoDBRegistry(new MongoDBRegistryHandler("mongodb.properties"));
+	}
+
+	@Test
+	public void lookupIsPagedAndFiltered() {
+		MongoDBRegistry registry = new MongoDBRegistry(new MongoDBRegistryHandler("mongodb.properties"));
+		List<String> aasIds = Arrays.asList("pagedAAS1", "pagedAAS2", "pagedAAS3");
+		registry.register(createDescriptor("pagedAAS1", AssetKind.INSTANCE, "http://host-a:4001/aas"));
+		registry.register(createDescriptor("pagedAAS2", AssetKind.TYPE, "http://host-b/aas"));
+		registry.register(createDescriptor("pagedAAS3", AssetKind.INSTANCE, "http://HOST-A/aas"));
+
+		try {
+			assertEquals(Arrays.asList("pagedAAS1", "pagedAAS2"), lookupIds(registry, DescriptorFilter.NONE, "pagedAAS0", 2));
+			assertEquals(Arrays.asList("pagedAAS3"), lookupIds(registry, DescriptorFilter.NONE, "pagedAAS2", 2));
+			assertEquals(Arrays.asList("pagedAAS1", "pagedAAS3"), lookupIds(registry, new DescriptorFilter(AssetKind.INSTANCE.toString(), null, null), "pagedAAS0", 0));
+			assertEquals(Arrays.asList("pagedAAS1", "pagedAAS3"), lookupIds(registry, new DescriptorFilter(null, null, "host-a"), "pagedAAS0", 0));
+			assertEquals(Arrays.asList("pagedAAS2"), lookupIds(registry, new DescriptorFilter(AssetKind.TYPE.toString(), null, "host-b"), "pagedAAS0", 0));
+		} finally {
+			aasIds.forEach(id -> registry.delete(new CustomId(id)));
+		}
+	}
+
+	private List<String> lookupIds(MongoDBRegistry registry, DescriptorFilter filter, String cursor, int limit) {
+		List<AASDescriptor> descriptors = new ArrayList<>();
+		registry.streamDescriptors(filter, cursor, limit, descriptors::add);
+		// Ignore descriptors of other tests, which are ordered before or after the
+		// descriptors of this test
+		return descriptors.stream().map(descriptor -> descriptor.getIdentifier().getId()).filter(id -> id.startsWith("pagedAAS")).collect(Collectors.toList());
+	}
+
+	private AASDescriptor createDescriptor(String aasId, AssetKind kind, String endpoint) {
+		Asset asset = new Asset(aasId + "Asset", new CustomId(aasId + "Asset"), kind);
+		AssetAdministrationShell shell = new AssetAdministrationShell(aasId, new CustomId(aasId), asset);
+		return new AASDescriptor(shell, endpoint);
+	}
+}
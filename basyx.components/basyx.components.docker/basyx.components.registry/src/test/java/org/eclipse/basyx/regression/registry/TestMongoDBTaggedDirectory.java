@@ -27,18 +27,23 @@ package org.eclipse.basyx.regression.registry;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
+import org.eclipse.basyx.components.registry.mongodb.MongoDBTagIndex;
 import org.eclipse.basyx.components.registry.mongodb.MongoDBTaggedDirectory;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.IAASTaggedDirectory;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedAASDescriptor;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedSubmodelDescriptor;
+import org.eclipse.basyx.submodel.metamodel.api.identifier.IIdentifier;
 import org.eclipse.basyx.testsuite.regression.extensions.aas.directory.tagged.TestTaggedDirectorySuite;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -53,6 +58,10 @@ public class TestMongoDBTaggedDirectory extends TestTaggedDirectorySuite {
 	private static MongoOperations mongoOps;
 	private static MongoClient client;
 
+	private static final String EMBEDDED_TAG = "embeddedTag";
+	private static final IIdentifier EMBEDDED_AAS_ID = new CustomId("embeddedAAS");
+	private static final IIdentifier EMBEDDED_SM_ID = new CustomId("embeddedSM");
+
 	@Override
 	protected IAASTaggedDirectory getDirectory() {
 		return new MongoDBTaggedDirectory(new BaSyxMongoDBConfiguration());
@@ -68,6 +77,7 @@ public class TestMongoDBTaggedDirectory extends TestTaggedDirectorySuite {
 		client = MongoClients.create(mongoDBConfig.getConnectionUrl());
 		mongoOps = new MongoTemplate(client, mongoDBConfig.getDatabase());
 		mongoOps.dropCollection(mongoDBConfig.getRegistryCollection());
+		mongoOps.dropCollection(mongoDBConfig.getTagIndexCollection());
 	}
 
 	/**
@@ -109,6 +119,62 @@ public class TestMongoDBTaggedDirectory extends TestTaggedDirectorySuite {
 		assertEquals(1, submodelDesc.getTags().size());
 	}
 
+	@Test
+	public void testRegisterIndexesEmbeddedSubmodelTags() {
+		MongoDBTaggedDirectory taggedDirectory = (MongoDBTaggedDirectory) getDirectory();
+		taggedDirectory.register(createShellWithTaggedSubmodel());
+
+		assertEquals(1, taggedDirectory.lookupSubmodelTag(EMBEDDED_TAG).size());
+		taggedDirectory.delete(EMBEDDED_AAS_ID);
+	}
+
+	@Test
+	public void testReRegisterRemovesDroppedSubmodelTags() {
+		MongoDBTaggedDirectory taggedDirectory = (MongoDBTaggedDirectory) getDirectory();
+		taggedDirectory.register(createShellWithTaggedSubmodel());
+
+		taggedDirectory.register(new TaggedAASDescriptor("embeddedAAS", EMBEDDED_AAS_ID, "http://localhost/embeddedAAS"));
+
+		assertTrue(taggedDirectory.lookupSubmodelTag(EMBEDDED_TAG).isEmpty());
+		taggedDirectory.delete(EMBEDDED_AAS_ID);
+	}
+
+	@Test
+	public void testSubmodelDeletionRemovesSubmodelTags() {
+		MongoDBTaggedDirectory taggedDirectory = (MongoDBTaggedDirectory) getDirectory();
+		taggedDirectory.register(createShellWithTaggedSubmodel());
+
+		taggedDirectory.delete(EMBEDDED_AAS_ID, EMBEDDED_SM_ID);
+
+		assertTrue(taggedDirectory.lookupSubmodelTag(EMBEDDED_TAG).isEmpty());
+		taggedDirectory.delete(EMBEDDED_AAS_ID);
+	}
+
+	@Test
+	public void testRebuildRestoresTagsAndMarksIndexAsBuilt() {
+		MongoDBTaggedDirectory taggedDirectory = (MongoDBTaggedDirectory) getDirectory();
+		taggedDirectory.register(createShellWithTaggedSubmodel());
+
+		// Simulates a tag index that is out of date, e.g. after a restore of the
+		// registry collection
+		mongoOps.remove(query(where(MongoDBTagIndex.AASID).is(EMBEDDED_AAS_ID.getId())), mongoDBConfig.getTagIndexCollection());
+		assertTrue(taggedDirectory.lookupSubmodelTag(EMBEDDED_TAG).isEmpty());
+
+		taggedDirectory.rebuildTagIndex();
+
+		assertEquals(1, taggedDirectory.lookupSubmodelTag(EMBEDDED_TAG).size());
+		assertTrue(mongoOps.exists(query(where("_id").is("tagIndexBuilt")), mongoDBConfig.getTagIndexCollection()));
+		taggedDirectory.delete(EMBEDDED_AAS_ID);
+	}
+
+	private TaggedAASDescriptor createShellWithTaggedSubmodel() {
+		TaggedSubmodelDescriptor submodelDescriptor = new TaggedSubmodelDescriptor("embeddedSM", EMBEDDED_SM_ID, "http://localhost/embeddedAAS/submodels/embeddedSM");
+		submodelDescriptor.addTag(EMBEDDED_TAG);
+		TaggedAASDescriptor shellDescriptor = new TaggedAASDescriptor("embeddedAAS", EMBEDDED_AAS_ID, "http://localhost/embeddedAAS");
+		shellDescriptor.addSubmodelDescriptor(submodelDescriptor);
+		return shellDescriptor;
+	}
+
 	private void updateAASTag(TaggedAASDescriptor desc5) {
 		desc5.addTag(MACHINE);
 		desc5.getTags().remove(INTERNAL);
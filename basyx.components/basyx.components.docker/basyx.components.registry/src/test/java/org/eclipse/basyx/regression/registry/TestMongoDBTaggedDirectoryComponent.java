@@ -1,18 +1,30 @@
 package org.eclipse.basyx.regression.registry;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
+import org.eclipse.basyx.aas.metamodel.map.descriptor.CustomId;
 import org.eclipse.basyx.aas.registration.api.IAASRegistry;
 import org.eclipse.basyx.components.configuration.BaSyxContextConfiguration;
 import org.eclipse.basyx.components.configuration.BaSyxMongoDBConfiguration;
 import org.eclipse.basyx.components.registry.RegistryComponent;
 import org.eclipse.basyx.components.registry.configuration.BaSyxRegistryConfiguration;
+import org.eclipse.basyx.components.registry.servlet.TaggedDirectoryServlet;
 import org.eclipse.basyx.extensions.aas.directory.tagged.api.IAASTaggedDirectory;
+import org.eclipse.basyx.extensions.aas.directory.tagged.api.TaggedAASDescriptor;
 import org.eclipse.basyx.extensions.aas.directory.tagged.proxy.TaggedDirectoryProxy;
 import org.eclipse.basyx.testsuite.regression.extensions.aas.directory.tagged.TestTaggedDirectorySuite;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Test;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
@@ -41,6 +53,7 @@ public class TestMongoDBTaggedDirectoryComponent extends TestTaggedDirectorySuit
 		MongoClient client = MongoClients.create(mongoDBConfig.getConnectionUrl());
 		MongoOperations mongoOps = new MongoTemplate(client, mongoDBConfig.getDatabase());
 		mongoOps.dropCollection(mongoDBConfig.getRegistryCollection());
+		mongoOps.dropCollection(mongoDBConfig.getTagIndexCollection());
 	}
 
 	private static RegistryComponent createTaggedDirectoryComponent() {
@@ -51,6 +64,41 @@ public class TestMongoDBTaggedDirectoryComponent extends TestTaggedDirectorySuit
 		return new RegistryComponent(contextConfig, taggedDirectoryConfig);
 	}
 
+	@Test
+	public void tagQueryParametersCombineTags() throws IOException {
+		TaggedAASDescriptor lineCell = createTaggedDescriptor("queryLineCell", "queryLine", "queryCell");
+		TaggedAASDescriptor lineOnly = createTaggedDescriptor("queryLineOnly", "queryLine");
+		getDirectory().register(lineCell);
+		getDirectory().register(lineOnly);
+
+		try {
+			String result = get(TaggedDirectoryServlet.DIRECTORY_PATH + "?allOf=queryLine&noneOf=queryCell");
+			assertTrue(result.contains(lineOnly.getIdentifier().getId()));
+			assertFalse(result.contains(lineCell.getIdentifier().getId()));
+		} finally {
+			getDirectory().delete(lineCell.getIdentifier());
+			getDirectory().delete(lineOnly.getIdentifier());
+		}
+	}
+
+	private TaggedAASDescriptor createTaggedDescriptor(String idShort, String... tags) {
+		TaggedAASDescriptor descriptor = new TaggedAASDescriptor(idShort, new CustomId(idShort + "Id"), "http://localhost/" + idShort);
+		for (String tag : tags) {
+			descriptor.addTag(tag);
+		}
+		return descriptor;
+	}
+
+	private String get(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(new BaSyxContextConfiguration().getUrl() + path).openConnection();
+		try (InputStream in = connection.getInputStream()) {
+			assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} finally {
+			connection.disconnect();
+		}
+	}
+
 	@Override
 	protected IAASTaggedDirectory getDirectory() {
 		return new TaggedDirectoryProxy(new BaSyxContextConfiguration().getUrl());
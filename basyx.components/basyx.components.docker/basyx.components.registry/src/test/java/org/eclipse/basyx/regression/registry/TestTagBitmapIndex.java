@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.regression.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.basyx.components.registry.tagging.TagBitmapIndex;
+import org.eclipse.basyx.components.registry.tagging.TagQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the AND, OR and NOT queries, the incremental updates and the reloads of
+ * the {@link TagBitmapIndex}
+ * 
+ * @author espen
+ *
+ */
+public class TestTagBitmapIndex {
+	private Map<String, Set<String>> persistedTags = new HashMap<>();
+	private TagBitmapIndex index;
+
+	@Before
+	public void setUp() {
+		persistedTags.put("line1", set("aas1", "aas2", "aas3"));
+		persistedTags.put("cell1", set("aas1", "aas2"));
+		persistedTags.put("vendorA", set("aas2", "aas3"));
+		persistedTags.put("robot", set("aas1", "aas3"));
+		index = new TagBitmapIndex(tag -> persistedTags.getOrDefault(tag, new HashSet<>()));
+	}
+
+	@Test
+	public void allOfIntersectsTags() {
+		assertIds(index.query(TagQuery.allOf(set("line1", "cell1", "vendorA"))), "aas2");
+	}
+
+	@Test
+	public void anyOfUnitesTags() {
+		assertIds(index.query(new TagQuery(set("line1"), set("vendorA", "robot"), null)), "aas1", "aas2", "aas3");
+	}
+
+	@Test
+	public void noneOfExcludesTags() {
+		assertIds(index.query(new TagQuery(set("line1"), null, set("robot"))), "aas2");
+	}
+
+	@Test
+	public void unknownTagMatchesNothing() {
+		assertIds(index.query(TagQuery.allOf(set("line1", "unknown"))));
+	}
+
+	@Test
+	public void updatesChangeLoadedTags() {
+		index.query(TagQuery.allOf(set("line1", "robot")));
+		assertEquals(2, index.getLoadedTagCount());
+
+		index.update("aas2", set("line1", "robot"));
+		index.update("aas4", set("robot"));
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas1", "aas2", "aas3", "aas4");
+
+		index.remove("aas1");
+		index.update("aas3", set("line1"));
+		assertIds(index.query(TagQuery.allOf(set("line1", "robot"))), "aas2");
+	}
+
+	@Test
+	public void ordinalsAreReused() {
+		index.query(TagQuery.allOf(set("robot")));
+		index.remove("aas1");
+		index.update("aas5", set("robot"));
+
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas3", "aas5");
+	}
+
+	@Test
+	public void bitmapsAreReloadedAfterTTL() throws InterruptedException {
+		index = new TagBitmapIndex(tag -> new HashSet<>(persistedTags.getOrDefault(tag, new HashSet<>())), 50);
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas1", "aas3");
+
+		// Written by another directory on the same persistent index
+		persistedTags.get("robot").add("aas4");
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas1", "aas3");
+
+		Thread.sleep(100);
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas1", "aas3", "aas4");
+	}
+
+	@Test
+	public void bitmapsLoadedDuringWritesAreNotKept() {
+		index = new TagBitmapIndex(tag -> {
+			// Writes from another thread would block if the load held the lock
+			Thread writer = new Thread(() -> index.update("aas4", set("robot")));
+			writer.start();
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return persistedTags.getOrDefault(tag, new HashSet<>());
+		});
+
+		assertIds(index.query(TagQuery.allOf(set("robot"))), "aas1", "aas3");
+		assertEquals(0, index.getLoadedTagCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void onlyExcludedTagsAreRejected() {
+		index.query(new TagQuery(null, null, set("robot")));
+	}
+
+	private static void assertIds(List<String> actual, String... expected) {
+		assertEquals(expected.length, actual.size());
+		assertTrue(actual.containsAll(Arrays.asList(expected)));
+	}
+
+	private static Set<String> set(String... values) {
+		return new HashSet<>(Arrays.asList(values));
+	}
+}
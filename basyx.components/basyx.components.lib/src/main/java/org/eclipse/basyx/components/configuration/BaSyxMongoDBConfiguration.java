@@ -44,6 +44,20 @@ public class BaSyxMongoDBConfiguration extends BaSyxConfiguration {
 	public static final String DEFAULT_AAS_COLLECTION = "basyxaas";
 	public static final String DEFAULT_SUBMODEL_COLLECTION = "basyxsubmodel";
 	public static final String DEFAULT_FILE_COLLECTION = "basyxfiles";
+	public static final String DEFAULT_AAS_LAZY_LOADING = "Disabled";
+	public static final String DEFAULT_AAS_PROVIDER_CACHE_SIZE = "1000";
+	public static final String DEFAULT_WRITE_BEHIND = "Disabled";
+	public static final String DEFAULT_WRITE_BEHIND_INTERVAL = "1000";
+	public static final String DEFAULT_WRITE_BEHIND_MAX_PENDING = "1000";
+	public static final String DEFAULT_INDEX_CREATION = "Enabled";
+	public static final String DEFAULT_CHANGE_STREAMS = "Disabled";
+	public static final String DEFAULT_OPERATION_RESULT_COLLECTION = "basyxoperationresults";
+	public static final String DEFAULT_OPERATION_RESULT_TTL = "3600000";
+	public static final String DEFAULT_ASYNC_INVOCATION_THREADS = "10";
+	public static final String DEFAULT_ASYNC_INVOCATION_QUEUE_SIZE = "1000";
+	public static final String DEFAULT_TAG_INDEX_COLLECTION = "basyxtagindex";
+	public static final String DEFAULT_UPLOAD_SESSION_TTL = "86400000";
+	public static final String DEFAULT_TAG_CACHE_TTL = "60000";
 
 	public static final String DATABASE = "dbname";
 	public static final String CONNECTIONURL = "dbconnectionstring";
@@ -51,6 +65,25 @@ public class BaSyxMongoDBConfiguration extends BaSyxConfiguration {
 	public static final String AAS_COLLECTION = "dbcollectionAAS";
 	public static final String SUBMODEL_COLLECTION = "dbcollectionSubmodels";
 	public static final String FILE_COLLECTION = "dbcollectionFiles";
+	public static final String AAS_LAZY_LOADING = "aasLazyLoading";
+	public static final String AAS_PROVIDER_CACHE_SIZE = "aasProviderCacheSize";
+	public static final String WRITE_BEHIND = "writeBehind";
+	public static final String WRITE_BEHIND_INTERVAL = "writeBehindInterval";
+	public static final String WRITE_BEHIND_MAX_PENDING = "writeBehindMaxPending";
+	public static final String INDEX_CREATION = "indexCreation";
+	public static final String CHANGE_STREAMS = "changeStreams";
+	public static final String CONNECTION_POOL_MAX_SIZE = "connectionPoolMaxSize";
+	public static final String CONNECTION_POOL_MAX_WAIT_TIME = "connectionPoolMaxWaitTime";
+	public static final String OPERATION_RESULT_COLLECTION = "dbcollectionOperationResults";
+	public static final String OPERATION_RESULT_TTL = "operationResultTTL";
+	public static final String ASYNC_INVOCATION_THREADS = "asyncInvocationThreads";
+	public static final String ASYNC_INVOCATION_QUEUE_SIZE = "asyncInvocationQueueSize";
+	public static final String TAG_INDEX_COLLECTION = "dbcollectionTagIndex";
+	public static final String UPLOAD_SESSION_TTL = "uploadSessionTTL";
+	public static final String TAG_CACHE_TTL = "tagCacheTTL";
+
+	private static final String FEATURE_ENABLED = "Enabled";
+	private static final String FEATURE_DISABLED = "Disabled";
 
 	// The default path for the context properties file
 	public static final String DEFAULT_CONFIG_PATH = "mongodb.properties";
@@ -66,6 +99,20 @@ public class BaSyxMongoDBConfiguration extends BaSyxConfiguration {
 		defaultProps.put(AAS_COLLECTION, DEFAULT_AAS_COLLECTION);
 		defaultProps.put(SUBMODEL_COLLECTION, DEFAULT_SUBMODEL_COLLECTION);
 		defaultProps.put(FILE_COLLECTION, DEFAULT_FILE_COLLECTION);
+		defaultProps.put(AAS_LAZY_LOADING, DEFAULT_AAS_LAZY_LOADING);
+		defaultProps.put(AAS_PROVIDER_CACHE_SIZE, DEFAULT_AAS_PROVIDER_CACHE_SIZE);
+		defaultProps.put(WRITE_BEHIND, DEFAULT_WRITE_BEHIND);
+		defaultProps.put(WRITE_BEHIND_INTERVAL, DEFAULT_WRITE_BEHIND_INTERVAL);
+		defaultProps.put(WRITE_BEHIND_MAX_PENDING, DEFAULT_WRITE_BEHIND_MAX_PENDING);
+		defaultProps.put(INDEX_CREATION, DEFAULT_INDEX_CREATION);
+		defaultProps.put(CHANGE_STREAMS, DEFAULT_CHANGE_STREAMS);
+		defaultProps.put(OPERATION_RESULT_COLLECTION, DEFAULT_OPERATION_RESULT_COLLECTION);
+		defaultProps.put(OPERATION_RESULT_TTL, DEFAULT_OPERATION_RESULT_TTL);
+		defaultProps.put(ASYNC_INVOCATION_THREADS, DEFAULT_ASYNC_INVOCATION_THREADS);
+		defaultProps.put(ASYNC_INVOCATION_QUEUE_SIZE, DEFAULT_ASYNC_INVOCATION_QUEUE_SIZE);
+		defaultProps.put(TAG_INDEX_COLLECTION, DEFAULT_TAG_INDEX_COLLECTION);
+		defaultProps.put(UPLOAD_SESSION_TTL, DEFAULT_UPLOAD_SESSION_TTL);
+		defaultProps.put(TAG_CACHE_TTL, DEFAULT_TAG_CACHE_TTL);
 
 		return defaultProps;
 	}
@@ -146,7 +193,10 @@ public class BaSyxMongoDBConfiguration extends BaSyxConfiguration {
 
 	public void loadFromEnvironmentVariables() {
 		String[] properties = { DATABASE, CONNECTIONURL, REGISTRY_COLLECTION, AAS_COLLECTION, SUBMODEL_COLLECTION,
-				FILE_COLLECTION };
+				FILE_COLLECTION, AAS_LAZY_LOADING, AAS_PROVIDER_CACHE_SIZE, WRITE_BEHIND, WRITE_BEHIND_INTERVAL,
+				WRITE_BEHIND_MAX_PENDING, INDEX_CREATION, CHANGE_STREAMS, CONNECTION_POOL_MAX_SIZE,
+				CONNECTION_POOL_MAX_WAIT_TIME, OPERATION_RESULT_COLLECTION, OPERATION_RESULT_TTL, ASYNC_INVOCATION_THREADS,
+				ASYNC_INVOCATION_QUEUE_SIZE, TAG_INDEX_COLLECTION, UPLOAD_SESSION_TTL, TAG_CACHE_TTL };
 		loadFromEnvironmentVariables(ENV_PREFIX, properties);
 	}
 
@@ -202,4 +252,203 @@ public class BaSyxMongoDBConfiguration extends BaSyxConfiguration {
 	public void setFileCollection(String fileCollection) {
 		setProperty(FILE_COLLECTION, fileCollection);
 	}
+
+	/**
+	 * If enabled, the MongoDB AAS aggregator only loads the AAS ids on startup
+	 * and creates the AAS providers on first access
+	 */
+	public boolean isAASLazyLoadingEnabled() {
+		return FEATURE_ENABLED.equals(getProperty(AAS_LAZY_LOADING));
+	}
+
+	public void setAASLazyLoadingEnabled(boolean enabled) {
+		setProperty(AAS_LAZY_LOADING, enabled ? FEATURE_ENABLED : DEFAULT_AAS_LAZY_LOADING);
+	}
+
+	/**
+	 * Maximum number of AAS providers that are kept in memory if lazy loading is
+	 * enabled. The least recently used providers are evicted first.
+	 */
+	public int getAASProviderCacheSize() {
+		return Integer.parseInt(getPropertyOrDefault(AAS_PROVIDER_CACHE_SIZE, DEFAULT_AAS_PROVIDER_CACHE_SIZE));
+	}
+
+	public void setAASProviderCacheSize(int cacheSize) {
+		setProperty(AAS_PROVIDER_CACHE_SIZE, Integer.toString(cacheSize));
+	}
+
+	/**
+	 * If enabled, submodel element value updates are buffered in memory and
+	 * written to the database in batches
+	 */
+	public boolean isWriteBehindEnabled() {
+		return FEATURE_ENABLED.equals(getProperty(WRITE_BEHIND));
+	}
+
+	public void setWriteBehindEnabled(boolean enabled) {
+		setProperty(WRITE_BEHIND, enabled ? FEATURE_ENABLED : DEFAULT_WRITE_BEHIND);
+	}
+
+	/**
+	 * Interval in milliseconds in which buffered updates are written
+	 */
+	public long getWriteBehindInterval() {
+		return Long.parseLong(getPropertyOrDefault(WRITE_BEHIND_INTERVAL, DEFAULT_WRITE_BEHIND_INTERVAL));
+	}
+
+	public void setWriteBehindInterval(long intervalMillis) {
+		setProperty(WRITE_BEHIND_INTERVAL, Long.toString(intervalMillis));
+	}
+
+	/**
+	 * Number of buffered updates after which they are written regardless of the
+	 * interval
+	 */
+	public int getWriteBehindMaxPending() {
+		return Integer.parseInt(getPropertyOrDefault(WRITE_BEHIND_MAX_PENDING, DEFAULT_WRITE_BEHIND_MAX_PENDING));
+	}
+
+	public void setWriteBehindMaxPending(int maxPending) {
+		setProperty(WRITE_BEHIND_MAX_PENDING, Integer.toString(maxPending));
+	}
+
+	/**
+	 * If enabled, the MongoDB backends create the indexes for their lookups on
+	 * startup. Can be disabled if the indexes are managed externally.
+	 */
+	public boolean isIndexCreationEnabled() {
+		return FEATURE_ENABLED.equals(getPropertyOrDefault(INDEX_CREATION, DEFAULT_INDEX_CREATION));
+	}
+
+	public void setIndexCreationEnabled(boolean enabled) {
+		setProperty(INDEX_CREATION, enabled ? FEATURE_ENABLED : FEATURE_DISABLED);
+	}
+
+	/**
+	 * If enabled, the AAS server watches the MongoDB collections for changes made
+	 * by other servers and updates its providers and caches accordingly. Requires
+	 * MongoDB to run as a replica set.
+	 */
+	public boolean isChangeStreamsEnabled() {
+		return FEATURE_ENABLED.equals(getPropertyOrDefault(CHANGE_STREAMS, DEFAULT_CHANGE_STREAMS));
+	}
+
+	public void setChangeStreamsEnabled(boolean enabled) {
+		setProperty(CHANGE_STREAMS, enabled ? FEATURE_ENABLED : FEATURE_DISABLED);
+	}
+
+	/**
+	 * Maximum number of connections to MongoDB that are shared by all request
+	 * threads of a server. Returns null if not configured, in which case the
+	 * connection string or the driver default applies.
+	 */
+	public Integer getConnectionPoolMaxSize() {
+		String value = getProperty(CONNECTION_POOL_MAX_SIZE);
+		return value == null ? null : Integer.parseInt(value);
+	}
+
+	public void setConnectionPoolMaxSize(int maxSize) {
+		setProperty(CONNECTION_POOL_MAX_SIZE, Integer.toString(maxSize));
+	}
+
+	/**
+	 * Maximum time in milliseconds a request thread waits for a free connection
+	 * before failing. Returns null if not configured, in which case the connection
+	 * string or the driver default applies.
+	 */
+	public Long getConnectionPoolMaxWaitTime() {
+		String value = getProperty(CONNECTION_POOL_MAX_WAIT_TIME);
+		return value == null ? null : Long.parseLong(value);
+	}
+
+	public void setConnectionPoolMaxWaitTime(long maxWaitTimeMillis) {
+		setProperty(CONNECTION_POOL_MAX_WAIT_TIME, Long.toString(maxWaitTimeMillis));
+	}
+
+	/**
+	 * Collection in which the tags of a tagged directory are indexed
+	 */
+	public String getTagIndexCollection() {
+		return getPropertyOrDefault(TAG_INDEX_COLLECTION, DEFAULT_TAG_INDEX_COLLECTION);
+	}
+
+	public void setTagIndexCollection(String tagIndexCollection) {
+		setProperty(TAG_INDEX_COLLECTION, tagIndexCollection);
+	}
+
+	/**
+	 * Time in milliseconds after which the in-memory tag lookups of a tagged
+	 * directory are read from the tag index again, so that tags written by other
+	 * directories become visible. 0 keeps them until the next restart.
+	 */
+	public long getTagCacheTTL() {
+		return Long.parseLong(getPropertyOrDefault(TAG_CACHE_TTL, DEFAULT_TAG_CACHE_TTL));
+	}
+
+	public void setTagCacheTTL(long ttlMillis) {
+		setProperty(TAG_CACHE_TTL, Long.toString(ttlMillis));
+	}
+
+	/**
+	 * Collection in which the requests and results of asynchronous operation
+	 * invocations are stored
+	 */
+	public String getOperationResultCollection() {
+		return getPropertyOrDefault(OPERATION_RESULT_COLLECTION, DEFAULT_OPERATION_RESULT_COLLECTION);
+	}
+
+	public void setOperationResultCollection(String operationResultCollection) {
+		setProperty(OPERATION_RESULT_COLLECTION, operationResultCollection);
+	}
+
+	/**
+	 * Time in milliseconds after which stored invocation results are removed
+	 */
+	public long getOperationResultTTL() {
+		return Long.parseLong(getPropertyOrDefault(OPERATION_RESULT_TTL, DEFAULT_OPERATION_RESULT_TTL));
+	}
+
+	public void setOperationResultTTL(long ttlMillis) {
+		setProperty(OPERATION_RESULT_TTL, Long.toString(ttlMillis));
+	}
+
+	/**
+	 * Time in milliseconds after which file upload sessions that have not been
+	 * completed are removed together with their chunks
+	 */
+	public long getUploadSessionTTL() {
+		return Long.parseLong(getPropertyOrDefault(UPLOAD_SESSION_TTL, DEFAULT_UPLOAD_SESSION_TTL));
+	}
+
+	public void setUploadSessionTTL(long ttlMillis) {
+		setProperty(UPLOAD_SESSION_TTL, Long.toString(ttlMillis));
+	}
+
+	/**
+	 * Number of threads that execute asynchronous operation invocations
+	 */
+	public int getAsyncInvocationThreads() {
+		return Integer.parseInt(getPropertyOrDefault(ASYNC_INVOCATION_THREADS, DEFAULT_ASYNC_INVOCATION_THREADS));
+	}
+
+	public void setAsyncInvocationThreads(int threads) {
+		setProperty(ASYNC_INVOCATION_THREADS, Integer.toString(threads));
+	}
+
+	/**
+	 * Number of asynchronous invocations that may wait for a free thread. Further
+	 * invocations are rejected.
+	 */
+	public int getAsyncInvocationQueueSize() {
+		return Integer.parseInt(getPropertyOrDefault(ASYNC_INVOCATION_QUEUE_SIZE, DEFAULT_ASYNC_INVOCATION_QUEUE_SIZE));
+	}
+
+	public void setAsyncInvocationQueueSize(int queueSize) {
+		setProperty(ASYNC_INVOCATION_QUEUE_SIZE, Integer.toString(queueSize));
+	}
+
+	private String getPropertyOrDefault(String name, String defaultValue) {
+		String value = getProperty(name);
+		return value == null ? defaultValue : value;
+	}
 }
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (C) 2021 the Eclipse BaSyx Authors
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * SPDX-License-Identifier: MIT
+ ******************************************************************************/
+package org.eclipse.basyx.components.servlet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.basyx.vab.coder.json.metaprotocol.Result;
+import org.eclipse.basyx.vab.coder.json.serialization.DefaultTypeFactory;
+import org.eclipse.basyx.vab.coder.json.serialization.GSONTools;
+import org.eclipse.basyx.vab.exception.provider.MalformedRequestException;
+import org.eclipse.basyx.vab.exception.provider.ProviderException;
+import org.eclipse.basyx.vab.protocol.http.server.ExceptionToHTTPCodeMapper;
+
+/**
+ * Helper for servlets that answer requests themselves instead of passing them
+ * to the VAB provider, e.g. paged listings
+ * 
+ * @author schnicke
+ *
+ */
+public class ServletHelper {
+	private static final GSONTools SERIALIZER = new GSONTools(new DefaultTypeFactory());
+
+	private ServletHelper() {
+	}
+
+	/**
+	 * Returns the value of an optional query parameter that has to be a
+	 * non-negative integer, or 0 if it is missing
+	 * 
+	 * @param request
+	 * @param name
+	 * @return
+	 * @throws MalformedRequestException
+	 *             if the value is not a non-negative integer
+	 */
+	public static int getNonNegativeParameter(HttpServletRequest request, String name) {
+		String value = request.getParameter(name);
+		if (value == null) {
+			return 0;
+		}
+
+		try {
+			int parsed = Integer.parseInt(value);
+			if (parsed >= 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// Handled below
+		}
+		throw new MalformedRequestException("Query parameter '" + name + "' has to be a non-negative integer, but was '" + value + "'");
+	}
+
+	/**
+	 * Returns the comma separated values of the query parameter. Empty values are
+	 * skipped, a missing parameter results in an empty set.
+	 * 
+	 * @param request
+	 * @param name
+	 * @return
+	 */
+	public static Set<String> getCommaSeparatedParameter(HttpServletRequest request, String name) {
+		String value = request.getParameter(name);
+		if (value == null) {
+			return new LinkedHashSet<>();
+		}
+		return Arrays.stream(value.split(",")).map(String::trim).filter(entry -> !entry.isEmpty()).collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	/**
+	 * Writes the exception as result with the matching HTTP status code
+	 * 
+	 * @param response
+	 * @param e
+	 * @throws IOException
+	 */
+	public static void sendError(HttpServletResponse response, ProviderException e) throws IOException {
+		response.setStatus(ExceptionToHTTPCodeMapper.mapFromException(e));
+		response.getOutputStream().write(SERIALIZER.serialize(new Result(e)).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes the elements passed by the producer to its consumer as JSON array
+	 * without collecting them in memory first
+	 * 
+	 * @param response
+	 * @param producer
+	 *            passes each element of the array to the given consumer
+	 * @throws IOException
+	 */
+	public static <T> void sendJSONArray(HttpServletResponse response, Consumer<Consumer<T>> producer) throws IOException {
+		response.setContentType("application/json");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+		Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+		writer.write('[');
+		boolean[] isFirst = { true };
+		try {
+			producer.accept(element -> {
+				try {
+					if (!isFirst[0]) {
+						writer.write(',');
+					}
+					isFirst[0] = false;
+					writer.write(SERIALIZER.serialize(element));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.write(']');
+		writer.flush();
+	}
+}